@@ -0,0 +1,45 @@
+package memmanager.benchmarks;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * This is the main class of the benchmarks jar. It takes the same arguments as the JMH runner,
+ * but always adds the GC profiler, so every benchmark reports its allocation rate
+ * (gc.alloc.rate and gc.alloc.rate.norm, the bytes allocated per operation) next to its
+ * operations per second.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2012.01.31
+ */
+public class BenchmarkMain {
+
+	// ----------------------------------------------------------
+	/**
+	 * Runs the benchmarks.
+	 * @param args JMH runner arguments, such as a benchmark name pattern or -p policy=best
+	 * @throws CommandLineOptionException if the arguments are not valid
+	 * @throws RunnerException if a benchmark fails
+	 * @throws IOException if the list of benchmarks cannot be read
+	 */
+	public static void main(String[] args) throws CommandLineOptionException, RunnerException, 
+			IOException {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		if (commandLine.shouldHelp() || commandLine.shouldList()) {
+			org.openjdk.jmh.Main.main(args);
+			return;
+		}
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+		if (commandLine.getProfilers().isEmpty())
+			options.addProfiler(GCProfiler.class);
+		new Runner(options.build()).run();
+	}
+}
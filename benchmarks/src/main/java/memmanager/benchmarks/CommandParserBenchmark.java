@@ -0,0 +1,114 @@
+package memmanager.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import memmanager.Command;
+import memmanager.CommandParser;
+import memmanager.CommandReader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how many command lines are parsed per second, by CommandParser from a String and by
+ * CommandReader from the bytes of a commands file. The lines are a mix of inserts, removes and
+ * prints, like the sample commands files.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2012.01.31
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandParserBenchmark {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The number of lines; a power of 2 */
+	private static final int NUM_OF_LINES = 1 << 12;
+
+	/* The city names used in the inserts */
+	private static final String[] CITIES = {"Blacksburg", "New York", "Roanoke", 
+			"Christiansburg", "San Francisco", "Washington", "Richmond", "Los Angeles"};
+
+	/* The lines as Strings */
+	private String[] lines;
+
+	/* The lines one after the other, as in a commands file */
+	private byte[] bytes;
+
+	/* The index in bytes where each line starts, and where the one after the last would */
+	private int[] lineStarts;
+
+	/* The command CommandReader fills in */
+	private Command command;
+
+	/* The next line to parse */
+	private int next;
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Makes the lines.
+	 */
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		lines = new String[NUM_OF_LINES];
+		StringBuilder file = new StringBuilder();
+		lineStarts = new int[NUM_OF_LINES + 1];
+		for (int i = 0; i < NUM_OF_LINES; i++) {
+			int kind = random.nextInt(10);
+			int recordNumber = random.nextInt(100000);
+			if (kind < 6) {
+				lines[i] = "insert " + recordNumber + " " + random.nextInt(1 << 14) + " " 
+						+ random.nextInt(1 << 14) + " " + CITIES[random.nextInt(CITIES.length)];
+			}
+			else if (kind < 9) {
+				lines[i] = "remove " + recordNumber;
+			}
+			else {
+				lines[i] = "print " + recordNumber;
+			}
+			lineStarts[i] = file.length();
+			file.append(lines[i]).append('\n');
+		}
+		lineStarts[NUM_OF_LINES] = file.length();
+		bytes = file.toString().getBytes();
+		command = new Command();
+	}
+
+	/**
+	 * @return the command of a line parsed by CommandParser
+	 */
+	@Benchmark
+	public int commandParser() {
+		return new CommandParser(lines[next++ & (NUM_OF_LINES - 1)]).getCommand();
+	}
+
+	/**
+	 * @return the command of a line parsed in place by CommandReader
+	 */
+	@Benchmark
+	public int commandReader() {
+		int line = next++ & (NUM_OF_LINES - 1);
+		// Leave out the line end, as CommandReader does
+		CommandReader.parse(bytes, lineStarts[line], lineStarts[line + 1] - 1, command);
+		return command.getCommand();
+	}
+}
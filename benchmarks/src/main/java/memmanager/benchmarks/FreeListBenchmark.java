@@ -0,0 +1,126 @@
+package memmanager.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import memmanager.DoublyLinkedList;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the DoublyLinkedList with numOfBlocks free blocks of random sizes in it, each
+ * STRIDE bytes after the one before, so no two of them touch.
+ *
+ *   getBestFit      finds the best fit for a random size
+ *   getFirstFit     finds the first fit for a random size, walking the blocks by position
+ *   mergeNeighbours frees the gap between two blocks, which merges all three, and then puts
+ *                   the two blocks back the way they were
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2012.01.31
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FreeListBenchmark {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The distance between the starts of two neighbouring blocks */
+	private static final int STRIDE = 256;
+
+	/* The number of random sizes and picks made up front; a power of 2 */
+	private static final int NUM_OF_PICKS = 1 << 16;
+
+	/* The number of free blocks in the list */
+	@Param({"16", "1024", "65536"})
+	public int numOfBlocks;
+
+	/* The list under test */
+	private DoublyLinkedList list;
+
+	/* The size of the block starting at each multiple of STRIDE */
+	private long[] blockSizes;
+
+	/* Random sizes to look for */
+	private long[] sizes;
+
+	/* Random blocks to merge with the block after them */
+	private int[] picks;
+
+	/* The next entry of sizes and picks to use */
+	private int next;
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Builds the list.
+	 */
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		list = new DoublyLinkedList();
+		blockSizes = new long[numOfBlocks];
+		for (int i = 0; i < numOfBlocks; i++) {
+			blockSizes[i] = 1 + random.nextInt(STRIDE - 1);
+			list.add((long) i * STRIDE, blockSizes[i], false);
+		}
+		sizes = new long[NUM_OF_PICKS];
+		picks = new int[NUM_OF_PICKS];
+		for (int i = 0; i < NUM_OF_PICKS; i++) {
+			sizes[i] = 1 + random.nextInt(STRIDE - 1);
+			picks[i] = random.nextInt(numOfBlocks - 1);
+		}
+		list.keepAddressOrder();
+	}
+
+	/**
+	 * @return the best fit for a random size
+	 */
+	@Benchmark
+	public long getBestFit() {
+		return list.getBestFit(sizes[next++ & (NUM_OF_PICKS - 1)]);
+	}
+
+	/**
+	 * @return the first fit for a random size
+	 */
+	@Benchmark
+	public long getFirstFit() {
+		return list.getFirstFit(sizes[next++ & (NUM_OF_PICKS - 1)], Long.MIN_VALUE, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Merges a random block with the one after it by freeing the gap between them, then splits
+	 * them apart again.
+	 * @return the free bytes in the list
+	 */
+	@Benchmark
+	public long mergeNeighbours() {
+		int block = picks[next++ & (NUM_OF_PICKS - 1)];
+		long position = (long) block * STRIDE;
+		long gap = position + blockSizes[block];
+		long nextPosition = position + STRIDE;
+		list.add(gap, nextPosition - gap, true);
+		list.remove(position, STRIDE + blockSizes[block + 1]);
+		list.add(position, blockSizes[block], false);
+		list.add(nextPosition, blockSizes[block + 1], false);
+		return list.getFreeBytes();
+	}
+}
@@ -0,0 +1,182 @@
+package memmanager.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import memmanager.AllocationPolicy;
+import memmanager.BuddyPolicy;
+import memmanager.FitPolicy;
+import memmanager.HeapPoolBackend;
+import memmanager.MemManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures inserting, removing and getting records through the MemManager. The pool is filled
+ * with records of random sizes until FILL_PERCENT of it is used, and then fragmentation percent
+ * of those records are removed at random, leaving holes of all sizes between the rest.
+ *
+ *   insertThenRemove  inserts a record and removes it again, so the pool stays as it is
+ *   churn             removes a random record and inserts a new one of a random size in its
+ *                     place, so the pool keeps changing the way it does under a real workload
+ *   get               copies a random record out of the pool
+ *
+ * Each is run with every allocation policy (see AllocationPolicy).
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2012.01.31
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemManagerBenchmark {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The size of the pool */
+	private static final int POOL_SIZE = 1 << 22;
+
+	/* How much of the pool is filled before records are removed */
+	private static final int FILL_PERCENT = 80;
+
+	/* The number of random sizes and picks made up front; a power of 2 */
+	private static final int NUM_OF_PICKS = 1 << 16;
+
+	/* The percent of the records removed after the pool is filled */
+	@Param({"0", "50", "90"})
+	public int fragmentation;
+
+	/* The allocation policy: best, first, next, worst or buddy */
+	@Param({"best", "first", "next", "worst", "buddy"})
+	public String policy;
+
+	/* The manager under test */
+	private MemManager manager;
+
+	/* The ids of the records in the pool */
+	private int[] ids;
+
+	/* The number of ids in use */
+	private int numOfIds;
+
+	/* Random record sizes, between the smallest and biggest a city record takes */
+	private int[] sizes;
+
+	/* Random numbers used to pick one of the ids */
+	private int[] picks;
+
+	/* The next entry of sizes and picks to use */
+	private int next;
+
+	/* The bytes records are inserted from and copied into */
+	private byte[] space;
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Fills the pool and then breaks it up by removing records.
+	 */
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		manager = new MemManager(new HeapPoolBackend(POOL_SIZE), createPolicy(policy));
+		space = new byte[256];
+		sizes = new int[NUM_OF_PICKS];
+		picks = new int[NUM_OF_PICKS];
+		for (int i = 0; i < NUM_OF_PICKS; i++) {
+			sizes[i] = 9 + random.nextInt(56);
+			picks[i] = random.nextInt(Integer.MAX_VALUE);
+		}
+		ids = new int[POOL_SIZE / 10];
+		long used = 0;
+		while (used < (long) POOL_SIZE * FILL_PERCENT / 100) {
+			int size = sizes[numOfIds % NUM_OF_PICKS];
+			int id = manager.insertId(space, size);
+			if (id == MemManager.NO_HANDLE)
+				break;
+			ids[numOfIds++] = id;
+			used += size + 1;
+		}
+		int toRemove = numOfIds * fragmentation / 100;
+		for (int i = 0; i < toRemove; i++) {
+			int index = random.nextInt(numOfIds);
+			manager.removeFromMemoryPool(ids[index]);
+			ids[index] = ids[--numOfIds];
+		}
+	}
+
+	/**
+	 * Inserts a record and removes it again.
+	 * @return the id the record had
+	 */
+	@Benchmark
+	public int insertThenRemove() {
+		int id = manager.insertId(space, sizes[next++ & (NUM_OF_PICKS - 1)]);
+		if (id != MemManager.NO_HANDLE)
+			manager.removeFromMemoryPool(id);
+		return id;
+	}
+
+	/**
+	 * Removes a random record and inserts a new one in its place.
+	 * @return the id of the new record
+	 */
+	@Benchmark
+	public int churn() {
+		int pick = next++ & (NUM_OF_PICKS - 1);
+		int index = picks[pick] % numOfIds;
+		manager.removeFromMemoryPool(ids[index]);
+		int id = manager.insertId(space, sizes[pick]);
+		if (id == MemManager.NO_HANDLE) {
+			// The pool is too broken up for this one; drop its slot
+			ids[index] = ids[--numOfIds];
+			return id;
+		}
+		ids[index] = id;
+		return id;
+	}
+
+	/**
+	 * Copies a random record out of the pool.
+	 * @return a byte of the record
+	 */
+	@Benchmark
+	public int get() {
+		int id = ids[picks[next++ & (NUM_OF_PICKS - 1)] % numOfIds];
+		manager.get(space, id, manager.getSizeOfRecord(id));
+		return space[0];
+	}
+
+	/**
+	 * Creates the policy with the given name.
+	 * @param name best, first, next, worst or buddy
+	 * @return the policy
+	 */
+	public static AllocationPolicy createPolicy(String name) {
+		if (name.equals("first"))
+			return new FitPolicy(FitPolicy.FIRST_FIT);
+		if (name.equals("next"))
+			return new FitPolicy(FitPolicy.NEXT_FIT);
+		if (name.equals("worst"))
+			return new FitPolicy(FitPolicy.WORST_FIT);
+		if (name.equals("buddy"))
+			return new BuddyPolicy();
+		return new FitPolicy(FitPolicy.BEST_FIT);
+	}
+}
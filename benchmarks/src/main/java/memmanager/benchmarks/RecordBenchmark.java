@@ -0,0 +1,123 @@
+package memmanager.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import memmanager.HeapPoolBackend;
+import memmanager.Record;
+import memmanager.RecordCursor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures turning records into bytes and back, with Record (which makes a byte array or a
+ * String each time) and with RecordCursor (which works on the pool in place).
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2012.01.31
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecordBenchmark {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The city names the records are made with */
+	private static final String[] CITIES = {"Blacksburg", "New York", "Roanoke", 
+			"Christiansburg", "San Francisco", "Washington", "Richmond", "Los Angeles"};
+
+	/* A record for each city */
+	private Record[] records;
+
+	/* The encoded bytes of each record */
+	private byte[][] messages;
+
+	/* The bytes of each city name */
+	private byte[][] cities;
+
+	/* A pool holding one encoded record at position 0 */
+	private HeapPoolBackend pool;
+
+	/* Reads the record in pool */
+	private RecordCursor cursor;
+
+	/* Holds the city name read by the cursor */
+	private byte[] cityBuffer;
+
+	/* The next city to use */
+	private int next;
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Makes the records and their bytes.
+	 */
+	@Setup
+	public void setUp() {
+		records = new Record[CITIES.length];
+		messages = new byte[CITIES.length][];
+		cities = new byte[CITIES.length][];
+		for (int i = 0; i < CITIES.length; i++) {
+			records[i] = new Record(i * 10, i * 20, CITIES[i]);
+			messages[i] = records[i].encode();
+			cities[i] = CITIES[i].getBytes();
+		}
+		pool = new HeapPoolBackend(256);
+		cursor = new RecordCursor();
+		cityBuffer = new byte[256];
+	}
+
+	/**
+	 * @return a record encoded into a new byte array
+	 */
+	@Benchmark
+	public byte[] encode() {
+		return records[next++ & (CITIES.length - 1)].encode();
+	}
+
+	/**
+	 * @return a record decoded from its bytes
+	 */
+	@Benchmark
+	public Record decode() {
+		Record record = records[next & (CITIES.length - 1)];
+		record.decode(messages[next++ & (CITIES.length - 1)]);
+		return record;
+	}
+
+	/**
+	 * Encodes a record straight into the pool.
+	 * @return the first byte written
+	 */
+	@Benchmark
+	public byte cursorEncode() {
+		int city = next++ & (CITIES.length - 1);
+		RecordCursor.encode(pool, 0, city, city, cities[city], 0, cities[city].length);
+		return pool.getByte(1);
+	}
+
+	/**
+	 * Reads the record in the pool without making any objects.
+	 * @return the sum of its fields
+	 */
+	@Benchmark
+	public int cursorDecode() {
+		cursor.moveTo(pool, 0);
+		return cursor.getX() + cursor.getY() + cursor.getCity(cityBuffer, 0);
+	}
+}
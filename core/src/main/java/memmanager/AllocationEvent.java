@@ -0,0 +1,58 @@
+package memmanager;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * This class is the Flight Recorder event for a record given a place in the memory pool by
+ * MemManager.allocateId. Its duration is the time the allocation took, so a slow one can be
+ * told apart by whether the pool had to be compacted or grown first.
+ *
+ * Like the other memory pool events it is off unless a recording turns it on (see memmanager.jfc),
+ * and while it is off the manager does nothing but make an event object the JIT throws away.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2012.02.21
+ */
+@Name("memmanager.Allocation")
+@Label("Allocation")
+@Category({"Memory Manager", "Memory Pool"})
+@Description("A record was given a place in the memory pool")
+@Enabled(false)
+@StackTrace(false)
+class AllocationEvent extends jdk.jfr.Event {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The size of the block, including its size byte */
+	@Label("Size")
+	@DataAmount(DataAmount.BYTES)
+	long size;
+
+	/* The position of the block in the memory pool */
+	@Label("Position")
+	long position;
+
+	/* The number of free blocks left */
+	@Label("Free Blocks")
+	int freeBlocks;
+
+	/* Whether the block is a slab slot */
+	@Label("Slab")
+	boolean slab;
+
+	/* Whether the pool was compacted to make room */
+	@Label("Compacted")
+	boolean compacted;
+
+	/* Whether the pool was grown to make room */
+	@Label("Grown")
+	boolean grown;
+}
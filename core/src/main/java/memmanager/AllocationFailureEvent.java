@@ -0,0 +1,56 @@
+package memmanager;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * This class is the Flight Recorder event for a record that found no room in the memory pool,
+ * even after compacting and growing it. It has no position; in its place it carries the free
+ * bytes and the largest free block, which tell whether the pool was full or only broken up.
+ * It is recorded the moment the manager gives up, so it has no duration of its own.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2012.02.21
+ */
+@Name("memmanager.AllocationFailure")
+@Label("Allocation Failure")
+@Category({"Memory Manager", "Memory Pool"})
+@Description("A record could not be given a place in the memory pool")
+@Enabled(false)
+class AllocationFailureEvent extends jdk.jfr.Event {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The size of the block asked for, including its size byte */
+	@Label("Size")
+	@DataAmount(DataAmount.BYTES)
+	long size;
+
+	/* The number of free blocks */
+	@Label("Free Blocks")
+	int freeBlocks;
+
+	/* The number of free bytes in all the free blocks */
+	@Label("Free Bytes")
+	@DataAmount(DataAmount.BYTES)
+	long freeBytes;
+
+	/* The size of the largest free block */
+	@Label("Largest Free Block")
+	@DataAmount(DataAmount.BYTES)
+	long largestFreeBlock;
+
+	/* Whether the pool was compacted before giving up */
+	@Label("Compacted")
+	boolean compacted;
+
+	/* Whether the pool was grown before giving up */
+	@Label("Grown")
+	boolean grown;
+}
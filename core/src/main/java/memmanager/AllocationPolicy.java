@@ -0,0 +1,50 @@
+package memmanager;
+
+/**
+ * This interface decides where in the memory pool a block goes and what happens to it when it
+ * is freed. The MemManager keeps the free blocks in a DoublyLinkedList and hands it to the policy
+ * on every call; the policy takes blocks out of the list and puts them back.
+ *
+ * FitPolicy picks one of the free blocks the way best fit, first fit, next fit or worst fit do.
+ * BuddyPolicy rounds blocks up to powers of 2 and only merges a block with its buddy.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2012.01.24
+ */
+public interface AllocationPolicy {
+
+	// ----------------------------------------------------------
+	/**
+	 * Finds room for a block and takes it out of the free block list.
+	 * @param freeBlockList the free blocks of the pool
+	 * @param blockSize the size of the block, including its size byte
+	 * @return the position of the block, or -1 if there is no room for it
+	 */
+	public long allocate(DoublyLinkedList freeBlockList, long blockSize);
+
+	/**
+	 * Puts a block handed out by allocate back in the free block list.
+	 * @param freeBlockList the free blocks of the pool
+	 * @param position the position of the block
+	 * @param blockSize the size the block was allocated with
+	 */
+	public void free(DoublyLinkedList freeBlockList, long position, long blockSize);
+
+	/**
+	 * Adds space that was never handed out, such as the whole pool at the start or the new space
+	 * after the pool grows, to the free block list.
+	 * @param freeBlockList the free blocks of the pool
+	 * @param position the first position of the space
+	 * @param size the number of bytes of space
+	 */
+	public void addSpace(DoublyLinkedList freeBlockList, long position, long size);
+
+	/**
+	 * Tells whether the free blocks are plain stretches of the pool that others may carve up,
+	 * merge and rebuild, as the SlabAllocator and the PoolCompactor do. If not, the manager
+	 * neither compacts the pool nor uses slab mode.
+	 * @return true if the free block list may be changed outside the policy
+	 */
+	public boolean allowsRearranging();
+}
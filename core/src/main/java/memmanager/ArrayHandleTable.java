@@ -0,0 +1,83 @@
+package memmanager;
+
+/**
+ * This class is a HandleTable kept in a Java array, for pools that only live as long as the
+ * program does. Free ids are chained together through the array itself, as HandleTable
+ * describes, and the array doubles when every id in it has been handed out.
+ * 
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2011.10.25
+ */
+public class ArrayHandleTable implements HandleTable {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The position of the record for each id, or the link to the next free id */
+	private long[] positions;
+
+	/* The number of ids that have ever been handed out */
+	private int size;
+
+	/* The first free id, or -1 if every id below size is in use */
+	private int firstFree;
+
+	/* The number of ids in use */
+	private int numOfLiveHandles;
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Creates an empty table.
+	 */
+	public ArrayHandleTable() {
+		positions = new long[16];
+		firstFree = -1;
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	public int allocate(long position) {
+		int id;
+		if (firstFree != -1) {
+			id = firstFree;
+			firstFree = (int) (-2 - positions[id]);
+		}
+		else {
+			if (size == positions.length) {
+				long[] grown = new long[positions.length * 2];
+				System.arraycopy(positions, 0, grown, 0, size);
+				positions = grown;
+			}
+			id = size++;
+		}
+		positions[id] = position;
+		numOfLiveHandles++;
+		return id;
+	}
+
+	public void release(int id) {
+		positions[id] = -2 - firstFree;
+		firstFree = id;
+		numOfLiveHandles--;
+	}
+
+	public long getPosition(int id) {
+		return positions[id];
+	}
+
+	public void setPosition(int id, long position) {
+		positions[id] = position;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getNumOfLiveHandles() {
+		return numOfLiveHandles;
+	}
+}
@@ -0,0 +1,111 @@
+package memmanager;
+
+/**
+ * This class is a RecordDirectory that keeps the id of every record number in an int array, with
+ * MemManager.NO_HANDLE in the slots that are empty. It takes 4 bytes for every record number,
+ * used or not.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2011.12.20
+ */
+public class ArrayRecordDirectory implements RecordDirectory {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The id of the handle of each record, by record number */
+	private int[] records;
+
+	/* The number of slots that are not empty */
+	private int size;
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Creates a directory with every record number empty.
+	 * @param numOfRecords the number of record numbers
+	 */
+	public ArrayRecordDirectory(int numOfRecords) {
+		this(Client.newRecordArray(numOfRecords));
+	}
+
+	/**
+	 * Constructor. Uses an array that may already hold records, such as one restored by a
+	 * PersistentPool. The directory works on the array itself, so it sees every change.
+	 * @param records the id of the handle of each record, by record number
+	 */
+	public ArrayRecordDirectory(int[] records) {
+		this.records = records;
+		for (int i = 0; i < records.length; i++) {
+			if (records[i] != MemManager.NO_HANDLE)
+				size++;
+		}
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * @param recordNumber a record number in range
+	 * @return the id of the handle of the record, or MemManager.NO_HANDLE if there is none
+	 */
+	public int get(int recordNumber) {
+		return records[recordNumber];
+	}
+
+	/**
+	 * Sets the record for a record number.
+	 * @param recordNumber a record number in range
+	 * @param id the id of the handle of the record, or MemManager.NO_HANDLE to clear it
+	 */
+	public void put(int recordNumber, int id) {
+		if (records[recordNumber] != MemManager.NO_HANDLE)
+			size--;
+		if (id != MemManager.NO_HANDLE)
+			size++;
+		records[recordNumber] = id;
+	}
+
+	/**
+	 * @return the number of record numbers
+	 */
+	public int getNumOfRecords() {
+		return records.length;
+	}
+
+	/**
+	 * @return the number of record numbers that have a record
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return false, since every record number has a slot
+	 */
+	public boolean isSparse() {
+		return false;
+	}
+
+	/**
+	 * @return the record numbers that have a record, lowest first
+	 */
+	public int[] getLiveRecordNumbers() {
+		int[] live = new int[size];
+		int count = 0;
+		for (int i = 0; i < records.length; i++) {
+			if (records[i] != MemManager.NO_HANDLE)
+				live[count++] = i;
+		}
+		return live;
+	}
+
+	/**
+	 * @return the array of ids, by record number
+	 */
+	public int[] getRecords() {
+		return records;
+	}
+}
@@ -0,0 +1,231 @@
+package memmanager;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * This class reads commands from a binary command file, as written by BinaryCommandWriter. The
+ * file starts with the four bytes of MAGIC and a version byte. Every command after that is an
+ * opcode byte, the same as the Client constants, followed by its fields:
+ *
+ *   insert   recnum x y cityLength cityBytes
+ *   remove   recnum
+ *   print    recnum
+ *   dump     (nothing)
+ *   regionsearch  x y width height
+ *   radiussearch  x y radius
+ *   search        cityLength cityBytes
+ *
+ * recnum and cityLength are varints: 7 bits at a time, lowest first, with the top bit set on
+ * every byte but the last. x, y, width, height and radius are zigzag varints, so small negative
+ * numbers stay short too.
+ * A record number is written as the unsigned value of its 32 bits, so even a negative one (which
+ * the Client turns down) reads back the same.
+ *
+ * There is nothing to search for or convert, so reading a command is a handful of array lookups.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2011.12.06
+ */
+public class BinaryCommandReader implements CommandSource {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The bytes every binary command file starts with */
+	public static final byte[] MAGIC = {'M', 'M', 'C', 'B'};
+
+	/* The version of the format, which follows MAGIC */
+	public static final int VERSION = 1;
+
+	/* The size of the buffer. A city name longer than this makes it grow. */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/* The most bytes a varint for 32 bits can take */
+	private static final int MAX_VARINT_BYTES = 5;
+
+	/* The stream the commands come from */
+	private InputStream in;
+
+	/* Holds the bytes read from the stream */
+	private byte[] buffer;
+
+	/* The index in buffer of the next byte to read */
+	private int position;
+
+	/* The index in buffer just past the last byte read from the stream */
+	private int limit;
+
+	/* The number of bytes of the stream that were dropped from the front of the buffer */
+	private long offset;
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Creates a reader for a binary command file and checks its header.
+	 * @param in the stream to read, positioned at the header, which the reader does not close
+	 * @throws IOException if the stream cannot be read or does not start with the header
+	 */
+	public BinaryCommandReader(InputStream in) throws IOException {
+		this.in = in;
+		buffer = new byte[BUFFER_SIZE];
+		if (!request(MAGIC.length + 1))
+			throw new IOException("Not a binary command file");
+		for (int i = 0; i < MAGIC.length; i++) {
+			if (buffer[position++] != MAGIC[i])
+				throw new IOException("Not a binary command file");
+		}
+		int version = buffer[position++];
+		if (version != VERSION)
+			throw new IOException("Unsupported binary command file version " + version);
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Looks at the start of a stream to see if it is a binary command file, leaving the stream
+	 * where it was.
+	 * @param in the stream, which must support mark and reset
+	 * @return true if the stream starts with MAGIC
+	 * @throws IOException if the stream cannot be read
+	 */
+	public static boolean hasHeader(InputStream in) throws IOException {
+		in.mark(MAGIC.length);
+		try {
+			for (int i = 0; i < MAGIC.length; i++) {
+				if (in.read() != MAGIC[i])
+					return false;
+			}
+			return true;
+		} finally {
+			in.reset();
+		}
+	}
+
+	/**
+	 * Reads the next command.
+	 * @param command the command to fill in
+	 * @return true if command was filled in, false if there are no more commands
+	 * @throws IOException if the stream cannot be read or ends in the middle of a command
+	 * @throws IllegalArgumentException if the opcode is not one of the commands
+	 */
+	public boolean next(Command command) throws IOException {
+		if (position == limit && !request(1))
+			return false;
+		int opcode = buffer[position++];
+		switch (opcode) {
+		case Client.INSERT_COMMAND:
+			command.setRecordPosition(readVarint());
+			command.setX(decodeZigzag(readVarint()));
+			command.setY(decodeZigzag(readVarint()));
+			readCity(command);
+			break;
+		case Client.REMOVE_COMMAND:
+		case Client.PRINT_COMMAND:
+			command.setRecordPosition(readVarint());
+			break;
+		case Client.DUMP_COMMAND:
+			break;
+		case Client.REGION_SEARCH_COMMAND:
+			command.setX(decodeZigzag(readVarint()));
+			command.setY(decodeZigzag(readVarint()));
+			command.setWidth(decodeZigzag(readVarint()));
+			command.setHeight(decodeZigzag(readVarint()));
+			break;
+		case Client.RADIUS_SEARCH_COMMAND:
+			command.setX(decodeZigzag(readVarint()));
+			command.setY(decodeZigzag(readVarint()));
+			command.setRadius(decodeZigzag(readVarint()));
+			break;
+		case Client.SEARCH_COMMAND:
+			readCity(command);
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown opcode " + opcode + " at byte "
+					+ (offset + position - 1));
+		}
+		command.setCommand(opcode);
+		return true;
+	}
+
+	/**
+	 * Turns a zigzag encoded number back into the int it came from.
+	 * @param zigzag the encoded number
+	 * @return the int
+	 */
+	public static int decodeZigzag(int zigzag) {
+		return (zigzag >>> 1) ^ -(zigzag & 1);
+	}
+
+	//~ Private methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Reads a varint.
+	 * @return its 32 bits
+	 * @throws IOException if the stream cannot be read or ends in the middle of the varint
+	 */
+	private int readVarint() throws IOException {
+		if (limit - position < MAX_VARINT_BYTES)
+			request(MAX_VARINT_BYTES);
+		int value = 0;
+		for (int shift = 0; shift < 7 * MAX_VARINT_BYTES; shift += 7) {
+			if (position == limit)
+				throw new EOFException("The file ends in the middle of a command");
+			byte b = buffer[position++];
+			value |= (b & 0x7f) << shift;
+			if (b >= 0)
+				return value;
+		}
+		throw new IOException("Varint too long at byte " + (offset + position));
+	}
+
+	/**
+	 * Reads the length of a city name and then its bytes into the command.
+	 * @param command the command to fill in
+	 * @throws IOException if the stream cannot be read or ends in the middle of the name
+	 */
+	private void readCity(Command command) throws IOException {
+		int cityLength = readVarint();
+		if (cityLength < 0)
+			throw new IOException("Bad city length at byte " + (offset + position));
+		if (!request(cityLength))
+			throw new EOFException("The file ends in the middle of a command");
+		System.arraycopy(buffer, position, command.reserveCity(cityLength), 0, cityLength);
+		command.setCityLength(cityLength);
+		position += cityLength;
+	}
+
+	/**
+	 * Makes sure the buffer holds at least count unread bytes, if the stream has that many left.
+	 * @param count the number of bytes needed
+	 * @return true if there are count bytes to read
+	 * @throws IOException if the stream cannot be read
+	 */
+	private boolean request(int count) throws IOException {
+		if (limit - position >= count)
+			return true;
+		if (position > 0) {
+			System.arraycopy(buffer, position, buffer, 0, limit - position);
+			offset += position;
+			limit -= position;
+			position = 0;
+		}
+		if (buffer.length < count) {
+			byte[] bigger = new byte[count];
+			System.arraycopy(buffer, 0, bigger, 0, limit);
+			buffer = bigger;
+		}
+		while (limit < count) {
+			int read = in.read(buffer, limit, buffer.length - limit);
+			if (read == -1)
+				return false;
+			limit += read;
+		}
+		return true;
+	}
+}
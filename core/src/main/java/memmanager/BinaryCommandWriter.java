@@ -0,0 +1,145 @@
+package memmanager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * This class writes commands in the binary command format that BinaryCommandReader reads (see
+ * there for the layout). The header is written when the writer is created.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2011.12.06
+ */
+public class BinaryCommandWriter {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The size of the buffer */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/* The stream the commands go to */
+	private OutputStream out;
+
+	/* Holds the bytes that have not been written to the stream yet */
+	private byte[] buffer;
+
+	/* The number of bytes in buffer */
+	private int count;
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Creates a writer and writes the header of the file.
+	 * @param out the stream to write to
+	 * @throws IOException if the stream cannot be written
+	 */
+	public BinaryCommandWriter(OutputStream out) throws IOException {
+		this.out = out;
+		buffer = new byte[BUFFER_SIZE];
+		System.arraycopy(BinaryCommandReader.MAGIC, 0, buffer, 0, BinaryCommandReader.MAGIC.length);
+		count = BinaryCommandReader.MAGIC.length;
+		buffer[count++] = BinaryCommandReader.VERSION;
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Writes one command.
+	 * @param command the command to write
+	 * @throws IOException if the stream cannot be written
+	 */
+	public void write(Command command) throws IOException {
+		int cityLength = command.getCityLength();
+		// The most an insert can take: the opcode, four varints and the city name
+		reserve(1 + 4 * 5 + cityLength);
+		buffer[count++] = (byte) command.getCommand();
+		switch (command.getCommand()) {
+		case Client.INSERT_COMMAND:
+			writeVarint(command.getRecordPosition());
+			writeVarint(encodeZigzag(command.getX()));
+			writeVarint(encodeZigzag(command.getY()));
+			writeCity(command);
+			break;
+		case Client.REMOVE_COMMAND:
+		case Client.PRINT_COMMAND:
+			writeVarint(command.getRecordPosition());
+			break;
+		case Client.REGION_SEARCH_COMMAND:
+			writeVarint(encodeZigzag(command.getX()));
+			writeVarint(encodeZigzag(command.getY()));
+			writeVarint(encodeZigzag(command.getWidth()));
+			writeVarint(encodeZigzag(command.getHeight()));
+			break;
+		case Client.RADIUS_SEARCH_COMMAND:
+			writeVarint(encodeZigzag(command.getX()));
+			writeVarint(encodeZigzag(command.getY()));
+			writeVarint(encodeZigzag(command.getRadius()));
+			break;
+		case Client.SEARCH_COMMAND:
+			writeCity(command);
+			break;
+		}
+	}
+
+	/**
+	 * Writes out everything in the buffer.
+	 * @throws IOException if the stream cannot be written
+	 */
+	public void flush() throws IOException {
+		out.write(buffer, 0, count);
+		count = 0;
+		out.flush();
+	}
+
+	/**
+	 * Turns an int into a zigzag encoded number, which is small if the int is near 0 either way.
+	 * @param value the int
+	 * @return the encoded number
+	 */
+	public static int encodeZigzag(int value) {
+		return (value << 1) ^ (value >> 31);
+	}
+
+	//~ Private methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Writes the 32 bits of value as a varint.
+	 * @param value the bits to write
+	 */
+	private void writeVarint(int value) {
+		while ((value & ~0x7f) != 0) {
+			buffer[count++] = (byte) ((value & 0x7f) | 0x80);
+			value >>>= 7;
+		}
+		buffer[count++] = (byte) value;
+	}
+
+	/**
+	 * Writes the length of the city name of a command and then its bytes.
+	 * @param command the command whose city name to write
+	 */
+	private void writeCity(Command command) {
+		writeVarint(command.getCityLength());
+		System.arraycopy(command.getCity(), 0, buffer, count, command.getCityLength());
+		count += command.getCityLength();
+	}
+
+	/**
+	 * Makes room in the buffer for size more bytes.
+	 * @param size the number of bytes about to be written
+	 * @throws IOException if the stream cannot be written
+	 */
+	private void reserve(int size) throws IOException {
+		if (buffer.length - count >= size)
+			return;
+		out.write(buffer, 0, count);
+		count = 0;
+		if (buffer.length < size)
+			buffer = new byte[size];
+	}
+}
@@ -0,0 +1,169 @@
+package memmanager;
+
+import java.util.Arrays;
+
+/**
+ * This class maps positions in the memory pool to free blocks for DoublyLinkedList, which keeps
+ * one table of the blocks by where they start and one by where they end. It is an open
+ * addressing hash table of a long array and a FreeBlock array, like HashRecordDirectory, so
+ * adding, finding and removing a block never boxes its position.
+ *
+ * The table doubles once it is half full and halves once it is less than an eighth full.
+ * Removing a block moves the entries after it back into the gap, so lookups never have to step
+ * over removed entries.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2012.03.13
+ */
+class BlockTable {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The number of slots the table starts with, and never shrinks below */
+	private static final int MIN_CAPACITY = 16;
+
+	/* Marks a slot with no position in it; positions in the pool are never negative */
+	private static final long EMPTY = -1;
+
+	/* The position in each slot, or EMPTY */
+	private long[] keys;
+
+	/* The block of each slot */
+	private DoublyLinkedList.FreeBlock[] blocks;
+
+	/* The number of slots in use */
+	private int size;
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Creates an empty table.
+	 */
+	BlockTable() {
+		allocateTable(MIN_CAPACITY);
+	}
+
+	//~ Package methods ...................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * @param position a position in the pool
+	 * @return the block kept for it, or null if there is none
+	 */
+	DoublyLinkedList.FreeBlock get(long position) {
+		return blocks[find(position)];
+	}
+
+	/**
+	 * Keeps a block for a position, in place of any block kept for it before.
+	 * @param position a position in the pool
+	 * @param block the block to keep for it
+	 */
+	void put(long position, DoublyLinkedList.FreeBlock block) {
+		int slot = find(position);
+		if (keys[slot] == EMPTY) {
+			if (2 * (size + 1) > keys.length) {
+				resize(keys.length * 2);
+				slot = find(position);
+			}
+			keys[slot] = position;
+			size++;
+		}
+		blocks[slot] = block;
+	}
+
+	/**
+	 * Forgets the block kept for a position, if there is one.
+	 * @param position a position in the pool
+	 */
+	void remove(long position) {
+		int slot = find(position);
+		if (keys[slot] != EMPTY)
+			removeSlot(slot);
+	}
+
+	//~ Private methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Finds the slot of a position.
+	 * @param position the position to look for
+	 * @return the slot holding it, or the empty slot where it would go
+	 */
+	private int find(long position) {
+		int mask = keys.length - 1;
+		int slot = hash(position) & mask;
+		while (keys[slot] != EMPTY && keys[slot] != position)
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	/**
+	 * Empties a slot and moves back any entry after it that could not be found otherwise.
+	 * @param slot the slot to empty
+	 */
+	private void removeSlot(int slot) {
+		int mask = keys.length - 1;
+		int gap = slot;
+		int next = (gap + 1) & mask;
+		while (keys[next] != EMPTY) {
+			int home = hash(keys[next]) & mask;
+			// The entry at next may fill the gap unless its home lies after the gap, up to next
+			if (((next - home) & mask) >= ((next - gap) & mask)) {
+				keys[gap] = keys[next];
+				blocks[gap] = blocks[next];
+				gap = next;
+			}
+			next = (next + 1) & mask;
+		}
+		keys[gap] = EMPTY;
+		blocks[gap] = null;
+		size--;
+		if (keys.length > MIN_CAPACITY && 8 * size < keys.length)
+			resize(keys.length / 2);
+	}
+
+	/**
+	 * Moves every entry into a table with a new number of slots.
+	 * @param capacity the new number of slots, a power of 2
+	 */
+	private void resize(int capacity) {
+		long[] oldKeys = keys;
+		DoublyLinkedList.FreeBlock[] oldBlocks = blocks;
+		allocateTable(capacity);
+		int mask = capacity - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != EMPTY) {
+				int slot = hash(oldKeys[i]) & mask;
+				while (keys[slot] != EMPTY)
+					slot = (slot + 1) & mask;
+				keys[slot] = oldKeys[i];
+				blocks[slot] = oldBlocks[i];
+			}
+		}
+	}
+
+	/**
+	 * Creates empty arrays for the table.
+	 * @param capacity the number of slots
+	 */
+	private void allocateTable(int capacity) {
+		keys = new long[capacity];
+		blocks = new DoublyLinkedList.FreeBlock[capacity];
+		Arrays.fill(keys, EMPTY);
+	}
+
+	/**
+	 * Spreads the bits of a position, so positions that are close together do not pile up in
+	 * neighbouring slots.
+	 * @param position the position
+	 * @return its hash
+	 */
+	private static int hash(long position) {
+		long h = position * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+}
@@ -0,0 +1,133 @@
+package memmanager;
+
+/**
+ * This class is an AllocationPolicy for a binary buddy system. Every free block is a power of 2
+ * in size and starts at a multiple of its size. A new block is rounded up to a power of 2 (at
+ * least MIN_BLOCK_SIZE), the smallest free block that holds it is found with best fit, and that
+ * block is halved until it is the right size, the other halves staying free. A freed block is
+ * merged with its buddy, the other half of the block it was split from, as long as the buddy is
+ * free and whole, and then with the buddy of the merged block and so on.
+ *
+ * Blocks are aligned to positions in the whole backend, so a manager that has only part of the
+ * backend (see ConcurrentMemManager) works the same. Space that is not a power of 2 in size, such
+ * as a pool of 1000 bytes, is cut into the biggest aligned blocks that fit.
+ *
+ * Since free blocks are only merged with their buddies, the free block list may hold neighbours
+ * that are not merged, and the rounding leaves the rest of each block unused. In return freeing
+ * and merging never have to look further than one block. The free blocks cannot be moved around
+ * by the PoolCompactor or carved into slab pages, so the manager does neither with this policy.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2012.01.24
+ */
+public class BuddyPolicy implements AllocationPolicy {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The smallest block handed out */
+	public static final long MIN_BLOCK_SIZE = 16;
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Takes the smallest free block that holds blockSize rounded up to a power of 2, splitting
+	 * it down to that size.
+	 * @param freeBlockList the free blocks of the pool
+	 * @param blockSize the size of the block, including its size byte
+	 * @return the position of the block, or -1 if no free block is big enough
+	 */
+	public long allocate(DoublyLinkedList freeBlockList, long blockSize) {
+		long size = roundUp(blockSize);
+		long position = freeBlockList.getBestFit(size);
+		if (position == -1)
+			return -1;
+		long foundSize = freeBlockList.getBlockSize(position);
+		freeBlockList.remove(position, foundSize);
+		while (foundSize > size) {
+			// Keep the front half and free the back half, its buddy
+			foundSize /= 2;
+			freeBlockList.add(position + foundSize, foundSize, false);
+			SplitEvent event = new SplitEvent();
+			if (event.shouldCommit()) {
+				event.size = foundSize;
+				event.position = position;
+				event.remainder = foundSize;
+				event.freeBlocks = freeBlockList.getNumOfBlocks();
+				event.commit();
+			}
+		}
+		return position;
+	}
+
+	/**
+	 * Frees the block, merging it with its buddy as far as it can.
+	 * @param freeBlockList the free blocks of the pool
+	 * @param position the position of the block
+	 * @param blockSize the size the block was allocated with, before it was rounded up
+	 */
+	public void free(DoublyLinkedList freeBlockList, long position, long blockSize) {
+		release(freeBlockList, position, roundUp(blockSize));
+	}
+
+	/**
+	 * Cuts the space into the biggest aligned blocks that fit and frees them.
+	 * @param freeBlockList the free blocks of the pool
+	 * @param position the first position of the space
+	 * @param size the number of bytes of space
+	 */
+	public void addSpace(DoublyLinkedList freeBlockList, long position, long size) {
+		long end = position + size;
+		while (position < end) {
+			// The biggest block that may start at position and still fits before end
+			long block = position == 0 ? Long.highestOneBit(end) : Long.lowestOneBit(position);
+			while (block > end - position)
+				block /= 2;
+			release(freeBlockList, position, block);
+			position += block;
+		}
+	}
+
+	/**
+	 * @return false, since the free blocks must stay aligned to their sizes
+	 */
+	public boolean allowsRearranging() {
+		return false;
+	}
+
+	/**
+	 * Works out the size of the block a block of blockSize bytes is given.
+	 * @param blockSize the number of bytes asked for
+	 * @return the smallest power of 2 that is at least blockSize and MIN_BLOCK_SIZE
+	 */
+	public static long roundUp(long blockSize) {
+		long size = MIN_BLOCK_SIZE;
+		while (size < blockSize)
+			size *= 2;
+		return size;
+	}
+
+	//~ Private methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Adds an aligned block to the free block list, first merging it with its buddy for as long
+	 * as the buddy is a free block of the same size.
+	 * @param freeBlockList the free blocks of the pool
+	 * @param position the position of the block, a multiple of size
+	 * @param size the size of the block, a power of 2
+	 */
+	private void release(DoublyLinkedList freeBlockList, long position, long size) {
+		long buddy = position ^ size;
+		while (freeBlockList.getBlockSize(buddy) == size) {
+			freeBlockList.remove(buddy, size);
+			freeBlockList.countMerge(Math.min(position, buddy), size * 2, size, buddy > position);
+			position = Math.min(position, buddy);
+			size *= 2;
+			buddy = position ^ size;
+		}
+		freeBlockList.add(position, size, false);
+	}
+}
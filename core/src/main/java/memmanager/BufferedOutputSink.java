@@ -0,0 +1,192 @@
+package memmanager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * This class is an OutputSink that collects the output in a large byte buffer and writes it to a
+ * stream in big pieces, instead of making a synchronized call on System.out for every line.
+ * Numbers are turned into digits right in the buffer.
+ *
+ * The buffer is written out when it fills up, when flush is called, and at the end of a command
+ * once it is at least half full. So the output of a command is only split up if it does not fit
+ * in what is left of the buffer.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2011.12.13
+ */
+public class BufferedOutputSink implements OutputSink {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The size of the buffer we use when none is given */
+	public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+	/* The most characters a long can take: a sign and 19 digits */
+	private static final int MAX_LONG_CHARS = 20;
+
+	/* The bytes that end a line */
+	private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes();
+
+	/* The stream the output goes to */
+	private OutputStream out;
+
+	/* Holds the output that has not been written to the stream yet */
+	private byte[] buffer;
+
+	/* The number of bytes in buffer */
+	private int count;
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Creates a sink with a buffer of DEFAULT_BUFFER_SIZE bytes.
+	 * @param out the stream to write to, usually System.out
+	 */
+	public BufferedOutputSink(OutputStream out) {
+		this(out, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Constructor.
+	 * @param out the stream to write to
+	 * @param bufferSize the number of bytes the buffer holds
+	 */
+	public BufferedOutputSink(OutputStream out, int bufferSize) {
+		this.out = out;
+		buffer = new byte[Math.max(bufferSize, MAX_LONG_CHARS)];
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Writes text made of ASCII characters, such as a message that never changes.
+	 * @param text the text to write
+	 */
+	public void print(String text) {
+		int length = text.length();
+		for (int i = 0; i < length; ) {
+			if (count == buffer.length)
+				writeBuffer();
+			int end = Math.min(length, i + buffer.length - count);
+			for (; i < end; i++) {
+				buffer[count++] = (byte) text.charAt(i);
+			}
+		}
+	}
+
+	/**
+	 * Writes a number in decimal, filling the digits in from the right.
+	 * @param number the number to write
+	 */
+	public void print(long number) {
+		if (buffer.length - count < MAX_LONG_CHARS)
+			writeBuffer();
+		if (number == Long.MIN_VALUE) {
+			print("-9223372036854775808");
+			return;
+		}
+		if (number < 0) {
+			buffer[count++] = '-';
+			number = -number;
+		}
+		int end = count + digits(number);
+		int position = end;
+		do {
+			buffer[--position] = (byte) ('0' + number % 10);
+			number /= 10;
+		} while (number != 0);
+		count = end;
+	}
+
+	/**
+	 * Writes bytes that are already text, such as a city name.
+	 * @param bytes holds the bytes
+	 * @param offset the index of the first byte to write
+	 * @param length the number of bytes to write
+	 */
+	public void write(byte[] bytes, int offset, int length) {
+		if (buffer.length - count < length) {
+			writeBuffer();
+			if (length > buffer.length) {
+				writeToStream(bytes, offset, length);
+				return;
+			}
+		}
+		System.arraycopy(bytes, offset, buffer, count, length);
+		count += length;
+	}
+
+	/**
+	 * Ends the line.
+	 */
+	public void println() {
+		write(LINE_SEPARATOR, 0, LINE_SEPARATOR.length);
+	}
+
+	/**
+	 * Writes out the buffer if it is at least half full.
+	 */
+	public void endCommand() {
+		if (count >= buffer.length / 2)
+			flush();
+	}
+
+	/**
+	 * Writes out the buffer and flushes the stream.
+	 */
+	public void flush() {
+		writeBuffer();
+		try {
+			out.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Works out how many digits a number has.
+	 * @param number a number that is not negative
+	 * @return the number of digits it takes in decimal
+	 */
+	public static int digits(long number) {
+		int digits = 1;
+		while (number >= 10) {
+			number /= 10;
+			digits++;
+		}
+		return digits;
+	}
+
+	//~ Private methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Writes the bytes in the buffer to the stream and empties the buffer.
+	 */
+	private void writeBuffer() {
+		if (count > 0) {
+			writeToStream(buffer, 0, count);
+			count = 0;
+		}
+	}
+
+	/**
+	 * Writes bytes to the stream.
+	 * @param bytes holds the bytes
+	 * @param offset the index of the first byte to write
+	 * @param length the number of bytes to write
+	 */
+	private void writeToStream(byte[] bytes, int offset, int length) {
+		try {
+			out.write(bytes, offset, length);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
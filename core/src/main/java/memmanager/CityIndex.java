@@ -0,0 +1,315 @@
+package memmanager;
+
+import java.util.Arrays;
+
+/**
+ * This class indexes the records by city name, so the records with a given name are found
+ * without decoding every record. It is an open addressing hash table with one entry for each
+ * distinct name: the hash of the name and the record numbers of the records that have it. The
+ * hash is worked out from the bytes of the name as they sit in the memory pool, and a lookup
+ * compares the bytes it is given with the name of the first record of an entry, in the pool, so
+ * no String is ever made and no name is ever kept twice.
+ *
+ * Since records with the same name share one entry, a popular name takes one slot rather than a
+ * long run of them, so finding it, or any other name near it, stays O(1). Inserting and removing
+ * a record is O(1) too: the index of every record in the list of its entry is kept by the id of
+ * its handle (which, unlike record numbers, run from 0 up to about the number of records), so a
+ * removed record is found at once and the last one of the list moved into its place. Like
+ * HashRecordDirectory, the table doubles once it is half full, halves once it is less than an
+ * eighth full and moves entries back into the gap left by a removed one.
+ *
+ * A record must be in the record directory, with its fields written into the pool, while it is
+ * added or removed.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2012.01.17
+ */
+public class CityIndex {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The number of slots the table starts with, and never shrinks below */
+	private static final int MIN_CAPACITY = 16;
+
+	/* The manager whose pool holds the records */
+	private MemManager manager;
+
+	/* Finds the handle of a record from its record number */
+	private RecordDirectory records;
+
+	/* The record numbers of the records with the name of each slot, or null for an empty slot */
+	private int[][] members;
+
+	/* The number of record numbers in use in each slot's members */
+	private int[] counts;
+
+	/* The hash of the city name of each slot */
+	private int[] hashes;
+
+	/* The number of slots in use, one for each distinct name */
+	private int numOfNames;
+
+	/* The number of records in the index */
+	private int size;
+
+	/* The index of each record in the members of its slot, by the id of its handle */
+	private int[] indexById;
+
+	/* Reads the city names out of the pool */
+	private RecordCursor cursor;
+
+	/* Holds the city name of the record being added or removed */
+	private byte[] keyBuffer;
+
+	/* Holds the city name of the record being compared with */
+	private byte[] cityBuffer;
+
+	/* The record numbers found by the last lookup */
+	private int[] results;
+
+	/* The number of record numbers found by the last lookup */
+	private int numOfResults;
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Creates an empty index.
+	 * @param manager the manager whose pool holds the records
+	 * @param records the directory the records are in
+	 */
+	public CityIndex(MemManager manager, RecordDirectory records) {
+		this.manager = manager;
+		this.records = records;
+		allocateTable(MIN_CAPACITY);
+		indexById = new int[MIN_CAPACITY];
+		cursor = new RecordCursor();
+		keyBuffer = new byte[256];
+		cityBuffer = new byte[256];
+		results = new int[16];
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Adds a record.
+	 * @param recordNumber the record number of the record
+	 */
+	public void insert(int recordNumber) {
+		int length = readKey(recordNumber);
+		int hash = hash(keyBuffer, 0, length);
+		int slot = findSlot(hash, keyBuffer, 0, length);
+		if (members[slot] == null) {
+			if (2 * (numOfNames + 1) > members.length) {
+				resize(members.length * 2);
+				slot = findSlot(hash, keyBuffer, 0, length);
+			}
+			members[slot] = new int[1];
+			hashes[slot] = hash;
+			numOfNames++;
+		}
+		else if (counts[slot] == members[slot].length) {
+			members[slot] = Arrays.copyOf(members[slot], counts[slot] * 2);
+		}
+		int id = records.get(recordNumber);
+		if (id >= indexById.length)
+			indexById = Arrays.copyOf(indexById, Math.max(id + 1, indexById.length * 2));
+		indexById[id] = counts[slot];
+		members[slot][counts[slot]++] = recordNumber;
+		size++;
+	}
+
+	/**
+	 * Takes out a record.
+	 * @param recordNumber the record number of the record
+	 * @return true if the record was in the index
+	 */
+	public boolean remove(int recordNumber) {
+		int length = readKey(recordNumber);
+		int slot = findSlot(hash(keyBuffer, 0, length), keyBuffer, 0, length);
+		int id = records.get(recordNumber);
+		if (members[slot] == null || id >= indexById.length)
+			return false;
+		int[] list = members[slot];
+		int index = indexById[id];
+		if (index >= counts[slot] || list[index] != recordNumber)
+			return false;
+		// Move the last record of the list into the place of the removed one
+		int last = list[--counts[slot]];
+		list[index] = last;
+		indexById[records.get(last)] = index;
+		size--;
+		if (counts[slot] == 0)
+			removeSlot(slot);
+		return true;
+	}
+
+	/**
+	 * Finds the records whose city name is exactly the given bytes.
+	 * @param name holds the name
+	 * @param offset the index of the first byte of the name
+	 * @param length the number of bytes in the name
+	 * @return the number of records found, whose record numbers are in getResults(), lowest first
+	 */
+	public int find(byte[] name, int offset, int length) {
+		int slot = findSlot(hash(name, offset, length), name, offset, length);
+		numOfResults = members[slot] == null ? 0 : counts[slot];
+		if (results.length < numOfResults)
+			results = new int[Math.max(numOfResults, results.length * 2)];
+		if (numOfResults > 0) {
+			System.arraycopy(members[slot], 0, results, 0, numOfResults);
+			Arrays.sort(results, 0, numOfResults);
+		}
+		return numOfResults;
+	}
+
+	/**
+	 * @return the array holding the record numbers found by the last lookup in its first entries
+	 */
+	public int[] getResults() {
+		return results;
+	}
+
+	/**
+	 * @return the number of records in the index
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Works out the hash of a city name (FNV-1a, with its bits spread at the end).
+	 * @param name holds the name
+	 * @param offset the index of the first byte of the name
+	 * @param length the number of bytes in the name
+	 * @return the hash
+	 */
+	public static int hash(byte[] name, int offset, int length) {
+		int hash = 0x811c9dc5;
+		for (int i = offset; i < offset + length; i++) {
+			hash = (hash ^ (name[i] & 255)) * 0x01000193;
+		}
+		return hash ^ (hash >>> 16);
+	}
+
+	//~ Private methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Finds the slot of a name.
+	 * @param hash the hash of the name
+	 * @param name holds the name, which must not be cityBuffer
+	 * @param offset the index of the first byte of the name
+	 * @param length the number of bytes in the name
+	 * @return the slot with the name, or the empty slot where it would go
+	 */
+	private int findSlot(int hash, byte[] name, int offset, int length) {
+		int mask = members.length - 1;
+		int slot = hash & mask;
+		while (members[slot] != null) {
+			if (hashes[slot] == hash && nameEquals(members[slot][0], name, offset, length))
+				return slot;
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * Reads the city name of a record out of the pool into keyBuffer.
+	 * @param recordNumber the record number of the record
+	 * @return the number of bytes in the name
+	 */
+	private int readKey(int recordNumber) {
+		cursor.moveTo(manager.getMemoryPool(), manager.getPosition(records.get(recordNumber)));
+		if (keyBuffer.length < cursor.getCityLength())
+			keyBuffer = new byte[cursor.getCityLength()];
+		return cursor.getCity(keyBuffer, 0);
+	}
+
+	/**
+	 * Reads the city name of a record out of the pool into cityBuffer.
+	 * @param recordNumber the record number of the record
+	 * @return the number of bytes in the name
+	 */
+	private int readCity(int recordNumber) {
+		cursor.moveTo(manager.getMemoryPool(), manager.getPosition(records.get(recordNumber)));
+		if (cityBuffer.length < cursor.getCityLength())
+			cityBuffer = new byte[cursor.getCityLength()];
+		return cursor.getCity(cityBuffer, 0);
+	}
+
+	/**
+	 * @return whether the city name of a record is exactly the given bytes
+	 */
+	private boolean nameEquals(int recordNumber, byte[] name, int offset, int length) {
+		if (readCity(recordNumber) != length)
+			return false;
+		for (int i = 0; i < length; i++) {
+			if (cityBuffer[i] != name[offset + i])
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Empties a slot and moves back any entry after it that could not be found otherwise.
+	 * @param slot the slot to empty
+	 */
+	private void removeSlot(int slot) {
+		int mask = members.length - 1;
+		int gap = slot;
+		int next = (gap + 1) & mask;
+		while (members[next] != null) {
+			int home = hashes[next] & mask;
+			// The entry at next may fill the gap unless its home lies after the gap, up to next
+			if (((next - home) & mask) >= ((next - gap) & mask)) {
+				members[gap] = members[next];
+				counts[gap] = counts[next];
+				hashes[gap] = hashes[next];
+				gap = next;
+			}
+			next = (next + 1) & mask;
+		}
+		members[gap] = null;
+		counts[gap] = 0;
+		numOfNames--;
+		if (members.length > MIN_CAPACITY && 8 * numOfNames < members.length)
+			resize(members.length / 2);
+	}
+
+	/**
+	 * Moves every entry into a table with a new number of slots. The hashes are kept, so no
+	 * record has to be read again, and the lists move as they are, so no index in them changes.
+	 * @param capacity the new number of slots, a power of 2
+	 */
+	private void resize(int capacity) {
+		int[][] oldMembers = members;
+		int[] oldCounts = counts;
+		int[] oldHashes = hashes;
+		allocateTable(capacity);
+		int mask = capacity - 1;
+		for (int i = 0; i < oldMembers.length; i++) {
+			if (oldMembers[i] != null) {
+				int slot = oldHashes[i] & mask;
+				while (members[slot] != null)
+					slot = (slot + 1) & mask;
+				members[slot] = oldMembers[i];
+				counts[slot] = oldCounts[i];
+				hashes[slot] = oldHashes[i];
+			}
+		}
+	}
+
+	/**
+	 * Creates empty arrays for the table.
+	 * @param capacity the number of slots
+	 */
+	private void allocateTable(int capacity) {
+		members = new int[capacity][];
+		counts = new int[capacity];
+		hashes = new int[capacity];
+	}
+}
@@ -0,0 +1,549 @@
+package memmanager;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+/**
+ * This class is the client that keeps track of the record array and process the commands.
+ * It conducts the main processes of the project. It uses a CommandReader (or a
+ * BinaryCommandReader for binary command files) to get the command and the parameters from the
+ * the command file. It executes the command, using the memory manager 
+ * to control the memory pool. It also keeps track of the records that we have inserted, with a
+ * RecordDirectory of the ids of their handles (MemManager.NO_HANDLE for an empty slot), so there
+ * is no Handle object for each record. getHandle wraps one in a Handle for code that wants it.
+ * The directory is an array by default, or a HashRecordDirectory when most record numbers are
+ * never used; then a dump only lists the records there are. A SpatialIndex of the x and y of
+ * every record is kept up to date with the inserts and removes, so the regionsearch and
+ * radiussearch commands do not have to look at every record, and so is a CityIndex of their city
+ * names for the search command.
+ *  
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2011.08.30
+ */
+
+public class Client {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The command being executed. It is filled in again for every line of the command file. */
+	private Command command = new Command();
+
+	/* Handles the commands and executes the requested action. */
+	private MemManager manager;
+
+	/* Keeps track of the locations of the records in the memory pool, by the ids of their handles */
+	private RecordDirectory records;
+
+	/* The x and y of every record, by record number */
+	private SpatialIndex spatialIndex;
+
+	/* The records by city name */
+	private CityIndex cityIndex;
+
+	/* Reads the fields of the record being printed straight out of the memory pool */
+	private RecordCursor cursor = new RecordCursor();
+
+	/* Where everything the commands print goes */
+	private OutputSink out;
+
+	/* Holds the city name of the record being printed */
+	private byte[] cityBuffer = new byte[256];
+
+	/* Constants for determining command*/
+	public final static int INSERT_COMMAND = 0;
+
+	public final static int REMOVE_COMMAND = 1;
+
+	public final static int PRINT_COMMAND = 2;
+
+	public final static int DUMP_COMMAND = 3;
+
+	public final static int REGION_SEARCH_COMMAND = 4;
+
+	public final static int RADIUS_SEARCH_COMMAND = 5;
+
+	public final static int SEARCH_COMMAND = 6;
+
+	//~ Constructor .............. .........................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Creates a client with a Memory Manager object, a record array and the 
+	 * file of commands which need to be parsed.
+	 * @param MemManager the manager that executes commands
+	 * @param int the number of records that we will be storing
+	 * @param String the fileName of the file that we are reading the commands from
+	 */
+	public Client(MemManager manager, int numOfRecords, String fileName) {
+		this(manager, newRecordArray(numOfRecords), fileName);
+	}
+
+	/**
+	 * Creates a client with a Memory Manager object, a record array that may already hold
+	 * records (such as one restored by a PersistentPool) and the file of commands which need
+	 * to be parsed.
+	 * @param MemManager the manager that executes commands
+	 * @param int[] the record array, holding the ids of the handles of the records
+	 * @param String the fileName of the file that we are reading the commands from
+	 */
+	public Client(MemManager manager, int[] records, String fileName) {
+		this(manager, records, fileName, 0);
+	}
+
+	/**
+	 * Creates a client like Client(MemManager, int[], String), but with the command file
+	 * parsed ahead of time by a CommandPipeline if numOfParseThreads is more than 0. A binary
+	 * command file is always read by a BinaryCommandReader, since there is little to parse.
+	 * @param MemManager the manager that executes commands
+	 * @param int[] the record array, holding the ids of the handles of the records
+	 * @param String the fileName of the file that we are reading the commands from
+	 * @param int the number of threads that parse the commands, 0 to parse them one line at a
+	 * time as they run
+	 */
+	public Client(MemManager manager, int[] records, String fileName, int numOfParseThreads) {
+		this(manager, new ArrayRecordDirectory(records), fileName, numOfParseThreads);
+	}
+
+	/**
+	 * Creates a client like Client(MemManager, int[], String, int), but with any RecordDirectory
+	 * as the record array.
+	 * @param MemManager the manager that executes commands
+	 * @param RecordDirectory the record array
+	 * @param String the fileName of the file that we are reading the commands from
+	 * @param int the number of threads that parse the commands, 0 to parse them one line at a
+	 * time as they run
+	 */
+	public Client(MemManager manager, RecordDirectory records, String fileName,
+			int numOfParseThreads) {
+		this(manager, records, fileName, numOfParseThreads, new BufferedOutputSink(System.out));
+	}
+
+	/**
+	 * Creates a client like Client(MemManager, RecordDirectory, String, int) that prints to out
+	 * instead of System.out.
+	 * @param MemManager the manager that executes commands
+	 * @param RecordDirectory the record array
+	 * @param String the fileName of the file that we are reading the commands from
+	 * @param int the number of threads that parse the commands, 0 to parse them one line at a
+	 * time as they run
+	 * @param OutputSink where the output of the commands goes, such as a CountingOutputSink
+	 * for benchmarks
+	 */
+	public Client(MemManager manager, RecordDirectory records, String fileName,
+			int numOfParseThreads, OutputSink out) {
+		this(manager, records, out);
+
+		try {
+			InputStream in = new BufferedInputStream(new FileInputStream(fileName));
+			try {
+				// Binary command files are told apart from text ones by their header
+				boolean binary = BinaryCommandReader.hasHeader(in);
+				if (!binary && numOfParseThreads > 0) {
+					new CommandPipeline(fileName, numOfParseThreads).run(this);
+				}
+				else {
+					CommandSource source = createSource(in);
+					while (source.next(command)) {
+						execute(command);
+					}
+				}
+			} finally {
+				// Whatever was printed before a bad command still comes out
+				out.flush();
+				in.close();
+			}
+		} catch (FileNotFoundException e) {
+			System.err.println("Cannot find specified file.");
+			e.printStackTrace();
+		} catch (IOException e) {
+			System.err.print("Cannot read the specified file.");
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Creates a client that does not read a command file. The commands are given to it one at a
+	 * time through execute, as WorkloadReplay does.
+	 * @param MemManager the manager that executes commands
+	 * @param RecordDirectory the record array
+	 * @param OutputSink where the output of the commands goes
+	 */
+	public Client(MemManager manager, RecordDirectory records, OutputSink out) {
+		this.setManager(manager);
+		this.setRecords(records);
+		this.setOut(out);
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Creates the reader for a command file, a BinaryCommandReader if it starts with the binary
+	 * header and a CommandReader otherwise.
+	 * @param in the file, which must support mark and reset
+	 * @return the reader
+	 * @throws IOException if the file cannot be read
+	 */
+	public static CommandSource createSource(InputStream in) throws IOException {
+		if (BinaryCommandReader.hasHeader(in))
+			return new BinaryCommandReader(in);
+		return new CommandReader(in);
+	}
+
+	/**
+	 * Executes one command against the memory pool and the record array.
+	 * @param command the command to execute
+	 */
+	public void execute(Command command) {
+		switch (command.getCommand()) {
+		case INSERT_COMMAND:
+			insert(command);
+			break;
+		case REMOVE_COMMAND:
+			remove(command.getRecordPosition());
+			break;
+		case DUMP_COMMAND:
+			dump();
+			break;
+		case PRINT_COMMAND:
+			print(command.getRecordPosition());
+			out.println();
+			break;
+		case REGION_SEARCH_COMMAND:
+			regionSearch(command.getX(), command.getY(), command.getWidth(), command.getHeight());
+			out.println();
+			break;
+		case RADIUS_SEARCH_COMMAND:
+			radiusSearch(command.getX(), command.getY(), command.getRadius());
+			out.println();
+			break;
+		case SEARCH_COMMAND:
+			search(command.getCity(), 0, command.getCityLength());
+			out.println();
+			break;
+		}
+		out.endCommand();
+	}
+
+	/**
+	 * Insert the record of an insert command, writing its fields straight into the space allocated
+	 * for it instead of building the record in a byte array first. Works like insert(byte[], int).
+	 * @param command the insert command
+	 */
+	public void insert(Command command) {
+		int recordPosition = command.getRecordPosition();
+		if (recordPosition < 0 || recordPosition > records.getNumOfRecords() - 1) {
+			printLine("ERROR: Specified record number is outside the range of acceptable values.\n");
+			return;
+		}
+		// If the there is already a record at the given position, remove it and try to add the new one.
+		if (records.get(recordPosition) != MemManager.NO_HANDLE)
+			remove(recordPosition);
+		int id = manager.allocateId(RecordCursor.sizeOf(command.getCityLength()));
+		records.put(recordPosition, id);
+		if (id == MemManager.NO_HANDLE) {
+			printLine("ERROR: Record was not inserted. Not enough space in memory pool\n");
+			return;
+		}
+		RecordCursor.encode(manager.getMemoryPool(), manager.getPosition(id), command.getX(), 
+				command.getY(), command.getCity(), 0, command.getCityLength());
+		spatialIndex.insert(command.getX(), command.getY(), recordPosition);
+		cityIndex.insert(recordPosition);
+	}
+
+	/**
+	 * Insert a record into the memory pool and create a record in the record array entry.
+	 * If there is already a record at the position, remove it and try to add the new record.
+	 * @param space the record to be inserted
+	 * @param recordPosition the position of this record in the record array
+	 */
+	public void insert (byte[] space, int recordPosition) {
+
+		if (recordPosition < 0 || recordPosition > records.getNumOfRecords() - 1) {
+			printLine("ERROR: Specified record number is outside the range of acceptable values.\n");
+		}
+		// If the there is already a record at the given position, remove it and try to add the new one.
+		else if (records.get(recordPosition) != MemManager.NO_HANDLE) {
+			remove(recordPosition);
+			records.put(recordPosition, manager.insertId(space, space.length));
+			if (records.get(recordPosition) == MemManager.NO_HANDLE) 
+				printLine("ERROR: Record was not inserted. Not enough space in memory pool\n");
+			else
+				indexRecord(recordPosition);
+		}
+		else {
+			records.put(recordPosition, manager.insertId(space, space.length));
+			if (records.get(recordPosition) == MemManager.NO_HANDLE) 
+				printLine("ERROR: Record was not inserted. Not enough space in memory pool\n");
+			else
+				indexRecord(recordPosition);
+		}
+	}
+
+	/**
+	 * Free the block of the record at recordPosition. Merge adjacent blocks if appropriate. Add
+	 * this block to the freeBlockList. Output error message if there is no record at the specified
+	 * position
+	 * @param recordPosition the position of the record to free in the record array
+	 */
+	public void remove(int recordPosition) {
+		if (recordPosition < 0 || recordPosition > records.getNumOfRecords() - 1)
+			printLine("ERROR: Specified record number is outside the range of acceptable values.");
+		else if (records.get(recordPosition) == MemManager.NO_HANDLE)
+			printLine("ERROR: No record at specified position\n");	
+		else {
+			cursor.moveTo(manager.getMemoryPool(), manager.getPosition(records.get(recordPosition)));
+			spatialIndex.remove(cursor.getX(), cursor.getY(), recordPosition);
+			cityIndex.remove(recordPosition);
+			manager.removeFromMemoryPool(records.get(recordPosition));
+			// Remove pointer to the record
+			records.put(recordPosition, MemManager.NO_HANDLE);
+		}
+	}
+
+	/**
+	 * Prints out the records in the memory pool and the FreeBlocks in the freeBlockList
+	 */
+	public void dump() {
+		printLine("The records in the memory pool ([Location in Memory Pool] (x, y) City Name):");
+		if (records.isSparse()) {
+			// Only the records there are, since there may be billions of record numbers
+			int[] live = records.getLiveRecordNumbers();
+			for (int i = 0; i < live.length; i++) {
+				out.print("Record ");
+				out.print(live[i]);
+				out.print(": ");
+				printRecord(records.get(live[i]));
+			}
+		}
+		else {
+			// Loop through all the records and print out contents
+			for (int i = 0; i < records.getNumOfRecords(); i++) {
+				if (records.get(i) != MemManager.NO_HANDLE) {
+					out.print("Record ");
+					out.print(i);
+					out.print(": ");
+					printRecord(records.get(i));
+				}
+				else {
+					out.print("Record ");
+					out.print(i);
+					printLine(": No Record");
+				}
+			}
+		}
+		out.println();
+		printLine("The freelist ([Starting Position, Ending Position] (Size)):");
+		manager.printFreeList(out);
+		out.println();
+	}
+
+	/**
+	 * Prints out the record at recordPosition
+	 * @param recordPosition the position of the record we want to print out in the record array
+	 */
+	public void print(int recordPosition) {
+		if (recordPosition < 0 || recordPosition > records.getNumOfRecords() - 1)
+			printLine("ERROR: Specified record number is outside the range of acceptable values.\n");
+
+		else if (records.get(recordPosition) == MemManager.NO_HANDLE)
+			printLine("ERROR: No record at specified position\n");
+		else
+			printRecord(records.get(recordPosition));
+	}
+
+	/**
+	 * Prints out the records whose x and y are in a rectangle, edges included, lowest record
+	 * number first.
+	 * @param x the smallest x of the rectangle
+	 * @param y the smallest y of the rectangle
+	 * @param width how far the rectangle reaches past x
+	 * @param height how far the rectangle reaches past y
+	 */
+	public void regionSearch(int x, int y, int width, int height) {
+		if (width < 0 || height < 0) {
+			printLine("ERROR: The width and height of a region cannot be negative\n");
+			return;
+		}
+		printFound(spatialIndex.regionSearch(x, y, width, height), spatialIndex.getResults());
+	}
+
+	/**
+	 * Prints out the records whose x and y are no further than radius from (x, y), lowest record
+	 * number first.
+	 * @param x the x of the centre
+	 * @param y the y of the centre
+	 * @param radius the distance from the centre
+	 */
+	public void radiusSearch(int x, int y, int radius) {
+		if (radius < 0) {
+			printLine("ERROR: The radius cannot be negative\n");
+			return;
+		}
+		printFound(spatialIndex.radiusSearch(x, y, radius), spatialIndex.getResults());
+	}
+
+	/**
+	 * Prints out the records whose city name is exactly the given bytes, lowest record number
+	 * first.
+	 * @param name holds the name
+	 * @param offset the index of the first byte of the name
+	 * @param length the number of bytes in the name
+	 */
+	public void search(byte[] name, int offset, int length) {
+		printFound(cityIndex.find(name, offset, length), cityIndex.getResults());
+	}
+
+	/**
+	 * Creates a record array with every slot empty.
+	 * @param numOfRecords the number of slots
+	 * @return the record array
+	 */
+	public static int[] newRecordArray(int numOfRecords) {
+		int[] records = new int[numOfRecords];
+		Arrays.fill(records, MemManager.NO_HANDLE);
+		return records;
+	}
+
+	/**
+	 * @param recordPosition the position of a record in the record array
+	 * @return a Handle for the record, or null if there is no record there
+	 */
+	public Handle getHandle(int recordPosition) {
+		return manager.wrap(records.get(recordPosition));
+	}
+
+	/**
+	 * @return the command being executed
+	 */
+	public Command getCommand() {
+		return command;
+	}
+
+	/**
+	 * @param manager the manager to set
+	 */
+	public void setManager(MemManager manager) {
+		this.manager = manager;
+	}
+
+	/**
+	 * @return the manager
+	 */
+	public MemManager getManager() {
+		return manager;
+	}
+
+	/**
+	 * Sets the records and adds them to new indexes, so the manager must be set first.
+	 * @param records the records to set
+	 */
+	public void setRecords(RecordDirectory records) {
+		this.records = records;
+		// Index the records already in the directory, such as ones restored by a PersistentPool
+		spatialIndex = new SpatialIndex();
+		cityIndex = new CityIndex(manager, records);
+		int[] live = records.getLiveRecordNumbers();
+		for (int i = 0; i < live.length; i++) {
+			indexRecord(live[i]);
+		}
+	}
+
+	/**
+	 * @return the records
+	 */
+	public RecordDirectory getRecords() {
+		return records;
+	}
+
+	/**
+	 * @return the spatialIndex
+	 */
+	public SpatialIndex getSpatialIndex() {
+		return spatialIndex;
+	}
+
+	/**
+	 * @return the cityIndex
+	 */
+	public CityIndex getCityIndex() {
+		return cityIndex;
+	}
+
+	/**
+	 * @param out the out to set
+	 */
+	public void setOut(OutputSink out) {
+		this.out = out;
+	}
+
+	/**
+	 * @return the out
+	 */
+	public OutputSink getOut() {
+		return out;
+	}
+
+	//~ Private methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Prints out the record whose handle has the given id
+	 * @param id the id of the handle of the record we want to print out
+	 */
+	private void printRecord(int id) {
+		long position = manager.getPosition(id);
+		// Reads the record straight out of the memory pool, without decoding it into a Record
+		cursor.moveTo(manager.getMemoryPool(), position);
+		out.print("[");
+		out.print(position);
+		out.print("] (");
+		out.print(cursor.getX());
+		out.print(", ");
+		out.print(cursor.getY());
+		out.print(") ");
+		out.write(cityBuffer, 0, cursor.getCity(cityBuffer, 0));
+		out.println();
+	}
+
+	/**
+	 * Adds a record that was just put in the directory to the indexes.
+	 * @param recordPosition the position of the record in the record array
+	 */
+	private void indexRecord(int recordPosition) {
+		cursor.moveTo(manager.getMemoryPool(), manager.getPosition(records.get(recordPosition)));
+		spatialIndex.insert(cursor.getX(), cursor.getY(), recordPosition);
+		cityIndex.insert(recordPosition);
+	}
+
+	/**
+	 * Prints out the records found by a search of one of the indexes.
+	 * @param numOfResults the number of records found
+	 * @param results holds the record numbers of the records found
+	 */
+	private void printFound(int numOfResults, int[] results) {
+		out.print("Found ");
+		out.print(numOfResults);
+		printLine(" records ([Location in Memory Pool] (x, y) City Name):");
+		for (int i = 0; i < numOfResults; i++) {
+			out.print("Record ");
+			out.print(results[i]);
+			out.print(": ");
+			printRecord(records.get(results[i]));
+		}
+	}
+
+	/**
+	 * Prints a message and ends the line.
+	 * @param message the message to print
+	 */
+	private void printLine(String message) {
+		out.print(message);
+		out.println();
+	}
+}
@@ -0,0 +1,52 @@
+package memmanager;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * This class is the Flight Recorder event for a freed block merged with the free blocks next to
+ * it, by DoublyLinkedList.merge or by BuddyPolicy with its buddy. There is one event for every
+ * merge counted in the forward, backward and both ways merge counts.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2012.02.21
+ */
+@Name("memmanager.Coalesce")
+@Label("Coalesce")
+@Category({"Memory Manager", "Free Block List"})
+@Description("A freed block was merged with the free blocks next to it")
+@Enabled(false)
+@StackTrace(false)
+class CoalesceEvent extends jdk.jfr.Event {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The size of the merged block */
+	@Label("Size")
+	@DataAmount(DataAmount.BYTES)
+	long size;
+
+	/* The position of the merged block */
+	@Label("Position")
+	long position;
+
+	/* The size of the freed block before it was merged */
+	@Label("Freed Size")
+	@DataAmount(DataAmount.BYTES)
+	long freedSize;
+
+	/* Which neighbours it was merged with: forward, backward or both ways */
+	@Label("Direction")
+	String direction;
+
+	/* The number of free blocks afterwards */
+	@Label("Free Blocks")
+	int freeBlocks;
+}
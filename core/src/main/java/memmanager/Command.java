@@ -0,0 +1,208 @@
+package memmanager;
+
+/**
+ * This class holds one parsed command: which command it is, the record number it is about and,
+ * for an insert, the coordinates and the bytes of the city name. A search has its area instead:
+ * x, y and a width and height for a region, or x, y and a radius. A CommandReader fills the same
+ * Command in again for every line, so reading a command file creates no garbage.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2011.11.22
+ */
+public class Command {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The command, one of the Client constants */
+	private int command;
+
+	/* The position of the record in the record array */
+	private int recordPosition;
+
+	/* The x of the record being inserted */
+	private int x;
+
+	/* The y of the record being inserted */
+	private int y;
+
+	/* The width of the region being searched */
+	private int width;
+
+	/* The height of the region being searched */
+	private int height;
+
+	/* The radius of the circle being searched */
+	private int radius;
+
+	/* Holds the bytes of the city name of the record being inserted */
+	private byte[] city;
+
+	/* The number of bytes in the city name */
+	private int cityLength;
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Creates an empty command. The city array grows to fit the longest city name
+	 * the command is given.
+	 */
+	public Command() {
+		city = new byte[32];
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Makes sure the city array can hold capacity bytes, keeping what is in it.
+	 * @param capacity the number of bytes the city name may take
+	 * @return the city array, to be filled in and then given a length with setCityLength
+	 */
+	public byte[] reserveCity(int capacity) {
+		if (city.length < capacity) {
+			byte[] bigger = new byte[Math.max(capacity, city.length * 2)];
+			System.arraycopy(city, 0, bigger, 0, cityLength);
+			city = bigger;
+		}
+		return city;
+	}
+
+	/**
+	 * Copies every field of another command into this one.
+	 * @param other the command to copy
+	 */
+	public void copyFrom(Command other) {
+		command = other.command;
+		recordPosition = other.recordPosition;
+		x = other.x;
+		y = other.y;
+		width = other.width;
+		height = other.height;
+		radius = other.radius;
+		cityLength = other.cityLength;
+		reserveCity(cityLength);
+		System.arraycopy(other.city, 0, city, 0, cityLength);
+	}
+
+	/**
+	 * @return the command
+	 */
+	public int getCommand() {
+		return command;
+	}
+
+	/**
+	 * @param command the command to set
+	 */
+	public void setCommand(int command) {
+		this.command = command;
+	}
+
+	/**
+	 * @return the recordPosition
+	 */
+	public int getRecordPosition() {
+		return recordPosition;
+	}
+
+	/**
+	 * @param recordPosition the recordPosition to set
+	 */
+	public void setRecordPosition(int recordPosition) {
+		this.recordPosition = recordPosition;
+	}
+
+	/**
+	 * @return the x
+	 */
+	public int getX() {
+		return x;
+	}
+
+	/**
+	 * @param x the x to set
+	 */
+	public void setX(int x) {
+		this.x = x;
+	}
+
+	/**
+	 * @return the y
+	 */
+	public int getY() {
+		return y;
+	}
+
+	/**
+	 * @param y the y to set
+	 */
+	public void setY(int y) {
+		this.y = y;
+	}
+
+	/**
+	 * @return the width
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @param width the width to set
+	 */
+	public void setWidth(int width) {
+		this.width = width;
+	}
+
+	/**
+	 * @return the height
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * @param height the height to set
+	 */
+	public void setHeight(int height) {
+		this.height = height;
+	}
+
+	/**
+	 * @return the radius
+	 */
+	public int getRadius() {
+		return radius;
+	}
+
+	/**
+	 * @param radius the radius to set
+	 */
+	public void setRadius(int radius) {
+		this.radius = radius;
+	}
+
+	/**
+	 * @return the array holding the city name in its first getCityLength() bytes
+	 */
+	public byte[] getCity() {
+		return city;
+	}
+
+	/**
+	 * @return the cityLength
+	 */
+	public int getCityLength() {
+		return cityLength;
+	}
+
+	/**
+	 * @param cityLength the cityLength to set
+	 */
+	public void setCityLength(int cityLength) {
+		this.cityLength = cityLength;
+	}
+}
@@ -0,0 +1,74 @@
+package memmanager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * This class converts a text command file into the binary command format, which memman reads
+ * much faster. memman tells the two apart by the header, so either file can be given to it.
+ *
+ * Run: java memmanager.CommandConverter <text commands file> <binary commands file>
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2011.12.06
+ */
+public class CommandConverter {
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Converts the text command file named by the first argument into the binary command file
+	 * named by the second.
+	 * @param args the command line arguments - textFileName, binaryFileName
+	 */
+	public static void main(String[] args) {
+		if (args.length != 2) {
+			System.err.println("Usage: java memmanager.CommandConverter <text commands file> <binary commands file>");
+			return;
+		}
+		try {
+			long numOfCommands = convert(args[0], args[1]);
+			System.out.println("Converted " + numOfCommands + " commands");
+		} catch (IOException e) {
+			System.err.println("Cannot convert " + args[0]);
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Converts a text command file into a binary command file.
+	 * @param textFileName the name of the text file
+	 * @param binaryFileName the name of the binary file, which is replaced if it exists
+	 * @return the number of commands converted
+	 * @throws IOException if a file cannot be read or written
+	 */
+	public static long convert(String textFileName, String binaryFileName) throws IOException {
+		InputStream in = new BufferedInputStream(new FileInputStream(textFileName));
+		try {
+			OutputStream out = new BufferedOutputStream(new FileOutputStream(binaryFileName));
+			try {
+				CommandReader reader = new CommandReader(in);
+				BinaryCommandWriter writer = new BinaryCommandWriter(out);
+				Command command = new Command();
+				long numOfCommands = 0;
+				while (reader.next(command)) {
+					writer.write(command);
+					numOfCommands++;
+				}
+				writer.flush();
+				return numOfCommands;
+			} finally {
+				out.close();
+			}
+		} finally {
+			in.close();
+		}
+	}
+}
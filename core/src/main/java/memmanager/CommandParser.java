@@ -0,0 +1,90 @@
+package memmanager;
+
+/**
+ * This class allows us to parse a line of command and set appropriate fields. The line is
+ * parsed by CommandReader, so both read commands the same way.
+ * 
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2011.09.20
+ */
+
+public class CommandParser {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The record that will be created if we are inserting*/
+	private Record record;
+	
+	/* The command that we are executing*/
+	private int command;
+	
+	private int recordPosition;
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Parses a single line of command with CommandReader.parse and sets the fields
+	 * from it. CommandReader reads whole command files without going through this class.
+	 * @param line the String we need to parse
+	 */
+	public CommandParser(String line) {
+		Command parsed = new Command();
+		byte[] bytes = line.getBytes();
+		if (!CommandReader.parse(bytes, 0, bytes.length, parsed))
+			throw new IllegalArgumentException("The line is blank");
+		command = parsed.getCommand();
+		recordPosition = parsed.getRecordPosition();
+		if (command == Client.INSERT_COMMAND) {
+			record = new Record(parsed.getX(), parsed.getY(), 
+					new String(parsed.getCity(), 0, parsed.getCityLength()));
+		}
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * @param recordPosition the recordPosition to set
+	 */
+	public void setRecordPosition(int recordPosition) {
+		this.recordPosition = recordPosition;
+	}
+
+	/**
+	 * @return the recordPosition
+	 */
+	public int getRecordPosition() {
+		return recordPosition;
+	}
+
+	/**
+	 * @return the command
+	 */
+	public int getCommand() {
+		return command;
+	}
+
+	/**
+	 * @param command the command to set
+	 */
+	public void setCommand(int command) {
+		this.command = command;
+	}
+
+	/**
+	 * @param record the record to set
+	 */
+	public void setRecord(Record record) {
+		this.record = record;
+	}
+
+	/**
+	 * @return the record
+	 */
+	public Record getRecord() {
+		return record;
+	}
+}
@@ -0,0 +1,386 @@
+package memmanager;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * This class runs a command file through a Client with the parsing done ahead of time on other
+ * threads, so the thread that executes the commands only spends its time in the memory manager.
+ *
+ * The file is cut into segments of about segmentSize bytes, each ending at a line break. A
+ * dispatcher thread finds the segment ends and hands each segment, in order, to a worker, which
+ * reads it into the byte array of a batch with a positional read of the channel and parses its
+ * lines into the batch's Commands with CommandReader.parse. The segments are not memory mapped:
+ * a mapping per segment costs a map and an unmap (the unmap only once the buffer is collected)
+ * and the parser would still copy the bytes out of it, so one read is cheaper. The futures of the
+ * batches go into a bounded queue in file order, and the calling thread takes them out in that
+ * same order and executes every command. So the commands run exactly as they would one line at
+ * a time, and their output comes out in the same order.
+ *
+ * A worker that finds a bad line keeps the commands in front of it and notes the error and which
+ * line of the segment it was on. The calling thread executes those commands and then throws the
+ * error with its line number in the whole file, so a bad line stops the run at the same command,
+ * with the same message, as it does for a CommandReader.
+ *
+ * There is a fixed number of batches, and a batch is only given back for the next segment once
+ * all its commands have run. The dispatcher waits for a free batch before it hands out a segment,
+ * so parsing never gets more than a few segments ahead and the Commands in a batch are reused
+ * rather than created again.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2011.11.29
+ */
+public class CommandPipeline {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The number of bytes per segment we use when none is given */
+	public static final int DEFAULT_SEGMENT_SIZE = 1 << 20;
+
+	/* The most threads that may parse segments; each one has batches that hold whole segments */
+	public static final int MAX_WORKERS = 256;
+
+	/* The number of batches per worker, so each worker has one to fill while one waits to run */
+	private static final int BATCHES_PER_WORKER = 2;
+
+	/* The number of bytes read at a time while looking for the end of a segment */
+	private static final int PROBE_SIZE = 4096;
+
+	/* The name of the command file */
+	private String fileName;
+
+	/* The number of threads that parse segments */
+	private int numOfWorkers;
+
+	/* The number of bytes a segment takes before it is stretched to the next line break */
+	private int segmentSize;
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Creates a pipeline with segments of DEFAULT_SEGMENT_SIZE bytes.
+	 * @param fileName the name of the command file
+	 * @param numOfWorkers the number of threads that parse segments
+	 */
+	public CommandPipeline(String fileName, int numOfWorkers) {
+		this(fileName, numOfWorkers, DEFAULT_SEGMENT_SIZE);
+	}
+
+	/**
+	 * Constructor.
+	 * @param fileName the name of the command file
+	 * @param numOfWorkers the number of threads that parse segments
+	 * @param segmentSize the number of bytes in a segment, before it is stretched to the next
+	 * line break
+	 * @throws IllegalArgumentException if numOfWorkers is not from 1 to MAX_WORKERS or the
+	 * segment size is not positive
+	 */
+	public CommandPipeline(String fileName, int numOfWorkers, int segmentSize) {
+		if (numOfWorkers < 1 || numOfWorkers > MAX_WORKERS)
+			throw new IllegalArgumentException("The number of parse threads must be from 1 to "
+					+ MAX_WORKERS);
+		if (segmentSize < 1)
+			throw new IllegalArgumentException("The segment size must be positive");
+		this.fileName = fileName;
+		this.numOfWorkers = numOfWorkers;
+		this.segmentSize = segmentSize;
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Executes every command in the file with client, in the order they are in the file.
+	 * @param client the client that executes the commands
+	 * @throws IOException if the file cannot be read
+	 * @throws IllegalArgumentException if a line is not a valid command
+	 */
+	public void run(Client client) throws IOException {
+		RandomAccessFile file = new RandomAccessFile(fileName, "r");
+		ExecutorService workers = Executors.newFixedThreadPool(numOfWorkers, new DaemonThreads());
+		int numOfBatches = numOfWorkers * BATCHES_PER_WORKER;
+		BlockingQueue<Batch> freeBatches = new ArrayBlockingQueue<Batch>(numOfBatches);
+		for (int i = 0; i < numOfBatches; i++) {
+			freeBatches.add(new Batch());
+		}
+		// One more place for the future that marks the end of the file
+		BlockingQueue<Future<Batch>> parsedBatches = new ArrayBlockingQueue<Future<Batch>>(
+				numOfBatches + 1);
+		Thread dispatcher = new Thread(new Dispatcher(file.getChannel(), workers, freeBatches,
+				parsedBatches), "command-dispatcher");
+		dispatcher.setDaemon(true);
+		dispatcher.start();
+		try {
+			// The number of lines in the segments that already ran
+			int linesBefore = 0;
+			while (true) {
+				Batch batch = parsedBatches.take().get();
+				if (batch == null)
+					break;
+				for (int i = 0; i < batch.count; i++) {
+					client.execute(batch.commands[i]);
+				}
+				if (batch.error != null) {
+					throw new IllegalArgumentException("Line " + (linesBefore + batch.numOfLines)
+							+ ": " + batch.error);
+				}
+				linesBefore += batch.numOfLines;
+				freeBatches.put(batch);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while running " + fileName);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException)
+				throw (IOException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new IOException(cause);
+		} finally {
+			dispatcher.interrupt();
+			workers.shutdownNow();
+			file.close();
+		}
+	}
+
+	//~ Private classes.......................................................
+	// ----------------------------------------------------------
+
+	/**
+	 * This class cuts the file into segments and hands them to the workers in order.
+	 *
+	 * @author Karthik Kumar (kkumar91)
+	 * @author Germond Oatneal (goatn07)
+	 * @version 2011.11.29
+	 */
+	private class Dispatcher implements Runnable {
+		private FileChannel channel;
+		private ExecutorService workers;
+		private BlockingQueue<Batch> freeBatches;
+		private BlockingQueue<Future<Batch>> parsedBatches;
+
+		/**
+		 * Creates a dispatcher.
+		 * @param channel the command file
+		 * @param workers the threads that parse the segments
+		 * @param freeBatches the batches that can be filled
+		 * @param parsedBatches where the futures of the batches go, in file order
+		 */
+		public Dispatcher(FileChannel channel, ExecutorService workers,
+				BlockingQueue<Batch> freeBatches, BlockingQueue<Future<Batch>> parsedBatches) {
+			this.channel = channel;
+			this.workers = workers;
+			this.freeBatches = freeBatches;
+			this.parsedBatches = parsedBatches;
+		}
+
+		/**
+		 * Hands out every segment and then the end of the file, which is a batch of null. If
+		 * anything goes wrong, such as the file not being readable or a worker not taking the
+		 * segment, the end is a future that fails with the error instead, so the pipeline never
+		 * waits for an end that does not come.
+		 */
+		public void run() {
+			try {
+				try {
+					long size = channel.size();
+					ByteBuffer probe = ByteBuffer.allocate(PROBE_SIZE);
+					long start = 0;
+					while (start < size) {
+						long end = findLineEnd(probe, start + segmentSize - 1, size);
+						Batch batch = freeBatches.take();
+						parsedBatches.put(workers.submit(new Parser(channel, start, end, batch)));
+						start = end;
+					}
+					parsedBatches.put(finished(null, null));
+				} catch (InterruptedException e) {
+					throw e;
+				} catch (Throwable e) {
+					parsedBatches.put(finished(null, e));
+				}
+			} catch (InterruptedException e) {
+				// The pipeline was stopped
+			}
+		}
+
+		/**
+		 * Finds the end of the line that position is in.
+		 * @param probe a buffer to read the file into
+		 * @param position a position in the file
+		 * @param size the size of the file
+		 * @return the position just past the first line break at or after position, or size
+		 * if there is none
+		 * @throws IOException if the file cannot be read
+		 */
+		private long findLineEnd(ByteBuffer probe, long position, long size) throws IOException {
+			while (position < size) {
+				probe.clear();
+				int read = channel.read(probe, position);
+				if (read <= 0)
+					break;
+				for (int i = 0; i < read; i++) {
+					if (probe.get(i) == '\n')
+						return position + i + 1;
+				}
+				position += read;
+			}
+			return size;
+		}
+
+		/**
+		 * Makes a future that is already done.
+		 * @param batch the batch it returns
+		 * @param error the error it fails with instead, if it is not null
+		 * @return the future
+		 */
+		private Future<Batch> finished(final Batch batch, final Throwable error) {
+			FutureTask<Batch> future = new FutureTask<Batch>(new Callable<Batch>() {
+				public Batch call() throws Exception {
+					if (error instanceof Exception)
+						throw (Exception) error;
+					if (error instanceof Error)
+						throw (Error) error;
+					return batch;
+				}
+			});
+			future.run();
+			return future;
+		}
+	}
+
+	/**
+	 * This class reads one segment of the file and parses its lines into a batch.
+	 *
+	 * @author Karthik Kumar (kkumar91)
+	 * @author Germond Oatneal (goatn07)
+	 * @version 2011.11.29
+	 */
+	private static class Parser implements Callable<Batch> {
+		private FileChannel channel;
+		private long start;
+		private long end;
+		private Batch batch;
+
+		/**
+		 * Creates a parser for a segment.
+		 * @param channel the command file
+		 * @param start the position of the first byte of the segment, which starts a line
+		 * @param end the position just past the segment, which ends a line or the file
+		 * @param batch the batch to fill
+		 */
+		public Parser(FileChannel channel, long start, long end, Batch batch) {
+			this.channel = channel;
+			this.start = start;
+			this.end = end;
+			this.batch = batch;
+		}
+
+		/**
+		 * Parses every line of the segment into the batch, up to the first bad line if there
+		 * is one.
+		 * @return the batch
+		 * @throws IOException if the segment cannot be read
+		 */
+		public Batch call() throws IOException {
+			int length = (int) (end - start);
+			if (batch.bytes.length < length)
+				batch.bytes = new byte[length];
+			byte[] bytes = batch.bytes;
+			ByteBuffer segment = ByteBuffer.wrap(bytes, 0, length);
+			while (segment.hasRemaining()) {
+				if (channel.read(segment, start + segment.position()) < 0)
+					throw new EOFException("The command file got shorter while it was read");
+			}
+			batch.count = 0;
+			batch.numOfLines = 0;
+			batch.error = null;
+			int lineStart = 0;
+			while (lineStart < length) {
+				int lineEnd = lineStart;
+				while (lineEnd < length && bytes[lineEnd] != '\n')
+					lineEnd++;
+				batch.numOfLines++;
+				try {
+					if (CommandReader.parse(bytes, lineStart, lineEnd, batch.nextCommand()))
+						batch.count++;
+				} catch (IllegalArgumentException e) {
+					// The commands in front of it still run, so keep them and stop here
+					batch.error = e.getMessage();
+					break;
+				}
+				lineStart = lineEnd + 1;
+			}
+			return batch;
+		}
+	}
+
+	/**
+	 * This class holds the bytes of a segment and the commands parsed from it.
+	 *
+	 * @author Karthik Kumar (kkumar91)
+	 * @author Germond Oatneal (goatn07)
+	 * @version 2011.11.29
+	 */
+	private static class Batch {
+		private byte[] bytes = new byte[0];
+		private Command[] commands = new Command[0];
+		private int count;
+
+		/* The number of lines parsed, blank ones and a bad one included */
+		private int numOfLines;
+
+		/* Why the last line parsed is not a valid command, or null if every line was */
+		private String error;
+
+		/**
+		 * @return the command just past the last parsed one, created the first time it is needed
+		 */
+		public Command nextCommand() {
+			if (count == commands.length) {
+				Command[] more = new Command[Math.max(16, commands.length * 2)];
+				System.arraycopy(commands, 0, more, 0, commands.length);
+				commands = more;
+			}
+			if (commands[count] == null)
+				commands[count] = new Command();
+			return commands[count];
+		}
+	}
+
+	/**
+	 * This class makes the worker threads daemons, so a pipeline that was stopped by an error
+	 * never keeps the program running.
+	 *
+	 * @author Karthik Kumar (kkumar91)
+	 * @author Germond Oatneal (goatn07)
+	 * @version 2011.11.29
+	 */
+	private static class DaemonThreads implements ThreadFactory {
+		private int numOfThreads;
+
+		public synchronized Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "command-parser-" + numOfThreads++);
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
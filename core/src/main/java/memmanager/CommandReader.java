@@ -0,0 +1,351 @@
+package memmanager;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * This class reads commands from a stream of bytes, one line at a time, into a Command. The bytes
+ * are read into one buffer that is kept for the whole stream, and each line is split up right
+ * there: the command word is matched byte by byte, the numbers are worked out digit by digit and
+ * the city name is copied into the Command. Nothing is turned into a String, so a command file of
+ * any size is read without creating garbage.
+ *
+ * Like the old CommandParser, any number of spaces or tabs may come before, between and after the
+ * fields, and a run of them inside a city name is stored as one space. Blank lines are skipped.
+ * A line looks like one of:
+ *
+ *   insert recnum x y cityName
+ *   remove recnum
+ *   print recnum
+ *   print
+ *   regionsearch x y width height
+ *   radiussearch x y radius
+ *   search cityName
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2011.11.22
+ */
+public class CommandReader implements CommandSource {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The size the buffer starts at. It doubles if a line does not fit. */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/* The command words, as bytes */
+	private static final byte[] INSERT = {'i', 'n', 's', 'e', 'r', 't'};
+
+	private static final byte[] REMOVE = {'r', 'e', 'm', 'o', 'v', 'e'};
+
+	private static final byte[] PRINT = {'p', 'r', 'i', 'n', 't'};
+
+	private static final byte[] REGION_SEARCH = "regionsearch".getBytes();
+
+	private static final byte[] RADIUS_SEARCH = "radiussearch".getBytes();
+
+	private static final byte[] SEARCH = "search".getBytes();
+
+	/* The stream the commands come from */
+	private InputStream in;
+
+	/* Holds the bytes read from the stream that have not been parsed yet */
+	private byte[] buffer;
+
+	/* The index in buffer of the first byte of the next line */
+	private int start;
+
+	/* The index in buffer up to which we have already looked for the end of the next line */
+	private int scanned;
+
+	/* The index in buffer just past the last byte read */
+	private int end;
+
+	/* Whether the stream has run out */
+	private boolean endOfStream;
+
+	/* The number of lines read so far, for error messages */
+	private int lineNumber;
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Creates a reader for the commands in a stream.
+	 * @param in the stream to read, which the reader does not close
+	 */
+	public CommandReader(InputStream in) {
+		this.in = in;
+		buffer = new byte[BUFFER_SIZE];
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Reads the next command, skipping blank lines.
+	 * @param command the command to fill in
+	 * @return true if command was filled in, false if there are no more commands
+	 * @throws IOException if the stream cannot be read
+	 * @throws IllegalArgumentException if a line is not a valid command
+	 */
+	public boolean next(Command command) throws IOException {
+		while (true) {
+			int lineEnd = -1;
+			while (scanned < end) {
+				if (buffer[scanned++] == '\n') {
+					lineEnd = scanned - 1;
+					break;
+				}
+			}
+			if (lineEnd == -1) {
+				if (!endOfStream) {
+					fill();
+					continue;
+				}
+				if (start == end)
+					return false;
+				// The last line has no line break
+				lineEnd = end;
+			}
+			int lineStart = start;
+			start = Math.min(lineEnd + 1, end);
+			scanned = start;
+			lineNumber++;
+			try {
+				if (parse(buffer, lineStart, lineEnd, command))
+					return true;
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Parses one line of a command file.
+	 * @param line holds the line
+	 * @param from the index of the first byte of the line
+	 * @param to the index just past the last byte of the line, not counting the line break
+	 * @param command the command to fill in
+	 * @return true if command was filled in, false if the line is blank
+	 * @throws IllegalArgumentException if the line is not a valid command
+	 */
+	public static boolean parse(byte[] line, int from, int to, Command command) {
+		int position = skipSpaces(line, from, to);
+		if (position == to)
+			return false;
+		int wordEnd = skipWord(line, position, to);
+		if (matches(line, position, wordEnd, INSERT)) {
+			command.setCommand(Client.INSERT_COMMAND);
+			position = skipSpaces(line, wordEnd, to);
+			wordEnd = skipWord(line, position, to);
+			command.setRecordPosition(parseInt(line, position, wordEnd));
+			position = skipSpaces(line, wordEnd, to);
+			wordEnd = skipWord(line, position, to);
+			command.setX(parseInt(line, position, wordEnd));
+			position = skipSpaces(line, wordEnd, to);
+			wordEnd = skipWord(line, position, to);
+			command.setY(parseInt(line, position, wordEnd));
+			parseCity(line, skipSpaces(line, wordEnd, to), to, command);
+		}
+		else if (matches(line, position, wordEnd, REMOVE)) {
+			command.setCommand(Client.REMOVE_COMMAND);
+			position = skipSpaces(line, wordEnd, to);
+			wordEnd = skipWord(line, position, to);
+			command.setRecordPosition(parseInt(line, position, wordEnd));
+			checkEnd(line, wordEnd, to);
+		}
+		else if (matches(line, position, wordEnd, PRINT)) {
+			position = skipSpaces(line, wordEnd, to);
+			if (position == to) {
+				command.setCommand(Client.DUMP_COMMAND);
+			}
+			else {
+				command.setCommand(Client.PRINT_COMMAND);
+				wordEnd = skipWord(line, position, to);
+				command.setRecordPosition(parseInt(line, position, wordEnd));
+				checkEnd(line, wordEnd, to);
+			}
+		}
+		else if (matches(line, position, wordEnd, REGION_SEARCH)) {
+			command.setCommand(Client.REGION_SEARCH_COMMAND);
+			position = skipSpaces(line, wordEnd, to);
+			wordEnd = skipWord(line, position, to);
+			command.setX(parseInt(line, position, wordEnd));
+			position = skipSpaces(line, wordEnd, to);
+			wordEnd = skipWord(line, position, to);
+			command.setY(parseInt(line, position, wordEnd));
+			position = skipSpaces(line, wordEnd, to);
+			wordEnd = skipWord(line, position, to);
+			command.setWidth(parseInt(line, position, wordEnd));
+			position = skipSpaces(line, wordEnd, to);
+			wordEnd = skipWord(line, position, to);
+			command.setHeight(parseInt(line, position, wordEnd));
+			checkEnd(line, wordEnd, to);
+		}
+		else if (matches(line, position, wordEnd, RADIUS_SEARCH)) {
+			command.setCommand(Client.RADIUS_SEARCH_COMMAND);
+			position = skipSpaces(line, wordEnd, to);
+			wordEnd = skipWord(line, position, to);
+			command.setX(parseInt(line, position, wordEnd));
+			position = skipSpaces(line, wordEnd, to);
+			wordEnd = skipWord(line, position, to);
+			command.setY(parseInt(line, position, wordEnd));
+			position = skipSpaces(line, wordEnd, to);
+			wordEnd = skipWord(line, position, to);
+			command.setRadius(parseInt(line, position, wordEnd));
+			checkEnd(line, wordEnd, to);
+		}
+		else if (matches(line, position, wordEnd, SEARCH)) {
+			command.setCommand(Client.SEARCH_COMMAND);
+			parseCity(line, skipSpaces(line, wordEnd, to), to, command);
+		}
+		else {
+			throw new IllegalArgumentException("Unknown command "
+					+ new String(line, position, wordEnd - position));
+		}
+		return true;
+	}
+
+	//~ Private methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Reads more of the stream into the buffer, first moving the unparsed bytes to its front and
+	 * doubling it if a single line already fills it.
+	 * @throws IOException if the stream cannot be read
+	 */
+	private void fill() throws IOException {
+		if (start > 0) {
+			System.arraycopy(buffer, start, buffer, 0, end - start);
+			end -= start;
+			scanned -= start;
+			start = 0;
+		}
+		if (end == buffer.length) {
+			byte[] bigger = new byte[buffer.length * 2];
+			System.arraycopy(buffer, 0, bigger, 0, end);
+			buffer = bigger;
+		}
+		int read = in.read(buffer, end, buffer.length - end);
+		if (read == -1)
+			endOfStream = true;
+		else
+			end += read;
+	}
+
+	/**
+	 * Copies the city name, which runs from from up to to, into the command, with each run of
+	 * spaces stored as one space and the spaces at the end left off.
+	 * @param line holds the line
+	 * @param from the index of the first byte of the city name
+	 * @param to the index just past the end of the line
+	 * @param command the command to copy the name into
+	 */
+	private static void parseCity(byte[] line, int from, int to, Command command) {
+		if (from == to)
+			throw new IllegalArgumentException("Missing city name");
+		byte[] city = command.reserveCity(to - from);
+		int length = 0;
+		boolean inSpaces = false;
+		for (int i = from; i < to; i++) {
+			if (isSpace(line[i])) {
+				inSpaces = true;
+			}
+			else {
+				if (inSpaces) {
+					city[length++] = ' ';
+					inSpaces = false;
+				}
+				city[length++] = line[i];
+			}
+		}
+		command.setCityLength(length);
+	}
+
+	/**
+	 * Works out the int written in line from from up to to.
+	 * @param line holds the number
+	 * @param from the index of the first character of the number
+	 * @param to the index just past the last digit
+	 * @return the number
+	 * @throws NumberFormatException if there is no number there or it does not fit in an int
+	 */
+	private static int parseInt(byte[] line, int from, int to) {
+		boolean negative = false;
+		int position = from;
+		if (position < to && (line[position] == '-' || line[position] == '+')) {
+			negative = line[position] == '-';
+			position++;
+		}
+		if (position == to)
+			throw new NumberFormatException("Missing number");
+		long value = 0;
+		for (; position < to; position++) {
+			int digit = line[position] - '0';
+			if (digit < 0 || digit > 9) {
+				throw new NumberFormatException("Not a number: "
+						+ new String(line, from, to - from));
+			}
+			value = value * 10 + digit;
+			if (value > (long) Integer.MAX_VALUE + 1)
+				throw new NumberFormatException("Number too big: " + new String(line, from, to - from));
+		}
+		if (negative)
+			value = -value;
+		if (value > Integer.MAX_VALUE)
+			throw new NumberFormatException("Number too big: " + new String(line, from, to - from));
+		return (int) value;
+	}
+
+	/**
+	 * Makes sure nothing but spaces follow the last field of a command.
+	 * @param line holds the line
+	 * @param from the index just past the last field
+	 * @param to the index just past the end of the line
+	 */
+	private static void checkEnd(byte[] line, int from, int to) {
+		if (skipSpaces(line, from, to) != to)
+			throw new IllegalArgumentException("Unexpected text after the last field");
+	}
+
+	/**
+	 * @return whether the bytes from from up to to are exactly word
+	 */
+	private static boolean matches(byte[] line, int from, int to, byte[] word) {
+		if (to - from != word.length)
+			return false;
+		for (int i = 0; i < word.length; i++) {
+			if (line[from + i] != word[i])
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @return the index of the first byte from from on that is not a space, or to
+	 */
+	private static int skipSpaces(byte[] line, int from, int to) {
+		while (from < to && isSpace(line[from]))
+			from++;
+		return from;
+	}
+
+	/**
+	 * @return the index of the first space from from on, or to
+	 */
+	private static int skipWord(byte[] line, int from, int to) {
+		while (from < to && !isSpace(line[from]))
+			from++;
+		return from;
+	}
+
+	/**
+	 * @return whether b separates fields. A carriage return counts, so files with Windows line
+	 * breaks read the same.
+	 */
+	private static boolean isSpace(byte b) {
+		return b == ' ' || b == '\t' || b == '\r';
+	}
+}
@@ -0,0 +1,24 @@
+package memmanager;
+
+import java.io.IOException;
+
+/**
+ * This interface is something commands can be read from one at a time, such as a text command
+ * file (CommandReader) or a binary one (BinaryCommandReader).
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2011.12.06
+ */
+public interface CommandSource {
+
+	// ----------------------------------------------------------
+	/**
+	 * Reads the next command.
+	 * @param command the command to fill in
+	 * @return true if command was filled in, false if there are no more commands
+	 * @throws IOException if the commands cannot be read
+	 * @throws IllegalArgumentException if the next command is not valid
+	 */
+	public boolean next(Command command) throws IOException;
+}
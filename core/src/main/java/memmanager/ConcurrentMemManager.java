@@ -0,0 +1,238 @@
+package memmanager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * This class is a memory manager that many threads can use at once. The pool is split into
+ * arenas, each an ordinary MemManager over its own stretch of one shared backend, with its own
+ * free block list and its own lock. Every thread is bound to one arena the first time it inserts
+ * and keeps using it, so threads on different arenas never wait for each other.
+ *
+ * A record is removed (or read) under the lock of the arena that handed out its handle,
+ * whichever thread inserted it. Each arena has its own HandleTable, so the table a handle points
+ * into tells us its arena without touching the (possibly changing) position. If a thread's own
+ * arena is full, the insert is tried in the other arenas before it fails.
+ *
+ * Inserts and removes take their arena's lock for writing. Reads (get and getSizeOfRecord) first
+ * try without taking the lock at all: they read the position of the record optimistically and
+ * check that no writer got the lock in the meantime, so the position belongs to a live record,
+ * and that the record lies inside the arena. Only then do they copy it, and check the lock once
+ * more. If a writer got in, which is rare when most calls are reads, they read again under the
+ * read lock. So readers never block each other or write to shared memory, a read that a writer
+ * cuts across never goes outside the arena, and a record that was freed and reused while we
+ * copied it is never handed back. Reading a handle whose record was removed is an error.
+ *
+ * The arenas cannot grow, since each one only has part of the backend. Their managers are never
+ * handed out; their counters can be watched through getArenaStats.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2011.11.08
+ */
+public class ConcurrentMemManager {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The managers of each arena */
+	private MemManager[] arenas;
+
+	/* The lock of each arena */
+	private StampedLock[] locks;
+
+	/* The counters of each arena */
+	private MemManagerStats[] arenaStats;
+
+	/* Hands out arenas to threads in turn */
+	private AtomicInteger nextArena;
+
+	/* The arena each thread is bound to */
+	private ThreadLocal<Integer> threadArena;
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Splits the pool into numOfArenas arenas of (nearly) the same size.
+	 * @param memoryPool the storage for the whole pool
+	 * @param numOfArenas the number of arenas, usually the number of cores
+	 */
+	public ConcurrentMemManager(PoolBackend memoryPool, int numOfArenas) {
+		long arenaSize = memoryPool.size() / numOfArenas;
+		arenas = new MemManager[numOfArenas];
+		locks = new StampedLock[numOfArenas];
+		arenaStats = new MemManagerStats[numOfArenas];
+		for (int i = 0; i < numOfArenas; i++) {
+			long start = i * arenaSize;
+			long size = i == numOfArenas - 1 ? memoryPool.size() - start : arenaSize;
+			arenas[i] = new MemManager(memoryPool, start, size);
+			locks[i] = new StampedLock();
+			arenaStats[i] = new MemManagerStats(arenas[i]);
+		}
+		nextArena = new AtomicInteger();
+		threadArena = new ThreadLocal<Integer>();
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Insert a record into the calling thread's arena, or any other arena with room, and return
+	 * its handle.
+	 * @param space the record to be inserted
+	 * @param size the size of the record to be inserted
+	 * @return Handle pointing to the location where record was inserted, null if not inserted
+	 */
+	public Handle insertIntoMemoryPool(byte[] space, int size) {
+		int home = getThreadArena();
+		for (int i = 0; i < arenas.length; i++) {
+			int arena = (home + i) % arenas.length;
+			long stamp = locks[arena].writeLock();
+			try {
+				Handle handle = arenas[arena].insertIntoMemoryPool(space, size);
+				if (handle != null)
+					return handle;
+			} finally {
+				locks[arena].unlockWrite(stamp);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Removes the record at theHandle from the arena it was inserted in.
+	 * @param theHandle the record to free
+	 */
+	public void removeFromMemoryPool(Handle theHandle) {
+		int arena = arenaOf(theHandle);
+		long stamp = locks[arena].writeLock();
+		try {
+			arenas[arena].removeFromMemoryPool(theHandle);
+		} finally {
+			locks[arena].unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Return the record with handle theHandle, up to size bytes. Place the record into space.
+	 * @param space the destination for the record to get
+	 * @param theHandle points to the record in to memory pool to get
+	 * @param size the size of record we are trying to get
+	 * @return the number of bytes copied into space
+	 * @throws IllegalArgumentException if the record of the handle was removed
+	 */
+	public int get(byte[] space, Handle theHandle, int size) {
+		int arena = arenaOf(theHandle);
+		MemManager manager = arenas[arena];
+		StampedLock lock = locks[arena];
+		long stamp = lock.tryOptimisticRead();
+		if (stamp != 0) {
+			long position = manager.getPosition(theHandle.getId());
+			if (lock.validate(stamp) && inArena(manager, position, size)) {
+				// A writer may still move or free the record while we copy, but only inside the
+				// arena, and then the stamp tells us to throw the copy away
+				manager.getMemoryPool().get(position + 1, space, 0, size);
+				if (lock.validate(stamp))
+					return size;
+			}
+		}
+		stamp = lock.readLock();
+		try {
+			checkLive(manager, theHandle);
+			return manager.get(space, theHandle, size);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Return the size of a record, without including the size byte.
+	 * @param theHandle the record to find the size of
+	 * @return the size of the record
+	 * @throws IllegalArgumentException if the record of the handle was removed
+	 */
+	public int getSizeOfRecord(Handle theHandle) {
+		int arena = arenaOf(theHandle);
+		MemManager manager = arenas[arena];
+		StampedLock lock = locks[arena];
+		long stamp = lock.tryOptimisticRead();
+		if (stamp != 0) {
+			long position = manager.getPosition(theHandle.getId());
+			if (lock.validate(stamp) && inArena(manager, position, 0)) {
+				int size = manager.getMemoryPool().getByte(position) & 255;
+				if (lock.validate(stamp))
+					return size;
+			}
+		}
+		stamp = lock.readLock();
+		try {
+			checkLive(manager, theHandle);
+			return manager.getSizeOfRecord(theHandle);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * @return the counters of each arena, in the order of the arenas in the pool. They are read
+	 * without taking the locks, so each value may be a moment old (see MemManagerStats).
+	 */
+	public MemManagerStats[] getArenaStats() {
+		return arenaStats.clone();
+	}
+
+	//~ Private methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the arena of the calling thread, binding it to the next one in turn if it has none.
+	 * @return the index of the arena
+	 */
+	private int getThreadArena() {
+		Integer arena = threadArena.get();
+		if (arena == null) {
+			arena = Math.floorMod(nextArena.getAndIncrement(), arenas.length);
+			threadArena.set(arena);
+		}
+		return arena;
+	}
+
+	/**
+	 * Checks that a record of length bytes after its size byte at position lies inside an arena.
+	 * A position of a freed id is negative, so it fails this too.
+	 * @param arena the manager of the arena
+	 * @param position the position of the size byte of the record
+	 * @param length the number of bytes after the size byte
+	 * @return whether the record lies inside the arena
+	 */
+	private boolean inArena(MemManager arena, long position, int length) {
+		return position >= arena.getPoolStart() && position + 1 + length <= arena.getPoolEnd();
+	}
+
+	/**
+	 * Checks, under the lock of its arena, that the record of a handle was not removed.
+	 * @param arena the manager of the arena
+	 * @param theHandle the handle of the record
+	 * @throws IllegalArgumentException if the record was removed
+	 */
+	private void checkLive(MemManager arena, Handle theHandle) {
+		if (arena.getPosition(theHandle.getId()) < 0)
+			throw new IllegalArgumentException("The record of the handle was removed");
+	}
+
+	/**
+	 * Finds the arena a record belongs to from the table its handle is in. The table of a handle
+	 * never changes, so this is safe without holding any lock.
+	 * @param theHandle the handle of the record
+	 * @return the index of the arena
+	 * @throws IllegalArgumentException if the handle did not come from this manager
+	 */
+	private int arenaOf(Handle theHandle) {
+		for (int arena = 0; arena < arenas.length; arena++) {
+			if (arenas[arena].getHandleTable() == theHandle.getTable())
+				return arena;
+		}
+		throw new IllegalArgumentException("The handle is not from this memory manager");
+	}
+}
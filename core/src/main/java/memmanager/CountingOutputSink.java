@@ -0,0 +1,90 @@
+package memmanager;
+
+/**
+ * This class is an OutputSink that throws the output away and only counts it, for benchmarks that
+ * should measure the memory manager rather than the console. It still works out how many bytes
+ * each number would take, so the counts match what a BufferedOutputSink would write.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2011.12.13
+ */
+public class CountingOutputSink implements OutputSink {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The number of bytes that would have been written */
+	private long numOfBytes;
+
+	/* The number of lines that would have been written */
+	private long numOfLines;
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Counts the characters of text.
+	 * @param text the text
+	 */
+	public void print(String text) {
+		numOfBytes += text.length();
+	}
+
+	/**
+	 * Counts the characters of a number.
+	 * @param number the number
+	 */
+	public void print(long number) {
+		if (number == Long.MIN_VALUE)
+			numOfBytes += 20;
+		else if (number < 0)
+			numOfBytes += 1 + BufferedOutputSink.digits(-number);
+		else
+			numOfBytes += BufferedOutputSink.digits(number);
+	}
+
+	/**
+	 * Counts bytes.
+	 * @param bytes holds the bytes
+	 * @param offset the index of the first byte
+	 * @param length the number of bytes
+	 */
+	public void write(byte[] bytes, int offset, int length) {
+		numOfBytes += length;
+	}
+
+	/**
+	 * Counts a line.
+	 */
+	public void println() {
+		numOfBytes += System.lineSeparator().length();
+		numOfLines++;
+	}
+
+	/**
+	 * Does nothing, since nothing is kept.
+	 */
+	public void endCommand() {
+	}
+
+	/**
+	 * Does nothing, since nothing is kept.
+	 */
+	public void flush() {
+	}
+
+	/**
+	 * @return the number of bytes that would have been written
+	 */
+	public long getNumOfBytes() {
+		return numOfBytes;
+	}
+
+	/**
+	 * @return the number of lines that would have been written
+	 */
+	public long getNumOfLines() {
+		return numOfLines;
+	}
+}
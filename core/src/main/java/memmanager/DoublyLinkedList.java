@@ -0,0 +1,636 @@
+package memmanager;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.TreeSet;
+
+/**
+ * This class provides us a doubly linked list to keep track of the free blocks 
+ * in the memory pool. It inserts the FreeBlock in descending order of size. If two
+ * block have the same size, it inserts in ascending order by position.
+ * 
+ * Next to the list we keep an index of the blocks sorted in that same order, and tables of
+ * the blocks by their starting and ending positions (see BlockTable), so finding the best fit,
+ * splitting a block, putting a block back in its place and merging it with its neighbours take
+ * O(log n) instead of a walk through the list.
+ * 
+ * The first fit and next fit policies look at the blocks by position instead. For them the list
+ * also keeps the blocks sorted by position, but only once one of them has asked for it (see
+ * keepAddressOrder), so best fit pays nothing for it.
+ * 
+ * The list counts its merges as it makes them (see MemManagerStats), and keeps its number of
+ * blocks, free bytes and biggest block at hand, so none of them takes a walk through the list.
+ * 
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2011.08.24
+ */
+public class DoublyLinkedList {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	private FreeBlock head;
+	private FreeBlock tail;
+
+	/* The free blocks in list order (descending size, then ascending position) */
+	private TreeSet<FreeBlock> sizeIndex;
+
+	/* The free blocks keyed by their starting position in the memory pool */
+	private BlockTable positionIndex;
+
+	/* The free blocks keyed by the position just past their last byte. Together with the
+	 * positionIndex these act as boundary tags: the free neighbours of any block are one
+	 * lookup away. */
+	private BlockTable endIndex;
+
+	/* The free blocks sorted by position, null until keepAddressOrder is called */
+	private TreeSet<FreeBlock> addressIndex;
+
+	/* The total number of bytes in all the free blocks */
+	private long freeBytes;
+
+	/* The number of freed blocks merged with only the free block after them */
+	private long forwardMerges;
+
+	/* The number of freed blocks merged with only the free block before them */
+	private long backwardMerges;
+
+	/* The number of freed blocks merged with the free blocks on both sides */
+	private long bothWaysMerges;
+
+	/* A block that is never linked in, reused as the search key for the sizeIndex */
+	private FreeBlock probe;
+
+	/* Orders blocks the same way the list does: biggest first, ties by lowest position */
+	private static final Comparator<FreeBlock> LIST_ORDER = new Comparator<FreeBlock>() {
+		public int compare(FreeBlock first, FreeBlock second) {
+			if (first.getSize() != second.getSize()) {
+				return first.getSize() > second.getSize() ? -1 : 1;
+			}
+			if (first.getPosition() != second.getPosition()) {
+				return first.getPosition() < second.getPosition() ? -1 : 1;
+			}
+			return 0;
+		}
+	};
+
+	/* Orders blocks by position; no two free blocks start at the same position */
+	private static final Comparator<FreeBlock> ADDRESS_ORDER = new Comparator<FreeBlock>() {
+		public int compare(FreeBlock first, FreeBlock second) {
+			if (first.getPosition() != second.getPosition()) {
+				return first.getPosition() < second.getPosition() ? -1 : 1;
+			}
+			return 0;
+		}
+	};
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. In the beginning we will have one block in out list that has size poolSize and 
+	 * position 0.
+	 */
+	public DoublyLinkedList (long position, long size) {
+		this();
+		add(position, size, false);
+	}
+
+	/**
+	 * Constructor. Creates a list with no free blocks in it, for when the free blocks are
+	 * rebuilt from somewhere else, such as readState or the compactor.
+	 */
+	public DoublyLinkedList () {
+		head = new FreeBlock (-1, -1, null, null);
+		tail = new FreeBlock (-1, -1, null, null);
+		head.setNext(tail);
+		tail.setPrevious(head);
+		sizeIndex = new TreeSet<FreeBlock>(LIST_ORDER);
+		positionIndex = new BlockTable();
+		endIndex = new BlockTable();
+		probe = new FreeBlock(-1, -1, null, null);
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Adds a new FreeBlock in descending order based on record size (or by ascending position,
+	 * if two records have same size), every time a record is removed from the memory pool
+	 * 
+	 * @param position the position of the free block
+	 * @param size the size of the free block
+	 * @param toggleMerge tells whether or not to merge, because this method is also called by merge
+	 */
+	public void add(long position, long size, boolean toggleMerge) {
+		// New block that will be created
+		FreeBlock newBlock = new FreeBlock (position, size, null, null);
+
+		// A pointer to the block right before the new one we are adding
+		FreeBlock prevSmaller = orderBySize(newBlock);
+
+		newBlock.setPrevious(prevSmaller);
+		newBlock.setNext(prevSmaller.getNext());
+		prevSmaller.getNext().setPrevious(newBlock);
+		prevSmaller.setNext(newBlock);
+		sizeIndex.add(newBlock);
+		positionIndex.put(position, newBlock);
+		endIndex.put(position + size, newBlock);
+		if (addressIndex != null)
+			addressIndex.add(newBlock);
+		freeBytes += size;
+		// Only merge when we are not calling add() from the merge method
+		if (toggleMerge) 
+			merge(newBlock);
+	}
+
+	/**
+	 * Removes a block of size that is needed for the manager. It looks up the block
+	 * at the specified position. If the size we want to remove is less than the size we have in 
+	 * our list, it creates a new node with the difference and merges this new node with the 
+	 * existing one. 
+	 * 
+	 * @param position the position of the node we want to remove
+	 * @param size the size of the block to remove
+	 */
+	public void remove(long position, long size) {
+		FreeBlock block = positionIndex.get(position);
+		if (block == null) {
+			return;
+		}
+		unlink(block);
+		// The difference between the size we are looking for and the one we found
+		long diff = block.getSize() - size;
+		if (diff > 0) {
+			add(block.getPosition() + size, diff, true);
+			SplitEvent event = new SplitEvent();
+			if (event.shouldCommit()) {
+				event.size = size;
+				event.position = position;
+				event.remainder = diff;
+				event.freeBlocks = getNumOfBlocks();
+				event.commit();
+			}
+		}
+	}
+
+	/**
+	 * Writes out the number of free blocks followed by the position and size of each, so the
+	 * list can be rebuilt by readState without replaying the inserts and removes behind it.
+	 * @param out where to write the blocks
+	 * @throws IOException if out cannot be written
+	 */
+	public void writeState(DataOutput out) throws IOException {
+		out.writeInt(sizeIndex.size());
+		FreeBlock iterator = head.next;
+		while (iterator != tail) {
+			out.writeLong(iterator.getPosition());
+			out.writeLong(iterator.getSize());
+			iterator = iterator.next;
+		}
+	}
+
+	/**
+	 * Rebuilds a list written out by writeState. The blocks were already merged when they were
+	 * written, so they are added back without merging.
+	 * @param in where to read the blocks from
+	 * @return the rebuilt list
+	 * @throws IOException if in cannot be read
+	 */
+	public static DoublyLinkedList readState(DataInput in) throws IOException {
+		DoublyLinkedList list = new DoublyLinkedList();
+		int numOfBlocks = in.readInt();
+		for (int i = 0; i < numOfBlocks; i++) {
+			long position = in.readLong();
+			long size = in.readLong();
+			list.add(position, size, false);
+		}
+		return list;
+	}
+
+	/**
+	 * Prints the position, end and size of each FreeBlock in the list to out.
+	 * @param out where to print the list
+	 */
+	public void printList(OutputSink out) {
+		FreeBlock iterator = head.next;
+		while (iterator != tail) {
+			out.print("[");
+			out.print(iterator.getPosition());
+			out.print(", ");
+			out.print(iterator.getPosition() + iterator.getSize() - 1);
+			out.print("] (");
+			out.print(iterator.getSize());
+			out.print(" bytes)");
+			out.println();
+			iterator = iterator.next;
+		}
+	}
+
+	/**
+	 * Gets the position of the smallest FreeBlock that can hold size bytes. If several blocks
+	 * have that size, the one with the lowest position wins. Return -1, if no best fit possible
+	 * @param size the number of bytes we need
+	 * @return long the position of the best fitting FreeBlock
+	 */
+	public long getBestFit(long size) {
+		// The last block (in list order) that is still at least size bytes is the smallest fit,
+		// but it is the one with the highest position among the blocks of that size
+		probe.setSize(size);
+		probe.setPosition(Long.MAX_VALUE);
+		FreeBlock smallestFit = sizeIndex.floor(probe);
+		if (smallestFit == null) {
+			return -1;
+		}
+		// Step back to the first block of that size, which has the lowest position
+		probe.setSize(smallestFit.getSize());
+		probe.setPosition(Long.MIN_VALUE);
+		return sizeIndex.ceiling(probe).getPosition();
+	}
+
+	/**
+	 * Gets the position of the free block with the lowest position from (and below to) that can
+	 * hold size bytes. Blocks are looked at one by one in order of position, so this takes as
+	 * long as the number of blocks in the way.
+	 * @param size the number of bytes we need
+	 * @param from the lowest position a block may start at
+	 * @param to the position a block must start before
+	 * @return the position of the first fitting block, or -1 if there is none
+	 */
+	public long getFirstFit(long size, long from, long to) {
+		if (head.next == tail || head.next.getSize() < size) {
+			// Not even the biggest block is big enough
+			return -1;
+		}
+		keepAddressOrder();
+		probe.setPosition(from);
+		for (FreeBlock block : addressIndex.tailSet(probe, true)) {
+			if (block.getPosition() >= to)
+				return -1;
+			if (block.getSize() >= size)
+				return block.getPosition();
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the position of the biggest free block, if it can hold size bytes. If several blocks
+	 * have that size, the one with the lowest position wins.
+	 * @param size the number of bytes we need
+	 * @return the position of the biggest block, or -1 if it is too small or there is none
+	 */
+	public long getWorstFit(long size) {
+		if (head.next == tail || head.next.getSize() < size)
+			return -1;
+		return head.next.getPosition();
+	}
+
+	/**
+	 * @param position a position in the memory pool
+	 * @return the size of the free block starting at position, or -1 if no free block starts there
+	 */
+	public long getBlockSize(long position) {
+		FreeBlock block = positionIndex.get(position);
+		if (block == null)
+			return -1;
+		return block.getSize();
+	}
+
+	/**
+	 * Starts keeping the blocks sorted by position as well, if the list does not already, so
+	 * getFirstFit can walk them in that order.
+	 */
+	public void keepAddressOrder() {
+		if (addressIndex != null)
+			return;
+		addressIndex = new TreeSet<FreeBlock>(ADDRESS_ORDER);
+		addressIndex.addAll(sizeIndex);
+	}
+
+	/**
+	 * @return the total number of bytes in all the free blocks
+	 */
+	public long getFreeBytes() {
+		return freeBytes;
+	}
+
+	/**
+	 * @return the number of free blocks
+	 */
+	public int getNumOfBlocks() {
+		return sizeIndex.size();
+	}
+
+	/**
+	 * @return the size of the biggest free block, 0 if there is none
+	 */
+	public long getLargestBlockSize() {
+		if (head.next == tail)
+			return 0;
+		return head.next.getSize();
+	}
+
+	/**
+	 * Works out how broken up the free space is: 0 if it is all in one block, nearing 1 as it is
+	 * spread over more and more small blocks.
+	 * @return 1 - the size of the biggest free block / the free bytes, or 0 if nothing is free
+	 */
+	public double getFragmentation() {
+		if (freeBytes == 0)
+			return 0;
+		return 1 - (double) getLargestBlockSize() / freeBytes;
+	}
+
+	/**
+	 * @return the number of freed blocks merged with only the free block after them
+	 */
+	public long getForwardMerges() {
+		return forwardMerges;
+	}
+
+	/**
+	 * @return the number of freed blocks merged with only the free block before them
+	 */
+	public long getBackwardMerges() {
+		return backwardMerges;
+	}
+
+	/**
+	 * @return the number of freed blocks merged with the free blocks on both sides
+	 */
+	public long getBothWaysMerges() {
+		return bothWaysMerges;
+	}
+
+	/**
+	 * Counts a merge made outside the list, by a policy that merges blocks itself (see
+	 * BuddyPolicy). The merged block is not in the list yet.
+	 * @param position the position of the merged block
+	 * @param size the size of the merged block
+	 * @param freedSize the size of the freed block before it was merged
+	 * @param withBlockAfter true if the block was merged with the free block after it, false if
+	 * with the one before it
+	 */
+	public void countMerge(long position, long size, long freedSize, boolean withBlockAfter) {
+		if (withBlockAfter)
+			forwardMerges++;
+		else
+			backwardMerges++;
+		// The merged block is counted among the free blocks, as it will be once it is added
+		merged(withBlockAfter ? "forward" : "backward", position, size, freedSize, 1);
+	}
+
+	/**
+	 * Carries on the merge counts of the list this one takes the place of, such as the list
+	 * the compactor rebuilt.
+	 * @param previous the list this one replaces
+	 */
+	public void copyCounts(DoublyLinkedList previous) {
+		forwardMerges = previous.forwardMerges;
+		backwardMerges = previous.backwardMerges;
+		bothWaysMerges = previous.bothWaysMerges;
+	}
+
+	//~ Private methods ....................................................
+
+	/**
+	 * @return the head, which like the tail is not a free block itself
+	 */
+	public FreeBlock getHead() {
+		return head;
+	}
+
+	/**
+	 * @param head the head to set
+	 */
+	public void setHead(FreeBlock head) {
+		this.head = head;
+	}
+
+	/**
+	 * @return the tail
+	 */
+	public FreeBlock getTail() {
+		return tail;
+	}
+
+	/**
+	 * @param tail the tail to set
+	 */
+	public void setTail(FreeBlock tail) {
+		this.tail = tail;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Merges the newBlock with any existing, adjacent FreeBlock(s) already in the List.
+	 * The block that ends where newBlock starts is looked up in the endIndex and the block that
+	 * starts where newBlock ends is looked up in the positionIndex, so both neighbours are found
+	 * without searching the list. It is capable of merging both backwards and forwards. 
+	 * Once it finds a match, it removes the newBlock, the found match(s) and adds in a new 
+	 * FreeBlock that contains the size of all the merged FreeBlocks.
+	 */
+	private void merge(FreeBlock newBlock) {
+		long newCombinedPosition = 0;
+		long newCombinedSize = 0;
+		FreeBlock mergeForward = positionIndex.get(newBlock.getPosition() + newBlock.size);
+		FreeBlock mergeBackward = endIndex.get(newBlock.getPosition());
+		// Check where we merge
+		if (mergeForward != null && mergeBackward != null) {
+			// Remove all three that need to merge and insert one big block.
+			newCombinedPosition = mergeBackward.getPosition();
+			newCombinedSize = newBlock.size + mergeForward.size + mergeBackward.size;
+			bothWaysMerges++;
+			unlink(mergeForward);
+			unlink(mergeBackward);
+			unlink(newBlock);
+			add(newCombinedPosition, newCombinedSize, false);
+			merged("both ways", newCombinedPosition, newCombinedSize, newBlock.size, 0);
+		}
+		else if (mergeForward != null && mergeBackward == null) {
+			// Remove all two that need to merge and insert one big block.
+			newCombinedPosition = newBlock.getPosition();
+			newCombinedSize = newBlock.size + mergeForward.size;
+			forwardMerges++;
+			unlink(mergeForward);
+			unlink(newBlock);
+			add(newCombinedPosition, newCombinedSize, false);
+			merged("forward", newCombinedPosition, newCombinedSize, newBlock.size, 0);
+		}
+		else if (mergeBackward != null && mergeForward == null) {
+			// Remove all two that need to merge and insert one big block.
+			newCombinedPosition = mergeBackward.getPosition();
+			newCombinedSize = newBlock.size + mergeBackward.size;
+			backwardMerges++;
+			unlink(mergeBackward);
+			unlink(newBlock);
+			add(newCombinedPosition, newCombinedSize, false);
+			merged("backward", newCombinedPosition, newCombinedSize, newBlock.size, 0);
+		}
+	}
+
+	/**
+	 * Records a CoalesceEvent for a merge, if a recording wants it.
+	 * @param direction forward, backward or both ways
+	 * @param position the position of the merged block
+	 * @param size the size of the merged block
+	 * @param freedSize the size of the freed block before it was merged
+	 * @param notAdded the number of blocks not in the list yet
+	 */
+	private void merged(String direction, long position, long size, long freedSize, int notAdded) {
+		CoalesceEvent event = new CoalesceEvent();
+		if (event.shouldCommit()) {
+			event.direction = direction;
+			event.position = position;
+			event.size = size;
+			event.freedSize = freedSize;
+			event.freeBlocks = getNumOfBlocks() + notAdded;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Takes a block out of the list and out of all the indexes.
+	 * @param block the block to take out
+	 */
+	private void unlink(FreeBlock block) {
+		block.previous.next = block.next;
+		block.next.previous = block.previous;
+		sizeIndex.remove(block);
+		positionIndex.remove(block.getPosition());
+		endIndex.remove(block.getPosition() + block.getSize());
+		if (addressIndex != null)
+			addressIndex.remove(block);
+		freeBytes -= block.getSize();
+	}
+
+	/**
+	 * Returns the free block that the block we are adding goes right after. That is the block
+	 * just before it in the sizeIndex, or head if the new block is bigger than all of them.
+	 * 
+	 * @param newBlock the free block that we are trying to add
+	 * @return block the block that the new one goes after
+	 */
+	private FreeBlock orderBySize(FreeBlock newBlock) {
+		FreeBlock previous = sizeIndex.lower(newBlock);
+		if (previous == null)
+			return head;
+		return previous;
+	}
+
+	//~ Private classes.......................................................
+	// ----------------------------------------------------------
+
+	/**
+	 * This class provides us a container that represents a Freed block of memory
+	 * 
+	 * @author Karthik Kumar (kkumar91)
+	 * @author Germond Oatneal (goatn07)
+	 * @version 2011.08.24
+	 */
+	public class FreeBlock {
+		//~ Instance/static variables .........................................
+
+		// ----------------------------------------------------------
+		private long position;
+		private long size;
+		private FreeBlock next;
+		private FreeBlock previous;
+
+		//~ Constructors .....................................................
+
+		// ----------------------------------------------------------
+		/**
+		 * Creates a free block with the position of the free space in the pool
+		 * @param pos the position of the free space
+		 * @param size the size of the free block
+		 * @param next the free block that follows this one in the list.
+		 * @param prev the free block that precedes this one in the list.
+		 */
+		public FreeBlock(long pos, long size, FreeBlock prev, FreeBlock next) {
+			setPosition(pos);
+			setSize(size);
+			setPrevious(prev);
+			setNext(next);
+		}
+
+		//~ Public methods ....................................................
+
+		// ----------------------------------------------------------
+		/**
+		 * Get the position of the free block.
+		 * @return the element
+		 */
+		public long getPosition() {
+			return position;
+		}
+
+		// ----------------------------------------------------------
+		/**
+		 * Set the position stored in this block.
+		 * @param value the new data value to set
+		 */
+		public void setPosition(long value) {
+			position = value;
+		}
+
+		// ----------------------------------------------------------
+		/**
+		 * Get the next block in this chain.
+		 * @return a reference to the next block in the chain.
+		 */
+		public FreeBlock getNext() {
+			return next;
+		}
+
+		// ----------------------------------------------------------
+		/**
+		 * Set the value of this block's next pointer.
+		 * @param value the block to point to as the next one in the chain.
+		 */
+		public void setNext(FreeBlock value) {
+			next = value;
+		}
+
+		// ----------------------------------------------------------
+		/**
+		 * Get the previous block in this chain.
+		 * @return a reference to the previous block in the chain.
+		 */
+		public FreeBlock getPrevious() {
+			return previous;
+		}
+
+		// ----------------------------------------------------------
+		/**
+		 * Set the value of this block's previous pointer.
+		 * @param value the block to point to as the previous one in the chain.
+		 */
+		public void setPrevious(FreeBlock value) {
+			previous = value;
+		}
+
+		// ----------------------------------------------------------
+		/**
+		 * Sets the size of the free block
+		 * 
+		 * @param size the size to set the freeblock's size to
+		 */
+		public void setSize(long size) {
+			this.size = size;
+		}
+
+		// ----------------------------------------------------------
+		/**
+		 * Gets the size of the free block
+		 * @return size the size of the free block
+		 */
+		public long getSize() {
+			return size;
+		}
+	}
+}
\ No newline at end of file
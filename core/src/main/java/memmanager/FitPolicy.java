@@ -0,0 +1,128 @@
+package memmanager;
+
+/**
+ * This class is an AllocationPolicy that takes a new block from the front of one of the free
+ * blocks, which one depending on its rule:
+ *
+ *   BEST_FIT   the smallest block that is big enough (ties go to the lowest position)
+ *   FIRST_FIT  the block with the lowest position that is big enough
+ *   NEXT_FIT   like first fit, but starting where the last block was taken from and going round
+ *              to the start of the pool when the end is reached
+ *   WORST_FIT  the biggest block (ties go to the lowest position)
+ *
+ * A freed block is merged with the free blocks on either side of it. Best fit and worst fit find
+ * their block in O(log n) and O(1). First fit and next fit walk the blocks in order of position,
+ * skipping the ones that are too small, but stop at once if no block is big enough.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2012.01.24
+ */
+public class FitPolicy implements AllocationPolicy {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* Take the smallest block that is big enough */
+	public static final int BEST_FIT = 0;
+
+	/* Take the block with the lowest position that is big enough */
+	public static final int FIRST_FIT = 1;
+
+	/* Take the next block that is big enough, after the last one taken */
+	public static final int NEXT_FIT = 2;
+
+	/* Take the biggest block */
+	public static final int WORST_FIT = 3;
+
+	/* Which of the rules above we follow */
+	private int rule;
+
+	/* For next fit, the position just past the last block taken, where the next search starts */
+	private long nextPosition;
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Creates a policy following one of the rules.
+	 * @param rule BEST_FIT, FIRST_FIT, NEXT_FIT or WORST_FIT
+	 */
+	public FitPolicy(int rule) {
+		if (rule < BEST_FIT || rule > WORST_FIT)
+			throw new IllegalArgumentException("Unknown fit rule " + rule);
+		this.rule = rule;
+		nextPosition = Long.MIN_VALUE;
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Finds a free block big enough for blockSize bytes by our rule and takes the block from its
+	 * front, leaving the rest of it free.
+	 * @param freeBlockList the free blocks of the pool
+	 * @param blockSize the size of the block, including its size byte
+	 * @return the position of the block, or -1 if no free block is big enough
+	 */
+	public long allocate(DoublyLinkedList freeBlockList, long blockSize) {
+		long position;
+		switch (rule) {
+		case FIRST_FIT:
+			position = freeBlockList.getFirstFit(blockSize, Long.MIN_VALUE, Long.MAX_VALUE);
+			break;
+		case NEXT_FIT:
+			position = freeBlockList.getFirstFit(blockSize, nextPosition, Long.MAX_VALUE);
+			if (position == -1) {
+				// Go round to the start of the pool
+				position = freeBlockList.getFirstFit(blockSize, Long.MIN_VALUE, nextPosition);
+			}
+			break;
+		case WORST_FIT:
+			position = freeBlockList.getWorstFit(blockSize);
+			break;
+		default:
+			position = freeBlockList.getBestFit(blockSize);
+			break;
+		}
+		if (position == -1)
+			return -1;
+		freeBlockList.remove(position, blockSize);
+		nextPosition = position + blockSize;
+		return position;
+	}
+
+	/**
+	 * Adds the block back to the free block list, merging it with its free neighbours.
+	 * @param freeBlockList the free blocks of the pool
+	 * @param position the position of the block
+	 * @param blockSize the size of the block
+	 */
+	public void free(DoublyLinkedList freeBlockList, long position, long blockSize) {
+		freeBlockList.add(position, blockSize, true);
+	}
+
+	/**
+	 * Adds the space to the free block list, merging it with its free neighbours.
+	 * @param freeBlockList the free blocks of the pool
+	 * @param position the first position of the space
+	 * @param size the number of bytes of space
+	 */
+	public void addSpace(DoublyLinkedList freeBlockList, long position, long size) {
+		freeBlockList.add(position, size, true);
+	}
+
+	/**
+	 * @return true, since the free blocks are just the free stretches of the pool
+	 */
+	public boolean allowsRearranging() {
+		return true;
+	}
+
+	/**
+	 * @return the rule we follow
+	 */
+	public int getRule() {
+		return rule;
+	}
+}
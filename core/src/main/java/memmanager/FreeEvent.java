@@ -0,0 +1,47 @@
+package memmanager;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * This class is the Flight Recorder event for a record freed by MemManager.removeFromMemoryPool.
+ * Its duration is the time the block took to go back on the free block list, merges included
+ * (see CoalesceEvent).
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2012.02.21
+ */
+@Name("memmanager.Free")
+@Label("Free")
+@Category({"Memory Manager", "Memory Pool"})
+@Description("A record was freed and its block given back to the memory pool")
+@Enabled(false)
+@StackTrace(false)
+class FreeEvent extends jdk.jfr.Event {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The size of the block, including its size byte */
+	@Label("Size")
+	@DataAmount(DataAmount.BYTES)
+	long size;
+
+	/* The position of the block in the memory pool */
+	@Label("Position")
+	long position;
+
+	/* The number of free blocks afterwards */
+	@Label("Free Blocks")
+	int freeBlocks;
+
+	/* Whether the block was a slab slot */
+	@Label("Slab")
+	boolean slab;
+}
@@ -0,0 +1,78 @@
+package memmanager;
+
+/**
+ * This class decides how much the memory pool grows when a record does not fit. The pool either
+ * doubles or grows by a fixed number of bytes each time, but never past its ceiling.
+ * 
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2011.11.01
+ */
+public class GrowthPolicy {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The number of bytes added each time, or 0 to double the pool */
+	private long increment;
+
+	/* The biggest the pool may ever get */
+	private long maxPoolSize;
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Creates a policy that grows the pool by increment bytes at a time.
+	 * @param increment the number of bytes to add each time, 0 to double the pool instead
+	 * @param maxPoolSize the biggest the pool may get
+	 */
+	public GrowthPolicy(long increment, long maxPoolSize) {
+		this.increment = increment;
+		this.maxPoolSize = maxPoolSize;
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Creates a policy that doubles the pool each time it grows.
+	 * @param maxPoolSize the biggest the pool may get
+	 * @return the policy
+	 */
+	public static GrowthPolicy doubling(long maxPoolSize) {
+		return new GrowthPolicy(0, maxPoolSize);
+	}
+
+	/**
+	 * Works out the size of the pool after it grows once.
+	 * @param poolSize the current size of the pool
+	 * @return the new size, or poolSize if it is already at the ceiling
+	 */
+	public long nextSize(long poolSize) {
+		long grown;
+		if (increment == 0)
+			grown = Math.max(poolSize * 2, 1);
+		else
+			grown = poolSize + increment;
+		if (grown < poolSize || grown > maxPoolSize) {
+			// Stop at the ceiling, also if we went past the largest long
+			grown = maxPoolSize;
+		}
+		return Math.max(grown, poolSize);
+	}
+
+	/**
+	 * @return the increment, 0 if the pool doubles
+	 */
+	public long getIncrement() {
+		return increment;
+	}
+
+	/**
+	 * @return the maxPoolSize
+	 */
+	public long getMaxPoolSize() {
+		return maxPoolSize;
+	}
+}
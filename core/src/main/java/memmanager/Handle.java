@@ -0,0 +1,66 @@
+package memmanager;
+
+/**
+ * This class gives us a handle to the record we want. It holds an id in the HandleTable of the
+ * memory manager rather than the position itself, so the record can be moved by the compactor
+ * and the handle still finds it.
+ * 
+ * The id alone is enough to use every method of MemManager, so a Handle is only a convenience.
+ * The Client keeps plain ids and never creates one.
+ * 
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2011.10.25
+ */
+
+public class Handle {
+	//~ Instance/static variables.........................................
+
+	// ----------------------------------------------------------
+	/* The table that knows where the record is */
+	private final HandleTable table;
+
+	/* The id of this handle in the table */
+	private final int id;
+	
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Creates a handle for an id in a table.
+	 * @param table the table that holds the position of the record
+	 * @param id the id of the record in the table
+	 */
+	public Handle(HandleTable table, int id) {
+		this.table = table;
+		this.id = id;
+	}
+
+	/**
+	 * @param positionOfRecord the positionOfRecord to set
+	 */
+	public void setHandle(long positionOfRecord) {
+		table.setPosition(id, positionOfRecord);
+	}
+
+	/**
+	 * @return the positionOfRecord, which may change when the pool is compacted
+	 */
+	public long getPosition() {
+		return table.getPosition(id);
+	}
+
+	/**
+	 * @return the table the handle is in
+	 */
+	public HandleTable getTable() {
+		return table;
+	}
+
+	/**
+	 * @return the id
+	 */
+	public int getId() {
+		return id;
+	}
+}
@@ -0,0 +1,57 @@
+package memmanager;
+
+/**
+ * This interface is the indirection table behind every Handle. A handle only knows its id, and
+ * the table holds the current position of the record for each id. That lets the compactor move
+ * a record by changing one entry of the table, without the client ever noticing.
+ *
+ * Ids that are not in use are chained together through the table itself: the entry of a free
+ * id holds -2 - (the next free id), which is always negative, so it can never be mistaken for a
+ * position.
+ *
+ * ArrayHandleTable keeps the table in a Java array. MappedHandleTable keeps it in a mapped file,
+ * for a PersistentPool.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2011.10.25
+ */
+public interface HandleTable {
+
+	// ----------------------------------------------------------
+	/**
+	 * Hands out an id for a record at position, reusing a freed id if there is one.
+	 * @param position the position of the record
+	 * @return the id of the new handle
+	 */
+	public int allocate(long position);
+
+	/**
+	 * Gives an id back so it can be handed out again.
+	 * @param id the id of a handle whose record was removed
+	 */
+	public void release(int id);
+
+	/**
+	 * @param id the id of a handle
+	 * @return the position of its record, or a negative number if the id is not in use
+	 */
+	public long getPosition(int id);
+
+	/**
+	 * Points a handle at a new position, after its record was moved.
+	 * @param id the id of the handle
+	 * @param position the new position of the record
+	 */
+	public void setPosition(int id, long position);
+
+	/**
+	 * @return the number of ids that have ever been handed out; every id in use is below this
+	 */
+	public int size();
+
+	/**
+	 * @return the number of ids in use
+	 */
+	public int getNumOfLiveHandles();
+}
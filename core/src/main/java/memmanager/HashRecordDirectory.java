@@ -0,0 +1,207 @@
+package memmanager;
+
+import java.util.Arrays;
+
+/**
+ * This class is a RecordDirectory that only keeps the record numbers in use, in an open
+ * addressing hash table of two int arrays: the record numbers and the ids of their handles. A
+ * record number is looked for from the slot its hash picks, going on to the next slot until it
+ * is found or an empty slot is reached.
+ *
+ * The table doubles once it is half full and halves once it is less than an eighth full, so its
+ * memory follows the number of records rather than the number of record numbers. Removing a
+ * record moves the entries after it back into the gap (instead of leaving a marker behind), so
+ * lookups never have to step over removed entries.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2011.12.20
+ */
+public class HashRecordDirectory implements RecordDirectory {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The number of slots the table starts with, and never shrinks below */
+	private static final int MIN_CAPACITY = 16;
+
+	/* Marks a slot with no record number in it; record numbers are never negative */
+	private static final int EMPTY = -1;
+
+	/* The number of record numbers */
+	private int numOfRecords;
+
+	/* The record number in each slot, or EMPTY */
+	private int[] keys;
+
+	/* The id of the handle of the record in each slot */
+	private int[] ids;
+
+	/* The number of slots in use */
+	private int size;
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Creates an empty directory.
+	 * @param numOfRecords the number of record numbers, which may be as big as Integer.MAX_VALUE
+	 */
+	public HashRecordDirectory(int numOfRecords) {
+		this.numOfRecords = numOfRecords;
+		allocateTable(MIN_CAPACITY);
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * @param recordNumber a record number in range
+	 * @return the id of the handle of the record, or MemManager.NO_HANDLE if there is none
+	 */
+	public int get(int recordNumber) {
+		int slot = find(recordNumber);
+		if (keys[slot] == EMPTY)
+			return MemManager.NO_HANDLE;
+		return ids[slot];
+	}
+
+	/**
+	 * Sets the record for a record number.
+	 * @param recordNumber a record number in range
+	 * @param id the id of the handle of the record, or MemManager.NO_HANDLE to clear it
+	 */
+	public void put(int recordNumber, int id) {
+		int slot = find(recordNumber);
+		if (id == MemManager.NO_HANDLE) {
+			if (keys[slot] != EMPTY)
+				removeSlot(slot);
+			return;
+		}
+		if (keys[slot] == EMPTY) {
+			if (2 * (size + 1) > keys.length) {
+				resize(keys.length * 2);
+				slot = find(recordNumber);
+			}
+			keys[slot] = recordNumber;
+			size++;
+		}
+		ids[slot] = id;
+	}
+
+	/**
+	 * @return the number of record numbers
+	 */
+	public int getNumOfRecords() {
+		return numOfRecords;
+	}
+
+	/**
+	 * @return the number of record numbers that have a record
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return true, since only the record numbers in use are kept
+	 */
+	public boolean isSparse() {
+		return true;
+	}
+
+	/**
+	 * @return the record numbers that have a record, lowest first
+	 */
+	public int[] getLiveRecordNumbers() {
+		int[] live = new int[size];
+		int count = 0;
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (keys[slot] != EMPTY)
+				live[count++] = keys[slot];
+		}
+		Arrays.sort(live);
+		return live;
+	}
+
+	//~ Private methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Finds the slot of a record number.
+	 * @param recordNumber the record number to look for
+	 * @return the slot holding it, or the empty slot where it would go
+	 */
+	private int find(int recordNumber) {
+		int mask = keys.length - 1;
+		int slot = hash(recordNumber) & mask;
+		while (keys[slot] != EMPTY && keys[slot] != recordNumber)
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	/**
+	 * Empties a slot and moves back any entry after it that could not be found otherwise.
+	 * @param slot the slot to empty
+	 */
+	private void removeSlot(int slot) {
+		int mask = keys.length - 1;
+		int gap = slot;
+		int next = (gap + 1) & mask;
+		while (keys[next] != EMPTY) {
+			int home = hash(keys[next]) & mask;
+			// The entry at next may fill the gap unless its home lies after the gap, up to next
+			if (((next - home) & mask) >= ((next - gap) & mask)) {
+				keys[gap] = keys[next];
+				ids[gap] = ids[next];
+				gap = next;
+			}
+			next = (next + 1) & mask;
+		}
+		keys[gap] = EMPTY;
+		size--;
+		if (keys.length > MIN_CAPACITY && 8 * size < keys.length)
+			resize(keys.length / 2);
+	}
+
+	/**
+	 * Moves every entry into a table with a new number of slots.
+	 * @param capacity the new number of slots, a power of 2
+	 */
+	private void resize(int capacity) {
+		int[] oldKeys = keys;
+		int[] oldIds = ids;
+		allocateTable(capacity);
+		int mask = capacity - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != EMPTY) {
+				int slot = hash(oldKeys[i]) & mask;
+				while (keys[slot] != EMPTY)
+					slot = (slot + 1) & mask;
+				keys[slot] = oldKeys[i];
+				ids[slot] = oldIds[i];
+			}
+		}
+	}
+
+	/**
+	 * Creates empty arrays for the table.
+	 * @param capacity the number of slots
+	 */
+	private void allocateTable(int capacity) {
+		keys = new int[capacity];
+		ids = new int[capacity];
+		Arrays.fill(keys, EMPTY);
+	}
+
+	/**
+	 * Spreads the bits of a record number, so record numbers that are close together do not
+	 * pile up in neighbouring slots.
+	 * @param recordNumber the record number
+	 * @return its hash
+	 */
+	private static int hash(int recordNumber) {
+		int h = recordNumber * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
@@ -0,0 +1,103 @@
+package memmanager;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * This class keeps the memory pool in a byte array on the Java heap. It is the default backend
+ * and limits the pool to what one array can hold. Growing the pool copies it into a bigger array.
+ * 
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2011.10.11
+ */
+public class HeapPoolBackend implements PoolBackend {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* Reads and writes big-endian ints at any index of a byte array */
+	private static final VarHandle INT_VIEW = 
+			MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+	/* The biggest array we try to allocate */
+	public static final int MAX_POOL_SIZE = Integer.MAX_VALUE - 8;
+
+	/* Memory pool contains an array of bytes that stores records*/ 
+	private byte[] memoryPool;
+
+	/* A read-only buffer over the whole array that views are sliced from */
+	private ByteBuffer readOnlyPool;
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Creates a pool of the given size.
+	 * @param poolSize the size of the pool
+	 */
+	public HeapPoolBackend(int poolSize) {
+		this(new byte[poolSize]);
+	}
+
+	/**
+	 * Constructor. Uses an existing array as the pool.
+	 * @param memoryPool the array to use
+	 */
+	public HeapPoolBackend(byte[] memoryPool) {
+		this.memoryPool = memoryPool;
+		readOnlyPool = ByteBuffer.wrap(memoryPool).asReadOnlyBuffer();
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	public long size() {
+		return memoryPool.length;
+	}
+
+	public byte getByte(long position) {
+		return memoryPool[(int) position];
+	}
+
+	public void putByte(long position, byte value) {
+		memoryPool[(int) position] = value;
+	}
+
+	public int getInt(long position) {
+		return (int) INT_VIEW.get(memoryPool, (int) position);
+	}
+
+	public void putInt(long position, int value) {
+		INT_VIEW.set(memoryPool, (int) position, value);
+	}
+
+	public void get(long position, byte[] space, int offset, int length) {
+		System.arraycopy(memoryPool, (int) position, space, offset, length);
+	}
+
+	public void put(long position, byte[] space, int offset, int length) {
+		System.arraycopy(space, offset, memoryPool, (int) position, length);
+	}
+
+	public void grow(long newSize) {
+		if (newSize > MAX_POOL_SIZE)
+			throw new IllegalArgumentException("A heap pool cannot hold " + newSize + " bytes");
+		memoryPool = Arrays.copyOf(memoryPool, (int) newSize);
+		readOnlyPool = ByteBuffer.wrap(memoryPool).asReadOnlyBuffer();
+	}
+
+	public ByteBuffer view(long position, int length) {
+		return readOnlyPool.slice((int) position, length);
+	}
+
+	/**
+	 * @return the array that holds the pool
+	 */
+	public byte[] getMemoryPool() {
+		return memoryPool;
+	}
+}
@@ -0,0 +1,141 @@
+package memmanager;
+
+/**
+ * This class counts how long something took, in nanoseconds, so the percentiles can be read off
+ * afterwards without keeping every time. Times are counted in buckets: every power of 2 is cut
+ * into SUB_BUCKETS buckets of equal width, so a percentile is off by at most 1/SUB_BUCKETS of
+ * its value (about 3%), however many times are counted and however long they are.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2012.02.07
+ */
+public class LatencyHistogram {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The number of bits below the top one that pick the bucket within a power of 2 */
+	private static final int SUB_BUCKET_BITS = 5;
+
+	/* The number of buckets each power of 2 is cut into */
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	/* The number of times in each bucket */
+	private long[] counts;
+
+	/* The number of times counted */
+	private long count;
+
+	/* The sum of the times counted */
+	private long total;
+
+	/* The longest time counted */
+	private long max;
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Creates an empty histogram.
+	 */
+	public LatencyHistogram() {
+		counts = new long[(64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS];
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Counts one time.
+	 * @param nanos the time, which is taken as 0 if it is negative
+	 */
+	public void record(long nanos) {
+		if (nanos < 0)
+			nanos = 0;
+		counts[bucketOf(nanos)]++;
+		count++;
+		total += nanos;
+		if (nanos > max)
+			max = nanos;
+	}
+
+	/**
+	 * Works out the time that fraction of the times counted are no longer than.
+	 * @param fraction between 0 and 1, such as 0.99 for the 99th percentile
+	 * @return the highest time in the bucket that percentile falls in, but no more than the
+	 * longest time counted; 0 if nothing was counted
+	 */
+	public long getPercentile(double fraction) {
+		if (count == 0)
+			return 0;
+		long rank = (long) Math.ceil(fraction * count);
+		if (rank < 1)
+			rank = 1;
+		long seen = 0;
+		for (int bucket = 0; bucket < counts.length; bucket++) {
+			seen += counts[bucket];
+			if (seen >= rank)
+				return Math.min(highestIn(bucket), max);
+		}
+		return max;
+	}
+
+	/**
+	 * @return the number of times counted
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * @return the sum of the times counted
+	 */
+	public long getTotal() {
+		return total;
+	}
+
+	/**
+	 * @return the longest time counted
+	 */
+	public long getMax() {
+		return max;
+	}
+
+	/**
+	 * @return the average time, 0 if nothing was counted
+	 */
+	public long getMean() {
+		if (count == 0)
+			return 0;
+		return total / count;
+	}
+
+	//~ Private methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Finds the bucket of a time. Times below SUB_BUCKETS each have a bucket of their own.
+	 * @param nanos the time, not negative
+	 * @return the index of its bucket
+	 */
+	private static int bucketOf(long nanos) {
+		if (nanos < SUB_BUCKETS)
+			return (int) nanos;
+		int shift = 63 - Long.numberOfLeadingZeros(nanos) - SUB_BUCKET_BITS;
+		// The top bit is always set, so (nanos >>> shift) is between SUB_BUCKETS and twice that
+		return (shift + 1) * SUB_BUCKETS + (int) (nanos >>> shift) - SUB_BUCKETS;
+	}
+
+	/**
+	 * @param bucket the index of a bucket
+	 * @return the highest time that goes in the bucket
+	 */
+	private static long highestIn(int bucket) {
+		if (bucket < SUB_BUCKETS)
+			return bucket;
+		int shift = bucket / SUB_BUCKETS - 1;
+		long lowest = (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+}
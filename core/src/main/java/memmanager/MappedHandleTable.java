@@ -0,0 +1,140 @@
+package memmanager;
+
+/**
+ * This class is a HandleTable that lives in a mapped file (see PersistentPool) instead of a
+ * Java array, so the position of every record is already on disk the moment it changes and a
+ * pool that is opened again has its handles back without reading them in. The positions are
+ * longs starting at tableOffset, and the number of ids handed out, the first free id and the
+ * number of ids in use are ints in the file's header, so they are kept in place as well.
+ *
+ * Free ids are chained the same way as in ArrayHandleTable. When the file grows, it grows to
+ * twice its size, so handing out an id stays O(1) on average.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2012.03.06
+ */
+public class MappedHandleTable implements HandleTable {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The file the table lives in */
+	private MappedPoolBackend file;
+
+	/* Where the number of ids handed out is kept; the first free id and the number of ids in
+	 * use follow it */
+	private long headerOffset;
+
+	/* Where the position of id 0 is kept */
+	private long tableOffset;
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Uses the table that is in the file, or, if the header is all zeros, sets up
+	 * an empty one.
+	 * @param file the file the table lives in
+	 * @param headerOffset where the three ints of the header are kept
+	 * @param tableOffset where the positions start, a multiple of 8 past the header
+	 */
+	public MappedHandleTable(MappedPoolBackend file, long headerOffset, long tableOffset) {
+		this.file = file;
+		this.headerOffset = headerOffset;
+		this.tableOffset = tableOffset;
+		if (size() == 0 && getNumOfLiveHandles() == 0)
+			setFirstFree(-1);
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	public int allocate(long position) {
+		int id = getFirstFree();
+		if (id != -1) {
+			setFirstFree((int) (-2 - getPosition(id)));
+		}
+		else {
+			id = size();
+			if (tableOffset + 8L * (id + 1) > file.size())
+				file.grow(Math.max(file.size() * 2, tableOffset + 8L * (id + 1)));
+			file.putInt(headerOffset, id + 1);
+		}
+		setPosition(id, position);
+		setNumOfLiveHandles(getNumOfLiveHandles() + 1);
+		return id;
+	}
+
+	public void release(int id) {
+		setPosition(id, -2 - getFirstFree());
+		setFirstFree(id);
+		setNumOfLiveHandles(getNumOfLiveHandles() - 1);
+	}
+
+	public long getPosition(int id) {
+		long entry = tableOffset + 8L * id;
+		return ((long) file.getInt(entry) << 32) | (file.getInt(entry + 4) & 0xffffffffL);
+	}
+
+	public void setPosition(int id, long position) {
+		long entry = tableOffset + 8L * id;
+		file.putInt(entry, (int) (position >>> 32));
+		file.putInt(entry + 4, (int) position);
+	}
+
+	public int size() {
+		return file.getInt(headerOffset);
+	}
+
+	public int getNumOfLiveHandles() {
+		return file.getInt(headerOffset + 8);
+	}
+
+	/**
+	 * Frees every id in use whose record is not in the record array, such as the handle of an
+	 * insert that was cut short by a crash, and chains all the free ids together again. The
+	 * counts in the header are worked out again too, so a table left half way through an
+	 * allocate or release is whole again.
+	 * @param referenced for each id below size(), whether a record number holds it
+	 */
+	public void recover(boolean[] referenced) {
+		int firstFree = -1;
+		int numOfLiveHandles = 0;
+		for (int id = size() - 1; id >= 0; id--) {
+			if (getPosition(id) >= 0 && referenced[id]) {
+				numOfLiveHandles++;
+			}
+			else {
+				setPosition(id, -2 - firstFree);
+				firstFree = id;
+			}
+		}
+		setFirstFree(firstFree);
+		setNumOfLiveHandles(numOfLiveHandles);
+	}
+
+	//~ Private methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * @return the first free id, or -1 if every id below size is in use
+	 */
+	private int getFirstFree() {
+		return file.getInt(headerOffset + 4);
+	}
+
+	/**
+	 * @param firstFree the first free id to set
+	 */
+	private void setFirstFree(int firstFree) {
+		file.putInt(headerOffset + 4, firstFree);
+	}
+
+	/**
+	 * @param numOfLiveHandles the number of ids in use to set
+	 */
+	private void setNumOfLiveHandles(int numOfLiveHandles) {
+		file.putInt(headerOffset + 8, numOfLiveHandles);
+	}
+}
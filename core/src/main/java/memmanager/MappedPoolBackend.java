@@ -0,0 +1,101 @@
+package memmanager;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * This class keeps the memory pool in a file that is mapped into memory, so the records are still
+ * there the next time the file is opened. The file is mapped in chunks the same way the
+ * OffHeapPoolBackend allocates them, and the operating system writes pages back to the file.
+ * Growing the pool makes the file longer and maps it again.
+ * 
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2011.10.18
+ */
+public class MappedPoolBackend extends OffHeapPoolBackend {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The file the pool is mapped from */
+	private RandomAccessFile file;
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Maps the whole of an existing file, or creates the file with poolSize bytes
+	 * if it is empty or does not exist yet.
+	 * @param fileName the name of the file that holds the pool
+	 * @param poolSize the size of the pool if the file has to be created
+	 * @throws IOException if the file cannot be opened or mapped
+	 */
+	public MappedPoolBackend(String fileName, long poolSize) throws IOException {
+		super(new ByteBuffer[0]);
+		file = new RandomAccessFile(fileName, "rw");
+		if (file.length() == 0) {
+			file.setLength(poolSize);
+		}
+		setChunks(map(file.getChannel(), file.length()));
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Writes every changed page of the pool back to the file.
+	 */
+	public void force() {
+		ByteBuffer[] chunks = getChunks();
+		for (int i = 0; i < chunks.length; i++) {
+			((MappedByteBuffer) chunks[i]).force();
+		}
+	}
+
+	/**
+	 * Makes the file longer and maps it again. Bytes already in the file stay where they are.
+	 * @param newSize the new size of the pool
+	 */
+	public void grow(long newSize) {
+		try {
+			file.setLength(newSize);
+			setChunks(map(file.getChannel(), newSize));
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot grow the pool file", e);
+		}
+	}
+
+	/**
+	 * Writes the pool back to the file and closes it. The pool must not be used afterwards.
+	 * @throws IOException if the file cannot be closed
+	 */
+	public void close() throws IOException {
+		force();
+		file.close();
+	}
+
+	//~ Private methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Maps length bytes of the channel in chunks of CHUNK_SIZE.
+	 * @param channel the channel of the file to map
+	 * @param length the number of bytes to map
+	 * @return the mapped chunks
+	 * @throws IOException if the file cannot be mapped
+	 */
+	private static ByteBuffer[] map(FileChannel channel, long length) throws IOException {
+		int numOfChunks = (int) ((length + CHUNK_SIZE - 1) >>> CHUNK_BITS);
+		ByteBuffer[] chunks = new ByteBuffer[numOfChunks];
+		for (int i = 0; i < numOfChunks; i++) {
+			long start = (long) i << CHUNK_BITS;
+			chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, start, 
+					Math.min(CHUNK_SIZE, length - start));
+		}
+		return chunks;
+	}
+}
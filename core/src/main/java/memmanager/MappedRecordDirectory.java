@@ -0,0 +1,142 @@
+package memmanager;
+
+/**
+ * This class is a RecordDirectory that keeps the id of every record number in a mapped file
+ * (see PersistentPool), so the record array of a kept pool is on disk as soon as it changes and
+ * is back the moment the file is mapped again. Like ArrayRecordDirectory it takes 4 bytes for
+ * every record number, and the number of record numbers in use is kept in the file's header.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2012.03.06
+ */
+public class MappedRecordDirectory implements RecordDirectory {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The file the record array lives in */
+	private MappedPoolBackend file;
+
+	/* Where the number of record numbers in use is kept */
+	private long sizeOffset;
+
+	/* Where the id of record number 0 is kept */
+	private long recordsOffset;
+
+	/* The number of record numbers */
+	private int numOfRecords;
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Uses the record array that is in the file.
+	 * @param file the file the record array lives in
+	 * @param sizeOffset where the number of record numbers in use is kept
+	 * @param recordsOffset where the ids start
+	 * @param numOfRecords the number of record numbers
+	 */
+	public MappedRecordDirectory(MappedPoolBackend file, long sizeOffset, long recordsOffset,
+			int numOfRecords) {
+		this.file = file;
+		this.sizeOffset = sizeOffset;
+		this.recordsOffset = recordsOffset;
+		this.numOfRecords = numOfRecords;
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Empties every record number, for a new file.
+	 */
+	public void clear() {
+		for (int i = 0; i < numOfRecords; i++) {
+			file.putInt(recordsOffset + 4L * i, MemManager.NO_HANDLE);
+		}
+		file.putInt(sizeOffset, 0);
+	}
+
+	/**
+	 * @param recordNumber a record number in range
+	 * @return the id of the handle of the record, or MemManager.NO_HANDLE if there is none
+	 */
+	public int get(int recordNumber) {
+		return file.getInt(recordsOffset + 4L * recordNumber);
+	}
+
+	/**
+	 * Sets the record for a record number.
+	 * @param recordNumber a record number in range
+	 * @param id the id of the handle of the record, or MemManager.NO_HANDLE to clear it
+	 */
+	public void put(int recordNumber, int id) {
+		int size = size();
+		if (get(recordNumber) != MemManager.NO_HANDLE)
+			size--;
+		if (id != MemManager.NO_HANDLE)
+			size++;
+		file.putInt(recordsOffset + 4L * recordNumber, id);
+		file.putInt(sizeOffset, size);
+	}
+
+	/**
+	 * @return the number of record numbers
+	 */
+	public int getNumOfRecords() {
+		return numOfRecords;
+	}
+
+	/**
+	 * @return the number of record numbers that have a record
+	 */
+	public int size() {
+		return file.getInt(sizeOffset);
+	}
+
+	/**
+	 * @return false, since every record number has a slot
+	 */
+	public boolean isSparse() {
+		return false;
+	}
+
+	/**
+	 * @return the record numbers that have a record, lowest first
+	 */
+	public int[] getLiveRecordNumbers() {
+		int[] live = new int[size()];
+		int count = 0;
+		for (int i = 0; i < numOfRecords && count < live.length; i++) {
+			if (get(i) != MemManager.NO_HANDLE)
+				live[count++] = i;
+		}
+		return live;
+	}
+
+	/**
+	 * Clears every record number whose id is not a handle in use, such as one whose remove was
+	 * cut short by a crash, counts the record numbers in use again and marks the ids that are
+	 * held.
+	 * @param handles the handle table of the pool
+	 * @return for each id below handles.size(), whether a record number holds it
+	 */
+	public boolean[] recover(HandleTable handles) {
+		boolean[] referenced = new boolean[handles.size()];
+		int size = 0;
+		for (int i = 0; i < numOfRecords; i++) {
+			int id = get(i);
+			if (id == MemManager.NO_HANDLE)
+				continue;
+			if (id < 0 || id >= handles.size() || handles.getPosition(id) < 0 || referenced[id]) {
+				file.putInt(recordsOffset + 4L * i, MemManager.NO_HANDLE);
+				continue;
+			}
+			referenced[id] = true;
+			size++;
+		}
+		file.putInt(sizeOffset, size);
+		return referenced;
+	}
+}
@@ -0,0 +1,677 @@
+package memmanager;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * This class acts as the Memory Manager and handles most of the functionality required by 
+ * this project. It inserts a given byte array into our memory pool, removes records from
+ * memory pool and gets a certain record in the memory.
+ * 
+ * Handles go through a HandleTable, so records can be moved. When an insert finds no free block
+ * big enough although there are enough free bytes in total, the pool is compacted and the insert
+ * is tried again. After that it is not compacted again until a record is freed or the pool grows,
+ * since until then compacting could not make a bigger block (in slab mode the free space in front
+ * of each page never joins the rest). If that does not help either and the manager has a
+ * GrowthPolicy, the pool grows and the new space is added to the free block list, merging with
+ * a free block at the end. Positions do not change when the pool grows, so every handle stays
+ * valid.
+ * 
+ * Where a record goes is up to the manager's AllocationPolicy. By default that is best fit, but
+ * first fit, next fit, worst fit (see FitPolicy) or a buddy system (see BuddyPolicy) may be
+ * given instead. The buddy system keeps its free blocks aligned, so with it the pool is never
+ * compacted and slab mode cannot be used.
+ * 
+ * The manager counts its allocations, frees, failed inserts and the bytes its records take up as
+ * it goes, so MemManagerStats can show them (over JMX) without looking at the pool. Each
+ * allocation, free and failed insert can also be recorded by Flight Recorder (see
+ * AllocationEvent, FreeEvent and AllocationFailureEvent), but only while a recording asks for it.
+ * 
+ * Every method that takes or returns a Handle also has a version that works with the plain id
+ * of the handle in the HandleTable, with NO_HANDLE for none. A caller that keeps millions of
+ * records can hold their ids in an int array instead of keeping a Handle object for each one.
+ * 
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2011.08.28
+ */
+
+public class MemManager {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The id that stands for no record, returned when an insert fails */
+	public static final int NO_HANDLE = -1;
+
+	/* This DoublyLinkedList will contain all of our free blocks */
+	private DoublyLinkedList freeBlockList;
+
+	/* Memory pool stores the records, on or off the heap depending on the backend */ 
+	private PoolBackend memoryPool;
+
+	/* Decides which free block each record goes in */
+	private AllocationPolicy allocationPolicy;
+
+	/* Hands out slots for small records when slab mode is on, null otherwise */
+	private SlabAllocator slabAllocator;
+
+	/* The position of every record we have handed out a Handle for */
+	private HandleTable handleTable;
+
+	/* Moves records together when the free space is too broken up */
+	private PoolCompactor compactor;
+
+	/* Whether the pool is fully compacted and nothing was freed or added since */
+	private boolean fullyCompacted;
+
+	/* How the pool grows when a record does not fit, null if it never grows */
+	private GrowthPolicy growthPolicy;
+
+	/* The first position of the backend that this manager hands out */
+	private long poolStart;
+
+	/* The position just past the last one this manager hands out */
+	private long poolEnd;
+
+	/* The bytes taken up by the records, size bytes included */
+	private long bytesInUse;
+
+	/* The number of records allocated */
+	private long numOfAllocations;
+
+	/* The number of records freed */
+	private long numOfFrees;
+
+	/* The number of records that could not be allocated for lack of space */
+	private long insertFailures;
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Creates a memory pool of specified size.
+	 * 
+	 * Creates a DoublyLinkedList that has one FreeBlock that is of size poolSize and has 
+	 * position 0.
+	 * 
+	 * @param poolSize the size of pool
+	 */
+	public MemManager(int poolSize) {
+		this(new HeapPoolBackend(poolSize));
+	}
+
+	/**
+	 * Constructor. Uses the given backend as the memory pool, so the pool may live off the heap
+	 * and be bigger than 2 GB.
+	 * 
+	 * Creates a DoublyLinkedList that has one FreeBlock that is the size of the backend and has 
+	 * position 0.
+	 * 
+	 * @param memoryPool the storage for the pool
+	 */
+	public MemManager(PoolBackend memoryPool) {
+		this(memoryPool, 0, memoryPool.size());
+	}
+
+	/**
+	 * Constructor. Uses the given backend as the memory pool and places records with the given
+	 * policy instead of best fit.
+	 * 
+	 * @param memoryPool the storage for the pool
+	 * @param allocationPolicy decides which free block each record goes in
+	 */
+	public MemManager(PoolBackend memoryPool, AllocationPolicy allocationPolicy) {
+		this(memoryPool, 0, memoryPool.size(), allocationPolicy);
+	}
+
+	/**
+	 * Constructor. Manages only poolSize bytes of the backend, starting at poolStart, so several
+	 * managers can share one backend (see ConcurrentMemManager). Handles still hold positions in
+	 * the whole backend. A manager that does not reach the end of its backend cannot grow.
+	 * 
+	 * @param memoryPool the storage for the pool
+	 * @param poolStart the first position this manager may use
+	 * @param poolSize the number of bytes this manager may use
+	 */
+	public MemManager(PoolBackend memoryPool, long poolStart, long poolSize) {
+		this(memoryPool, poolStart, poolSize, new FitPolicy(FitPolicy.BEST_FIT));
+	}
+
+	/**
+	 * Constructor. Manages only poolSize bytes of the backend, like the one above, and places
+	 * records with the given policy.
+	 * 
+	 * @param memoryPool the storage for the pool
+	 * @param poolStart the first position this manager may use
+	 * @param poolSize the number of bytes this manager may use
+	 * @param allocationPolicy decides which free block each record goes in
+	 */
+	public MemManager(PoolBackend memoryPool, long poolStart, long poolSize, 
+			AllocationPolicy allocationPolicy) {
+		setMemoryPool(memoryPool);
+		this.poolStart = poolStart;
+		this.poolEnd = poolStart + poolSize;
+		this.allocationPolicy = allocationPolicy;
+		setFreeBlockList(new DoublyLinkedList());
+		allocationPolicy.addSpace(freeBlockList, poolStart, poolSize);
+		setHandleTable(new ArrayHandleTable());
+		compactor = new PoolCompactor(this);
+	}
+
+	/**
+	 * Constructor. Creates a memory pool of specified size in slab mode. Records small enough for
+	 * one of the SlabAllocator's size classes go in fixed size slots carved from pages of the
+	 * pool, everything else goes through best fit.
+	 * 
+	 * @param poolSize the size of pool
+	 * @param slabPageSize the size of each slab page
+	 */
+	public MemManager(int poolSize, int slabPageSize) {
+		this(new HeapPoolBackend(poolSize), slabPageSize);
+	}
+
+	/**
+	 * Constructor. Uses the given backend as the memory pool, in slab mode.
+	 * 
+	 * @param memoryPool the storage for the pool
+	 * @param slabPageSize the size of each slab page
+	 */
+	public MemManager(PoolBackend memoryPool, int slabPageSize) {
+		this(memoryPool);
+		setSlabAllocator(new SlabAllocator(poolEnd, slabPageSize));
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Insert a record and return its position handle. Parameter space contains the record 
+	 * to be inserted, of length size. Return null if the record could not be inserted.
+	 * @param space the record to be inserted
+	 * @param size the size of the record to be inserted
+	 * @return Handle pointing to the location where record was inserted, null if not inserted
+	 */
+	public Handle insertIntoMemoryPool (byte[] space, int size) {
+		return wrap(insertId(space, size));
+	}
+
+	/**
+	 * Insert a record like insertIntoMemoryPool, but return the id of its handle.
+	 * @param space the record to be inserted
+	 * @param size the size of the record to be inserted
+	 * @return the id of the handle of the record, NO_HANDLE if not inserted
+	 */
+	public int insertId(byte[] space, int size) {
+		int id = allocateId(size);
+		if (id != NO_HANDLE) {
+			// Copy the data from space into our memory pool, right after the size byte
+			memoryPool.put(handleTable.getPosition(id) + 1, space, 0, size);
+		}
+		return id;
+	}
+
+	/**
+	 * Makes room for a record of length size and writes its size byte, but leaves the record
+	 * itself for the caller to write into the memory pool (see RecordCursor.encode), so it does
+	 * not have to be put together in a byte array first. Return null if there is no room.
+	 * @param size the size of the record to make room for
+	 * @return Handle pointing to the location of the record, null if there is no room
+	 */
+	public Handle allocate (int size) {
+		return wrap(allocateId(size));
+	}
+
+	/**
+	 * Makes room for a record like allocate, but return the id of its handle.
+	 * @param size the size of the record to make room for
+	 * @return the id of the handle of the record, NO_HANDLE if there is no room
+	 */
+	public int allocateId(int size) {
+		AllocationEvent event = new AllocationEvent();
+		event.begin();
+		boolean compacted = false;
+		boolean grown = false;
+		long position = -1;
+		if (slabAllocator != null) {
+			// Small records go in a slab slot if there is one
+			position = slabAllocator.allocate(size + 1, freeBlockList);
+		}
+		if (position == -1) {
+			// The policy takes away the free space in the freeBlockList
+			position = allocationPolicy.allocate(freeBlockList, size + 1);
+			if (position == -1 && allocationPolicy.allowsRearranging() && !fullyCompacted
+					&& freeBlockList.getFreeBytes() >= size + 1) {
+				// There is enough space, just not in one piece. In slab mode some of it may stay
+				// in front of the pages, which is why we do not compact again until it can help.
+				compact(Long.MAX_VALUE);
+				compacted = true;
+				position = allocationPolicy.allocate(freeBlockList, size + 1);
+			}
+			while (position == -1 && grow()) {
+				grown = true;
+				position = allocationPolicy.allocate(freeBlockList, size + 1);
+			}
+			if (position == -1) {
+				// No space available
+				insertFailures++;
+				AllocationFailureEvent failure = new AllocationFailureEvent();
+				if (failure.shouldCommit()) {
+					failure.size = size + 1;
+					failure.freeBlocks = freeBlockList.getNumOfBlocks();
+					failure.freeBytes = freeBlockList.getFreeBytes();
+					failure.largestFreeBlock = freeBlockList.getLargestBlockSize();
+					failure.compacted = compacted;
+					failure.grown = grown;
+					failure.commit();
+				}
+				return NO_HANDLE;
+			}
+		}
+		bytesInUse += size + 1;
+		numOfAllocations++;
+		if (event.shouldCommit()) {
+			event.size = size + 1;
+			event.position = position;
+			event.freeBlocks = freeBlockList.getNumOfBlocks();
+			event.slab = slabAllocator != null && slabAllocator.contains(position);
+			event.compacted = compacted;
+			event.grown = grown;
+			event.commit();
+		}
+
+		/* The first byte will store the position. This may be negative if the size of the record
+		* is larger than 127 (since bytes in java are signed). This problem is overcome in our 
+		* get method which ands the size with 255 to convert it to a positive value.
+		*/
+		memoryPool.putByte(position, (byte) (size));
+		return handleTable.allocate(position);
+	}
+	
+	/**
+	 * Removes the record at theHandle. Merges adjacent blocks if appropriate. 
+	 * Adds this freed block to the freeBlockList
+	 * @param theHandle the record to free
+	 */
+	public void removeFromMemoryPool(Handle theHandle) {
+		removeFromMemoryPool(theHandle.getId());
+	}
+
+	/**
+	 * Removes the record whose handle has the given id, like removeFromMemoryPool(Handle).
+	 * @param id the id of the handle of the record to free
+	 */
+	public void removeFromMemoryPool(int id) {
+		FreeEvent event = new FreeEvent();
+		event.begin();
+		long position = handleTable.getPosition(id);
+		int size = getSizeOfRecord(id);
+		handleTable.release(id);
+		bytesInUse -= size + 1;
+		numOfFrees++;
+		fullyCompacted = false;
+		boolean slab = slabAllocator != null && slabAllocator.free(position, freeBlockList);
+		if (!slab) {
+			allocationPolicy.free(freeBlockList, position, size + 1);
+		}
+		// Otherwise the record was in a slab slot, which is now back on its page
+		if (event.shouldCommit()) {
+			event.size = size + 1;
+			event.position = position;
+			event.freeBlocks = freeBlockList.getNumOfBlocks();
+			event.slab = slab;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Slides the records together so the free space ends up in one block (or, in slab mode, one
+	 * block in front of each slab page and one at the end). Stops moving records once budgetNanos
+	 * have passed; calling it again carries on from there. Nothing is moved if the allocation
+	 * policy does not allow it.
+	 * @param budgetNanos how long we may spend moving records, Long.MAX_VALUE for no limit
+	 * @return true if the pool is fully compacted
+	 */
+	public boolean compact(long budgetNanos) {
+		if (!allocationPolicy.allowsRearranging())
+			return false;
+		fullyCompacted = compactor.compact(budgetNanos);
+		return fullyCompacted;
+	}
+
+	/**
+	 * Grows the pool once, as the growthPolicy says, and frees the new space.
+	 * @return true if the pool grew, false if there is no policy, it is at its ceiling or this
+	 * manager only has part of the backend
+	 */
+	public boolean grow() {
+		if (growthPolicy == null || poolEnd != memoryPool.size())
+			return false;
+		long oldSize = memoryPool.size();
+		long newSize = growthPolicy.nextSize(oldSize);
+		if (newSize <= oldSize)
+			return false;
+		memoryPool.grow(newSize);
+		poolEnd = newSize;
+		if (slabAllocator != null)
+			slabAllocator.setPoolSize(newSize);
+		allocationPolicy.addSpace(freeBlockList, oldSize, newSize - oldSize);
+		fullyCompacted = false;
+		return true;
+	}
+
+	/**
+	 * Return the record with handle theHandle, up to size bytes. Place the record into space.
+	 * @param space the destination for the record to get
+	 * @param theHandle points to the record in to memory pool to get
+	 * @param size the size of record we are trying to get
+	 */
+	public int get(byte[] space, Handle theHandle, int size) {
+		return get(space, theHandle.getId(), size);
+	}
+
+	/**
+	 * Return the record whose handle has the given id, like get(byte[], Handle, int).
+	 * @param space the destination for the record to get
+	 * @param id the id of the handle of the record
+	 * @param size the size of record we are trying to get
+	 */
+	public int get(byte[] space, int id, int size) {
+		// Copy from the starting position of the record (just past its size byte) all the 
+		// bytes we need (size) from our memory pool to space
+		memoryPool.get(handleTable.getPosition(id) + 1, space, 0, size);
+		return size;
+	}
+
+	/**
+	 * Return the record with handle theHandle as a read-only buffer over the memory pool, without
+	 * copying it. The buffer holds just the record, without its size byte, starting at index 0.
+	 * It is only good until the record is removed or the pool is compacted or grown.
+	 * @param theHandle points to the record in the memory pool
+	 * @return a read-only view of the record
+	 */
+	public ByteBuffer getView(Handle theHandle) {
+		return getView(theHandle.getId());
+	}
+
+	/**
+	 * Return the record whose handle has the given id as a read-only view, like getView(Handle).
+	 * @param id the id of the handle of the record
+	 * @return a read-only view of the record
+	 */
+	public ByteBuffer getView(int id) {
+		return memoryPool.view(handleTable.getPosition(id) + 1, getSizeOfRecord(id));
+	}
+
+	/**
+	 * Return the size of a record, without including the size byte.
+	 * @param theHandle the position of the record to find the size of
+	 * @return the size of the record
+	 */
+	public int getSizeOfRecord(Handle theHandle) {
+		return getSizeOfRecord(theHandle.getId());
+	}
+
+	/**
+	 * Return the size of the record whose handle has the given id, without the size byte.
+	 * @param id the id of the handle of the record
+	 * @return the size of the record
+	 */
+	public int getSizeOfRecord(int id) {
+		// And by 255 to convert a size > 127
+		return memoryPool.getByte(handleTable.getPosition(id)) & 255; 
+	}
+
+	/**
+	 * @param id the id of the handle of a record
+	 * @return the position of the record's size byte, which may change when the pool is compacted
+	 */
+	public long getPosition(int id) {
+		return handleTable.getPosition(id);
+	}
+
+	/**
+	 * Wraps the id of a handle in a Handle, for callers that want one.
+	 * @param id the id of a handle, or NO_HANDLE
+	 * @return the Handle, or null for NO_HANDLE
+	 */
+	public Handle wrap(int id) {
+		if (id == NO_HANDLE)
+			return null;
+		return new Handle(handleTable, id);
+	}
+
+	/**
+	 * Writes out the free block list, the number of bytes in use and, in slab mode, the slab
+	 * pages. The handle table is not written, since a pool that is kept (see PersistentPool) has
+	 * its handle table in a file of its own already.
+	 * @param out where to write the state
+	 * @throws IOException if out cannot be written
+	 */
+	public void writeState(DataOutput out) throws IOException {
+		freeBlockList.writeState(out);
+		out.writeLong(bytesInUse);
+		if (slabAllocator == null) {
+			out.writeInt(0);
+		}
+		else {
+			out.writeInt(slabAllocator.getPageSize());
+			slabAllocator.writeState(out);
+		}
+	}
+
+	/**
+	 * Creates a manager over a pool that already holds records, using the state written out by
+	 * writeState instead of starting with one big free block.
+	 * @param memoryPool the storage for the pool, with its records still in it
+	 * @param handleTable the handle table of the records, as it was when the state was written
+	 * @param in where to read the state from
+	 * @return the restored manager
+	 * @throws IOException if in cannot be read
+	 */
+	public static MemManager readState(PoolBackend memoryPool, HandleTable handleTable, 
+			DataInput in) throws IOException {
+		MemManager manager = new MemManager(memoryPool);
+		manager.setHandleTable(handleTable);
+		manager.setFreeBlockList(DoublyLinkedList.readState(in));
+		manager.bytesInUse = in.readLong();
+		int slabPageSize = in.readInt();
+		if (slabPageSize > 0) {
+			SlabAllocator slabAllocator = new SlabAllocator(memoryPool.size(), slabPageSize);
+			slabAllocator.readState(in);
+			manager.setSlabAllocator(slabAllocator);
+		}
+		return manager;
+	}
+
+	/**
+	 * Creates a manager over a pool that already holds records when only the handle table is
+	 * left, such as after a crash. Every gap between the records becomes a free block. In slab
+	 * mode the manager starts with no pages, and a record that was in a slot is freed like any
+	 * other record of its size.
+	 * @param memoryPool the storage for the pool, with its records still in it
+	 * @param handleTable the handle table of the records
+	 * @param slabPageSize the size of each slab page, 0 for no slab mode
+	 * @return the rebuilt manager
+	 */
+	public static MemManager recover(PoolBackend memoryPool, HandleTable handleTable, 
+			int slabPageSize) {
+		MemManager manager = new MemManager(memoryPool);
+		manager.setHandleTable(handleTable);
+		if (slabPageSize > 0)
+			manager.setSlabAllocator(new SlabAllocator(memoryPool.size(), slabPageSize));
+		long[] positions = new long[handleTable.getNumOfLiveHandles()];
+		int count = 0;
+		for (int id = 0; id < handleTable.size() && count < positions.length; id++) {
+			if (handleTable.getPosition(id) >= 0)
+				positions[count++] = handleTable.getPosition(id);
+		}
+		Arrays.sort(positions, 0, count);
+		DoublyLinkedList freeBlockList = new DoublyLinkedList();
+		long end = 0;
+		for (int i = 0; i < count; i++) {
+			if (positions[i] > end)
+				freeBlockList.add(end, positions[i] - end, false);
+			long size = (memoryPool.getByte(positions[i]) & 255) + 1;
+			manager.bytesInUse += size;
+			end = Math.max(end, positions[i] + size);
+		}
+		if (memoryPool.size() > end)
+			freeBlockList.add(end, memoryPool.size() - end, false);
+		manager.setFreeBlockList(freeBlockList);
+		return manager;
+	}
+
+	/**
+	 * @return the freeBlockList
+	 */
+	public DoublyLinkedList getFreeBlockList() {
+		return freeBlockList;
+	}
+
+	/**
+	 * @param freeBlockList the freeBlockList to set
+	 */
+	public void setFreeBlockList(DoublyLinkedList freeBlockList) {
+		if (this.freeBlockList != null)
+			freeBlockList.copyCounts(this.freeBlockList);
+		this.freeBlockList = freeBlockList;
+	}
+
+	/**
+	 * @return the slabAllocator, null if slab mode is off
+	 */
+	public SlabAllocator getSlabAllocator() {
+		return slabAllocator;
+	}
+
+	/**
+	 * @param slabAllocator the slabAllocator to set, null to turn slab mode off. Only change it
+	 * while the pool is empty.
+	 */
+	public void setSlabAllocator(SlabAllocator slabAllocator) {
+		if (slabAllocator != null && !allocationPolicy.allowsRearranging())
+			throw new IllegalArgumentException("Slab mode needs free blocks that can be carved up");
+		this.slabAllocator = slabAllocator;
+	}
+
+	/**
+	 * @return the compactor, which compact and a full insert use
+	 */
+	public PoolCompactor getCompactor() {
+		return compactor;
+	}
+
+	/**
+	 * @return the bytes taken up by the records, size bytes included. The pool size less this
+	 * and the free bytes is lost to rounding, in slab slots and pages or buddy blocks.
+	 */
+	public long getBytesInUse() {
+		return bytesInUse;
+	}
+
+	/**
+	 * @return the number of records allocated
+	 */
+	public long getNumOfAllocations() {
+		return numOfAllocations;
+	}
+
+	/**
+	 * @return the number of records freed
+	 */
+	public long getNumOfFrees() {
+		return numOfFrees;
+	}
+
+	/**
+	 * @return the number of records that could not be allocated for lack of space
+	 */
+	public long getInsertFailures() {
+		return insertFailures;
+	}
+
+	/**
+	 * @return the allocationPolicy
+	 */
+	public AllocationPolicy getAllocationPolicy() {
+		return allocationPolicy;
+	}
+
+	/**
+	 * @param allocationPolicy the allocationPolicy to set. Policies that allow rearranging the
+	 * free blocks may be swapped at any time; any other policy has to be given to the constructor.
+	 */
+	public void setAllocationPolicy(AllocationPolicy allocationPolicy) {
+		if (!allocationPolicy.allowsRearranging() || !this.allocationPolicy.allowsRearranging())
+			throw new IllegalArgumentException("This policy has to be given to the constructor");
+		this.allocationPolicy = allocationPolicy;
+	}
+
+	/**
+	 * @return the first position this manager hands out
+	 */
+	public long getPoolStart() {
+		return poolStart;
+	}
+
+	/**
+	 * @return the position just past the last one this manager hands out
+	 */
+	public long getPoolEnd() {
+		return poolEnd;
+	}
+
+	/**
+	 * @return the growthPolicy, null if the pool never grows
+	 */
+	public GrowthPolicy getGrowthPolicy() {
+		return growthPolicy;
+	}
+
+	/**
+	 * @param growthPolicy the growthPolicy to set, null to never grow the pool
+	 */
+	public void setGrowthPolicy(GrowthPolicy growthPolicy) {
+		this.growthPolicy = growthPolicy;
+	}
+
+	/**
+	 * @return the handleTable
+	 */
+	public HandleTable getHandleTable() {
+		return handleTable;
+	}
+
+	/**
+	 * @param handleTable the handleTable to set
+	 */
+	public void setHandleTable(HandleTable handleTable) {
+		this.handleTable = handleTable;
+	}
+
+	/**
+	 * @return the memoryPool
+	 */
+	public PoolBackend getMemoryPool() {
+		return memoryPool;
+	}
+
+	/**
+	 * @param memoryPool the memoryPool to set
+	 */
+	public void setMemoryPool(PoolBackend memoryPool) {
+		this.memoryPool = memoryPool;
+	}
+
+	/**
+	 * Prints the freeBlockList to out.
+	 * @param out where to print the list
+	 */
+	public void printFreeList(OutputSink out) {
+		freeBlockList.printList(out);
+	}
+}
\ No newline at end of file
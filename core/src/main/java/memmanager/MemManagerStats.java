@@ -0,0 +1,164 @@
+package memmanager;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * This class shows the counters of a MemManager over JMX, so the pool can be watched from
+ * jconsole or any other JMX client while commands run. Nothing is worked out when an attribute
+ * is read: every value is a counter the manager or its DoublyLinkedList keeps up to date on each
+ * insert and remove (or, for the biggest free block and the number of free blocks, looks up in
+ * O(1)), so watching the pool costs the inserts and removes a few additions.
+ *
+ * The counters are read without locking from the JMX thread while the manager changes them, so a
+ * value may be a moment old, and two values read one after the other may not quite agree.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2012.02.14
+ */
+public class MemManagerStats implements MemManagerStatsMBean {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The JMX domain the beans are registered under */
+	public static final String DOMAIN = "memmanager";
+
+	/* The manager whose counters we show */
+	private MemManager manager;
+
+	/* The name we are registered under, null if we are not */
+	private ObjectName objectName;
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Creates the bean for a manager, without registering it.
+	 * @param manager the manager whose counters to show
+	 */
+	public MemManagerStats(MemManager manager) {
+		this.manager = manager;
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Registers the bean with the platform MBean server as memmanager:type=MemManager,name=name.
+	 * @param name tells this manager apart from any others
+	 * @throws JMException if the name is taken or not a valid name
+	 */
+	public void register(String name) throws JMException {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName newName = new ObjectName(DOMAIN + ":type=MemManager,name=" + ObjectName.quote(name));
+		server.registerMBean(this, newName);
+		objectName = newName;
+	}
+
+	/**
+	 * Takes the bean off the platform MBean server, if it is registered.
+	 * @throws JMException if it cannot be taken off
+	 */
+	public void unregister() throws JMException {
+		if (objectName == null)
+			return;
+		ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+		objectName = null;
+	}
+
+	/**
+	 * @return the number of bytes the manager hands out
+	 */
+	public long getPoolSize() {
+		return manager.getPoolEnd() - manager.getPoolStart();
+	}
+
+	/**
+	 * @return the bytes taken up by the records, size bytes included
+	 */
+	public long getBytesInUse() {
+		return manager.getBytesInUse();
+	}
+
+	/**
+	 * @return the bytes in free blocks
+	 */
+	public long getBytesFree() {
+		return manager.getFreeBlockList().getFreeBytes();
+	}
+
+	/**
+	 * @return the size of the biggest free block
+	 */
+	public long getLargestFreeBlock() {
+		return manager.getFreeBlockList().getLargestBlockSize();
+	}
+
+	/**
+	 * @return the number of free blocks
+	 */
+	public int getFreeBlockCount() {
+		return manager.getFreeBlockList().getNumOfBlocks();
+	}
+
+	/**
+	 * @return 1 - the biggest free block / the free bytes: 0 if the free space is in one piece
+	 */
+	public double getFragmentation() {
+		return manager.getFreeBlockList().getFragmentation();
+	}
+
+	/**
+	 * @return the number of records allocated
+	 */
+	public long getAllocations() {
+		return manager.getNumOfAllocations();
+	}
+
+	/**
+	 * @return the number of records freed
+	 */
+	public long getFrees() {
+		return manager.getNumOfFrees();
+	}
+
+	/**
+	 * @return the number of records that could not be allocated for lack of space
+	 */
+	public long getInsertFailures() {
+		return manager.getInsertFailures();
+	}
+
+	/**
+	 * @return the number of freed blocks merged with only the free block after them
+	 */
+	public long getForwardMerges() {
+		return manager.getFreeBlockList().getForwardMerges();
+	}
+
+	/**
+	 * @return the number of freed blocks merged with only the free block before them
+	 */
+	public long getBackwardMerges() {
+		return manager.getFreeBlockList().getBackwardMerges();
+	}
+
+	/**
+	 * @return the number of freed blocks merged with the free blocks on both sides
+	 */
+	public long getBothWaysMerges() {
+		return manager.getFreeBlockList().getBothWaysMerges();
+	}
+
+	/**
+	 * @return the name we are registered under, null if we are not
+	 */
+	public ObjectName getObjectName() {
+		return objectName;
+	}
+}
@@ -0,0 +1,73 @@
+package memmanager;
+
+/**
+ * This interface is what JMX shows of a MemManager (see MemManagerStats). Each getter is an
+ * attribute, read from counters the manager and its free block list keep up to date as they go.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2012.02.14
+ */
+public interface MemManagerStatsMBean {
+
+	// ----------------------------------------------------------
+	/**
+	 * @return the number of bytes the manager hands out
+	 */
+	public long getPoolSize();
+
+	/**
+	 * @return the bytes taken up by the records, size bytes included
+	 */
+	public long getBytesInUse();
+
+	/**
+	 * @return the bytes in free blocks
+	 */
+	public long getBytesFree();
+
+	/**
+	 * @return the size of the biggest free block
+	 */
+	public long getLargestFreeBlock();
+
+	/**
+	 * @return the number of free blocks
+	 */
+	public int getFreeBlockCount();
+
+	/**
+	 * @return 1 - the biggest free block / the free bytes: 0 if the free space is in one piece
+	 */
+	public double getFragmentation();
+
+	/**
+	 * @return the number of records allocated
+	 */
+	public long getAllocations();
+
+	/**
+	 * @return the number of records freed
+	 */
+	public long getFrees();
+
+	/**
+	 * @return the number of records that could not be allocated for lack of space
+	 */
+	public long getInsertFailures();
+
+	/**
+	 * @return the number of freed blocks merged with only the free block after them
+	 */
+	public long getForwardMerges();
+
+	/**
+	 * @return the number of freed blocks merged with only the free block before them
+	 */
+	public long getBackwardMerges();
+
+	/**
+	 * @return the number of freed blocks merged with the free blocks on both sides
+	 */
+	public long getBothWaysMerges();
+}
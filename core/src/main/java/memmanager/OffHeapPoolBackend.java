@@ -0,0 +1,200 @@
+package memmanager;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * This class keeps the memory pool outside the Java heap, in direct ByteBuffers. A single buffer
+ * can only hold 2 GB, so the pool is split into chunks of CHUNK_SIZE bytes and a position is
+ * turned into a chunk and an offset in that chunk. Reads and writes that cross the end of a chunk
+ * are split in two. The garbage collector never scans or copies the pool. Growing the pool adds
+ * chunks; only a last chunk that was not full yet gets copied into a bigger one.
+ * 
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2011.10.11
+ */
+public class OffHeapPoolBackend implements PoolBackend {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The number of bits of a position that give the offset in a chunk, unless a pool picks fewer */
+	public static final int CHUNK_BITS = 30;
+
+	/* The number of bytes in each chunk, other than maybe the last one */
+	public static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+	/* The number of bits of a position that give the offset in a chunk of this pool */
+	private final int chunkBits;
+
+	/* The number of bytes in each chunk of this pool, other than maybe the last one */
+	private final int chunkSize;
+
+	/* Masks a position down to its offset in a chunk */
+	private final long offsetMask;
+
+	/* The chunks that make up the pool, in order */
+	private ByteBuffer[] chunks;
+
+	/* Read-only copies of the chunk buffers (sharing their memory) that views are sliced from */
+	private ByteBuffer[] readOnlyChunks;
+
+	/* The total size of the pool */
+	private long size;
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Allocates direct buffers for a pool of the given size.
+	 * @param poolSize the size of the pool
+	 */
+	public OffHeapPoolBackend(long poolSize) {
+		this(poolSize, CHUNK_BITS);
+	}
+
+	/**
+	 * Constructor. Allocates direct buffers for a pool of the given size, in chunks of
+	 * 2^chunkBits bytes. Small chunks let tests cross chunk ends without gigabytes of memory.
+	 * @param poolSize the size of the pool
+	 * @param chunkBits the number of bits of a position that give the offset in a chunk
+	 */
+	OffHeapPoolBackend(long poolSize, int chunkBits) {
+		if (chunkBits < 3 || chunkBits > CHUNK_BITS)
+			throw new IllegalArgumentException("Chunk bits must be from 3 to " + CHUNK_BITS);
+		this.chunkBits = chunkBits;
+		chunkSize = 1 << chunkBits;
+		offsetMask = chunkSize - 1;
+		chunks = new ByteBuffer[0];
+		grow(poolSize);
+	}
+
+	/**
+	 * Constructor. Uses buffers that were already set up, such as mapped files, as the chunks.
+	 * Every chunk but the last must hold exactly CHUNK_SIZE bytes.
+	 * @param chunks the chunks that make up the pool
+	 */
+	protected OffHeapPoolBackend(ByteBuffer[] chunks) {
+		chunkBits = CHUNK_BITS;
+		chunkSize = CHUNK_SIZE;
+		offsetMask = CHUNK_SIZE - 1;
+		setChunks(chunks);
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	public long size() {
+		return size;
+	}
+
+	public byte getByte(long position) {
+		return chunks[(int) (position >>> chunkBits)].get((int) (position & offsetMask));
+	}
+
+	public void putByte(long position, byte value) {
+		chunks[(int) (position >>> chunkBits)].put((int) (position & offsetMask), value);
+	}
+
+	public int getInt(long position) {
+		ByteBuffer chunk = chunks[(int) (position >>> chunkBits)];
+		int chunkOffset = (int) (position & offsetMask);
+		if (chunkOffset + 4 <= chunk.capacity())
+			return chunk.getInt(chunkOffset);
+		// The int runs into the next chunk, so put it together a byte at a time
+		int value = 0;
+		for (int i = 0; i < 4; i++) {
+			value = (value << 8) | (getByte(position + i) & 255);
+		}
+		return value;
+	}
+
+	public void putInt(long position, int value) {
+		ByteBuffer chunk = chunks[(int) (position >>> chunkBits)];
+		int chunkOffset = (int) (position & offsetMask);
+		if (chunkOffset + 4 <= chunk.capacity()) {
+			chunk.putInt(chunkOffset, value);
+			return;
+		}
+		for (int i = 0; i < 4; i++) {
+			putByte(position + i, (byte) (value >>> (24 - 8 * i)));
+		}
+	}
+
+	public void get(long position, byte[] space, int offset, int length) {
+		while (length > 0) {
+			ByteBuffer chunk = chunks[(int) (position >>> chunkBits)];
+			int chunkOffset = (int) (position & offsetMask);
+			// Copy as much as this chunk holds, then carry on in the next one
+			int count = Math.min(length, chunk.capacity() - chunkOffset);
+			chunk.get(chunkOffset, space, offset, count);
+			position += count;
+			offset += count;
+			length -= count;
+		}
+	}
+
+	public void put(long position, byte[] space, int offset, int length) {
+		while (length > 0) {
+			ByteBuffer chunk = chunks[(int) (position >>> chunkBits)];
+			int chunkOffset = (int) (position & offsetMask);
+			int count = Math.min(length, chunk.capacity() - chunkOffset);
+			chunk.put(chunkOffset, space, offset, count);
+			position += count;
+			offset += count;
+			length -= count;
+		}
+	}
+
+	public ByteBuffer view(long position, int length) {
+		int chunk = (int) (position >>> chunkBits);
+		int chunkOffset = (int) (position & offsetMask);
+		if (chunkOffset + length <= readOnlyChunks[chunk].capacity())
+			return readOnlyChunks[chunk].slice(chunkOffset, length);
+		// The bytes run into the next chunk, so they have to be copied into one buffer
+		byte[] space = new byte[length];
+		get(position, space, 0, length);
+		return ByteBuffer.wrap(space).asReadOnlyBuffer();
+	}
+
+	public void grow(long newSize) {
+		int numOfChunks = (int) ((newSize + chunkSize - 1) >>> chunkBits);
+		ByteBuffer[] grown = Arrays.copyOf(chunks, numOfChunks);
+		// Only the old last chunk can be short, so start there
+		for (int i = Math.max(chunks.length - 1, 0); i < numOfChunks; i++) {
+			int capacity = (int) Math.min(chunkSize, newSize - ((long) i << chunkBits));
+			if (grown[i] != null && grown[i].capacity() >= capacity)
+				continue;
+			ByteBuffer chunk = ByteBuffer.allocateDirect(capacity);
+			if (grown[i] != null)
+				chunk.put(0, grown[i], 0, grown[i].capacity());
+			grown[i] = chunk;
+		}
+		setChunks(grown);
+	}
+
+	//~ Protected methods .................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * @return the chunks
+	 */
+	protected ByteBuffer[] getChunks() {
+		return chunks;
+	}
+
+	/**
+	 * Replaces the chunks that make up the pool and works out the new size.
+	 * @param chunks the chunks to set
+	 */
+	protected void setChunks(ByteBuffer[] chunks) {
+		this.chunks = chunks;
+		readOnlyChunks = new ByteBuffer[chunks.length];
+		size = 0;
+		for (int i = 0; i < chunks.length; i++) {
+			readOnlyChunks[i] = chunks[i].asReadOnlyBuffer();
+			size += chunks[i].capacity();
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package memmanager;
+
+/**
+ * This interface is where the Client writes everything it prints: the records, the free list and
+ * the error messages. Text is given to it a piece at a time (a fixed message, a number, the bytes
+ * of a city name), so no String has to be built up just to be printed.
+ *
+ * Output only has to reach its destination once flush is called. The Client calls endCommand
+ * after every command, which is where a sink that buffers may choose to flush.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2011.12.13
+ */
+public interface OutputSink {
+
+	// ----------------------------------------------------------
+	/**
+	 * Writes text made of ASCII characters, such as a message that never changes.
+	 * @param text the text to write
+	 */
+	public void print(String text);
+
+	/**
+	 * Writes a number in decimal.
+	 * @param number the number to write
+	 */
+	public void print(long number);
+
+	/**
+	 * Writes bytes that are already text, such as a city name.
+	 * @param bytes holds the bytes
+	 * @param offset the index of the first byte to write
+	 * @param length the number of bytes to write
+	 */
+	public void write(byte[] bytes, int offset, int length);
+
+	/**
+	 * Ends the line.
+	 */
+	public void println();
+
+	/**
+	 * Marks the end of the output of one command.
+	 */
+	public void endCommand();
+
+	/**
+	 * Makes sure everything written so far has reached the destination.
+	 */
+	public void flush();
+}
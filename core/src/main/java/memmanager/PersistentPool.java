@@ -0,0 +1,292 @@
+package memmanager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * This class keeps a memory pool and its record array alive across runs. The records live in a
+ * MappedPoolBackend, and next to the pool file a second mapped file (the meta file) holds a
+ * header, the record array (see MappedRecordDirectory) and the handle table (see
+ * MappedHandleTable). Both are changed in place as the commands run, so opening a pool only maps
+ * the two files and checks the header.
+ * 
+ * The free block list and the slab pages are worked out from the records, so they are kept on
+ * the heap. On close they are written to a snapshot file and the header is marked clean; the
+ * next open reads the snapshot back if the header is clean and the snapshot belongs to it, and
+ * marks the header dirty again while the pool is in use. If the process died instead, the
+ * header is still dirty: the record array and handle table are checked against each other (a
+ * record number whose handle is not in use is cleared, a handle no record number holds is freed)
+ * and the free block list is rebuilt from the gaps between the records that are left. For that
+ * to work the compactor runs in crash safe mode (see PoolCompactor), so a record it was moving
+ * is still whole wherever its handle points.
+ * 
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2012.03.06
+ */
+public class PersistentPool {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* Added to the name of the pool file to get the name of the meta file */
+	public static final String META_SUFFIX = ".meta";
+
+	/* Added to the name of the pool file to get the name of the free list snapshot */
+	public static final String SNAPSHOT_SUFFIX = ".free";
+
+	/* The first int of every meta file and snapshot */
+	private static final int MAGIC = 0x4d4d5354;
+
+	/* The layout of the meta file; files with another version are not used */
+	private static final int VERSION = 2;
+
+	/* Where each int of the header is kept in the meta file */
+	private static final int MAGIC_OFFSET = 0;
+	private static final int VERSION_OFFSET = 4;
+	private static final int CLEAN_OFFSET = 8;
+	private static final int GENERATION_OFFSET = 12;
+	private static final int SLAB_PAGE_SIZE_OFFSET = 16;
+	private static final int NUM_OF_RECORDS_OFFSET = 20;
+	private static final int LIVE_RECORDS_OFFSET = 24;
+	private static final int HANDLES_OFFSET = 28;
+
+	/* The size of the header; the record array starts right after it */
+	private static final int HEADER_SIZE = 64;
+
+	/* The pool, mapped from its file */
+	private MappedPoolBackend memoryPool;
+
+	/* The header, record array and handle table, mapped from the meta file */
+	private MappedPoolBackend meta;
+
+	/* The file the records are kept in */
+	private File poolFile;
+
+	/* The file the header, record array and handle table are kept in */
+	private File metaFile;
+
+	/* The file the free block list and slab pages are written to on close */
+	private File snapshotFile;
+
+	/* The manager of the pool */
+	private MemManager manager;
+
+	/* The ids of the handles of the records, by record number */
+	private MappedRecordDirectory records;
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Opens the pool in fileName. If the pool already has a valid meta file, the
+	 * pool keeps its records, size, record array length and slab page size; otherwise a new,
+	 * empty pool is set up.
+	 * @param fileName the name of the file that holds the pool
+	 * @param poolSize the size of the pool if it has to be created
+	 * @param numOfRecords the size of the record array if it has to be created
+	 * @param slabPageSize the slab page size if the pool has to be created, 0 for no slab mode
+	 * @throws IOException if the pool, its meta file or its snapshot cannot be read
+	 */
+	public PersistentPool(String fileName, long poolSize, int numOfRecords, int slabPageSize) 
+			throws IOException {
+		poolFile = new File(fileName);
+		metaFile = new File(fileName + META_SUFFIX);
+		snapshotFile = new File(fileName + SNAPSHOT_SUFFIX);
+		boolean created = !poolFile.exists() || !isValid(metaFile);
+		if (created) {
+			// The pool and its meta file only make sense together, so start over with neither
+			poolFile.delete();
+			metaFile.delete();
+			snapshotFile.delete();
+		}
+		try {
+			memoryPool = new MappedPoolBackend(fileName, poolSize);
+			if (created) {
+				meta = new MappedPoolBackend(metaFile.getPath(), 
+						tableOffset(numOfRecords) + 8L * 16);
+				meta.putInt(VERSION_OFFSET, VERSION);
+				meta.putInt(SLAB_PAGE_SIZE_OFFSET, slabPageSize);
+				meta.putInt(NUM_OF_RECORDS_OFFSET, numOfRecords);
+				records = openRecords();
+				records.clear();
+				meta.putInt(MAGIC_OFFSET, MAGIC);
+				manager = newManager(new MappedHandleTable(meta, HANDLES_OFFSET, 
+						tableOffset(numOfRecords)));
+			}
+			else {
+				meta = new MappedPoolBackend(metaFile.getPath(), 0);
+				open();
+			}
+			// A crash while compacting must not leave a record half moved
+			manager.getCompactor().setCrashSafe(true);
+			// Until close says otherwise, the records may not match the snapshot
+			meta.putInt(CLEAN_OFFSET, 0);
+			meta.force();
+		} catch (IOException e) {
+			closeFiles(created);
+			throw e;
+		} catch (RuntimeException e) {
+			closeFiles(created);
+			throw e;
+		}
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Flushes the pool to disk, writes the snapshot and marks the meta file clean. The pool must
+	 * not be used afterwards.
+	 * @throws IOException if the pool, the snapshot or the meta file cannot be written
+	 */
+	public void close() throws IOException {
+		memoryPool.close();
+		int generation = meta.getInt(GENERATION_OFFSET) + 1;
+		File tempFile = new File(snapshotFile.getPath() + ".tmp");
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(tempFile)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(generation);
+			manager.writeState(out);
+		} finally {
+			out.close();
+		}
+		// Only a complete snapshot takes the place of the old one
+		if (!tempFile.renameTo(snapshotFile))
+			throw new IOException("Cannot write " + snapshotFile);
+		// The records and handles have to be on disk before the header says they are clean
+		meta.force();
+		meta.putInt(GENERATION_OFFSET, generation);
+		meta.putInt(CLEAN_OFFSET, 1);
+		meta.close();
+	}
+
+	/**
+	 * @return the manager
+	 */
+	public MemManager getManager() {
+		return manager;
+	}
+
+	/**
+	 * @return the record array, kept in the meta file
+	 */
+	public RecordDirectory getRecords() {
+		return records;
+	}
+
+	//~ Private methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Sets up the manager and record array from a meta file that passed isValid, reading the
+	 * snapshot if the last run closed the pool and recovering from the handles if it did not.
+	 * @throws IOException if the snapshot cannot be read
+	 */
+	private void open() throws IOException {
+		int numOfRecords = meta.getInt(NUM_OF_RECORDS_OFFSET);
+		records = openRecords();
+		MappedHandleTable handles = new MappedHandleTable(meta, HANDLES_OFFSET, 
+				tableOffset(numOfRecords));
+		if (meta.getInt(CLEAN_OFFSET) == 1 && snapshotFile.exists()) {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(
+					new FileInputStream(snapshotFile)));
+			try {
+				if (in.readInt() == MAGIC && in.readInt() == meta.getInt(GENERATION_OFFSET)) {
+					manager = MemManager.readState(memoryPool, handles, in);
+					return;
+				}
+			} finally {
+				in.close();
+			}
+		}
+		handles.recover(records.recover(handles));
+		manager = MemManager.recover(memoryPool, handles, meta.getInt(SLAB_PAGE_SIZE_OFFSET));
+	}
+
+	/**
+	 * @param handles the handle table of the new pool
+	 * @return a manager for a new, empty pool, in slab mode if the header asks for it
+	 */
+	private MemManager newManager(HandleTable handles) {
+		int slabPageSize = meta.getInt(SLAB_PAGE_SIZE_OFFSET);
+		MemManager newManager = slabPageSize > 0 ? new MemManager(memoryPool, slabPageSize)
+				: new MemManager(memoryPool);
+		newManager.setHandleTable(handles);
+		return newManager;
+	}
+
+	/**
+	 * @return the record array of the meta file
+	 */
+	private MappedRecordDirectory openRecords() {
+		return new MappedRecordDirectory(meta, LIVE_RECORDS_OFFSET, HEADER_SIZE, 
+				meta.getInt(NUM_OF_RECORDS_OFFSET));
+	}
+
+	/**
+	 * Closes whatever files the constructor opened, and deletes them if it was creating them, so
+	 * a pool that could not be set up (such as one with a bad slab page size) leaves nothing
+	 * behind.
+	 * @param created whether the constructor was creating a new pool
+	 */
+	private void closeFiles(boolean created) {
+		try {
+			if (memoryPool != null)
+				memoryPool.close();
+			if (meta != null)
+				meta.close();
+		} catch (IOException e) {
+			// We are already failing with the first exception
+		}
+		if (created) {
+			poolFile.delete();
+			metaFile.delete();
+		}
+	}
+
+	/**
+	 * @param numOfRecords the number of record numbers
+	 * @return where the handle table starts in a meta file with that many record numbers
+	 */
+	private static long tableOffset(int numOfRecords) {
+		return (HEADER_SIZE + 4L * numOfRecords + 7) & ~7L;
+	}
+
+	/**
+	 * Checks the header of a meta file without mapping it: the magic number and version have to
+	 * match, and the file has to be long enough for the record array and handle table it claims.
+	 * @param metaFile the meta file
+	 * @return true if the meta file can be used
+	 * @throws IOException if the meta file exists but cannot be read
+	 */
+	private static boolean isValid(File metaFile) throws IOException {
+		if (metaFile.length() < HEADER_SIZE)
+			return false;
+		DataInputStream in = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(metaFile)));
+		try {
+			int[] header = new int[HANDLES_OFFSET / 4 + 3];
+			for (int i = 0; i < header.length; i++) {
+				header[i] = in.readInt();
+			}
+			int numOfRecords = header[NUM_OF_RECORDS_OFFSET / 4];
+			int numOfHandles = header[HANDLES_OFFSET / 4];
+			int slabPageSize = header[SLAB_PAGE_SIZE_OFFSET / 4];
+			return header[MAGIC_OFFSET / 4] == MAGIC && header[VERSION_OFFSET / 4] == VERSION
+					&& numOfRecords >= 0 && numOfHandles >= 0
+					&& (slabPageSize == 0 || slabPageSize >= SlabAllocator.MIN_PAGE_SIZE)
+					&& metaFile.length() >= tableOffset(numOfRecords) + 8L * numOfHandles;
+		} finally {
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package memmanager;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This interface is the storage behind the memory pool. The MemManager only ever reads and
+ * writes bytes at positions through it, so the pool can live in a Java array or outside the heap.
+ * Positions are longs so a pool may be bigger than 2 GB.
+ * 
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2011.10.11
+ */
+public interface PoolBackend {
+
+	// ----------------------------------------------------------
+	/**
+	 * @return the number of bytes in the pool
+	 */
+	public long size();
+
+	/**
+	 * Gets one byte of the pool.
+	 * @param position the position of the byte
+	 * @return the byte at position
+	 */
+	public byte getByte(long position);
+
+	/**
+	 * Sets one byte of the pool.
+	 * @param position the position of the byte
+	 * @param value the byte to store
+	 */
+	public void putByte(long position, byte value);
+
+	/**
+	 * Gets the four bytes starting at position as a big-endian int.
+	 * @param position the position of the first byte
+	 * @return the int stored there
+	 */
+	public int getInt(long position);
+
+	/**
+	 * Stores an int as four big-endian bytes starting at position.
+	 * @param position the position of the first byte
+	 * @param value the int to store
+	 */
+	public void putInt(long position, int value);
+
+	/**
+	 * Copies length bytes starting at position into space, starting at offset.
+	 * @param position the position of the first byte to copy out of the pool
+	 * @param space the destination of the bytes
+	 * @param offset the first index of space to fill
+	 * @param length the number of bytes to copy
+	 */
+	public void get(long position, byte[] space, int offset, int length);
+
+	/**
+	 * Copies length bytes of space, starting at offset, into the pool starting at position.
+	 * @param position the position in the pool of the first byte to write
+	 * @param space the bytes to write
+	 * @param offset the first index of space to copy
+	 * @param length the number of bytes to copy
+	 */
+	public void put(long position, byte[] space, int offset, int length);
+
+	/**
+	 * Gives a read-only window onto length bytes of the pool starting at position, without
+	 * copying them where the backend can avoid it. Later writes to those bytes show through, so
+	 * the window is only good until the record in it is removed or moved.
+	 * @param position the position of the first byte
+	 * @param length the number of bytes in the window
+	 * @return a read-only buffer whose index 0 is position
+	 */
+	public ByteBuffer view(long position, int length);
+
+	/**
+	 * Makes the pool bigger, keeping every byte already in it at the same position.
+	 * @param newSize the new size of the pool, at least the current size
+	 */
+	public void grow(long newSize);
+}
@@ -0,0 +1,200 @@
+package memmanager;
+
+import java.util.Arrays;
+
+/**
+ * This class slides the records of a memory pool together so the free space ends up in one block
+ * at the end of the pool. Records are moved from the lowest position up, each one down to just
+ * past the one before it, and their entries in the HandleTable are pointed at the new positions.
+ *
+ * Slab pages cannot move, because the slots inside them are found by position, so records are
+ * packed up against each page and carry on past it. The free space in front of a page stays a
+ * separate free block.
+ *
+ * A compaction can be given a time budget. Once it runs out, the remaining records stay where
+ * they are, but the free block list is still rebuilt so it matches the pool. Running it again
+ * picks up where it stopped, since the records it already packed do not need to move.
+ *
+ * A pool in a mapped file (see PersistentPool) can be stopped by a crash in the middle of a
+ * move, and is then recovered from the handle table alone. So in crash safe mode a record is
+ * always copied in full before its handle is pointed at the copy, and never copied over itself:
+ * a record whose new place overlaps the old one goes to the free space at the end of the pool
+ * first, and from there down to its new place. If the end of the pool has no room for it, it
+ * stays where it is. Either way, at every moment each handle points at a whole record.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2011.10.25
+ */
+public class PoolCompactor {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The number of records moved between looks at the clock */
+	private static final int MOVES_PER_CLOCK_CHECK = 64;
+
+	/* The manager whose pool we compact */
+	private MemManager manager;
+
+	/* Holds a record while it is moved, since the old and new places may overlap */
+	private byte[] buffer;
+
+	/* Whether a crash part way through must leave every handle pointing at a whole record */
+	private boolean crashSafe;
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Creates a compactor for the pool of a manager.
+	 * @param manager the manager whose pool to compact
+	 */
+	public PoolCompactor(MemManager manager) {
+		this.manager = manager;
+		buffer = new byte[256];
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Compacts the pool, moving records until budgetNanos have passed, and rebuilds the free
+	 * block list to match.
+	 * @param budgetNanos how long we may spend moving records, Long.MAX_VALUE for no limit
+	 * @return true if every record was packed, false if we ran out of time. In crash safe mode a
+	 * record that had no room to move counts as packed, since running again would not move it.
+	 */
+	public boolean compact(long budgetNanos) {
+		long start = System.nanoTime();
+		PoolBackend memoryPool = manager.getMemoryPool();
+		HandleTable handles = manager.getHandleTable();
+		SlabAllocator slabAllocator = manager.getSlabAllocator();
+
+		// Sort the live positions and line the ids up with them
+		long[] positions = new long[handles.getNumOfLiveHandles()];
+		int count = 0;
+		for (int id = 0; id < handles.size(); id++) {
+			if (handles.getPosition(id) >= 0)
+				positions[count++] = handles.getPosition(id);
+		}
+		Arrays.sort(positions);
+		int[] ids = new int[count];
+		for (int id = 0; id < handles.size(); id++) {
+			if (handles.getPosition(id) >= 0)
+				ids[Arrays.binarySearch(positions, handles.getPosition(id))] = id;
+		}
+		long[] pages = new long[0];
+		int pageSize = 0;
+		if (slabAllocator != null) {
+			pages = slabAllocator.getPagePositions();
+			pageSize = slabAllocator.getPageSize();
+		}
+
+		// Everything from tailStart to the end of the pool is free, past every record and page
+		long tailStart = manager.getPoolStart();
+		if (count > 0)
+			tailStart = positions[count - 1] + (memoryPool.getByte(positions[count - 1]) & 255) + 1;
+		if (pages.length > 0)
+			tailStart = Math.max(tailStart, pages[pages.length - 1] + pageSize);
+
+		DoublyLinkedList freeBlockList = new DoublyLinkedList();
+		boolean outOfTime = false;
+		int moves = 0;
+		// Everything below cursor is packed
+		long cursor = manager.getPoolStart();
+		int nextPage = 0;
+		for (int i = 0; i < count; i++) {
+			long position = positions[i];
+			if (slabAllocator != null && slabAllocator.contains(position)) {
+				// Slots stay where they are along with their page
+				continue;
+			}
+			while (nextPage < pages.length && pages[nextPage] < position) {
+				cursor = skipPage(freeBlockList, cursor, pages[nextPage], pageSize);
+				nextPage++;
+			}
+			int blockSize = (memoryPool.getByte(position) & 255) + 1;
+			if (!outOfTime && position != cursor) {
+				if (crashSafe && position - cursor < blockSize 
+						&& manager.getPoolEnd() - tailStart >= blockSize) {
+					// Copying down in one go would write over the record before it is whole
+					move(handles, ids[i], position, tailStart, blockSize);
+					position = tailStart;
+				}
+				if (!crashSafe || position - cursor >= blockSize) {
+					move(handles, ids[i], position, cursor, blockSize);
+					position = cursor;
+				}
+				if (++moves % MOVES_PER_CLOCK_CHECK == 0)
+					outOfTime = System.nanoTime() - start > budgetNanos;
+			}
+			addGap(freeBlockList, cursor, position);
+			cursor = position + blockSize;
+		}
+		while (nextPage < pages.length) {
+			cursor = skipPage(freeBlockList, cursor, pages[nextPage], pageSize);
+			nextPage++;
+		}
+		addGap(freeBlockList, cursor, manager.getPoolEnd());
+		manager.setFreeBlockList(freeBlockList);
+		return !outOfTime;
+	}
+
+	/**
+	 * @return whether a crash part way through leaves every handle pointing at a whole record
+	 */
+	public boolean isCrashSafe() {
+		return crashSafe;
+	}
+
+	/**
+	 * @param crashSafe whether a crash part way through must leave every handle pointing at a
+	 * whole record, which costs a second copy for records that only move a little
+	 */
+	public void setCrashSafe(boolean crashSafe) {
+		this.crashSafe = crashSafe;
+	}
+
+	//~ Private methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Copies a block to a new place and then points its handle there.
+	 * @param handles the handle table of the pool
+	 * @param id the id of the handle of the record
+	 * @param from the position of the block
+	 * @param to the new position of the block
+	 * @param blockSize the size of the block, size byte included
+	 */
+	private void move(HandleTable handles, int id, long from, long to, int blockSize) {
+		PoolBackend memoryPool = manager.getMemoryPool();
+		memoryPool.get(from, buffer, 0, blockSize);
+		memoryPool.put(to, buffer, 0, blockSize);
+		handles.setPosition(id, to);
+	}
+
+	/**
+	 * Frees the space in front of a slab page and moves the cursor past the page.
+	 * @param freeBlockList the list being rebuilt
+	 * @param cursor the end of the packed records
+	 * @param page the position of the page
+	 * @param pageSize the size of every page
+	 * @return the position just past the page
+	 */
+	private long skipPage(DoublyLinkedList freeBlockList, long cursor, long page, int pageSize) {
+		addGap(freeBlockList, cursor, page);
+		return page + pageSize;
+	}
+
+	/**
+	 * Adds the space from start up to end as a free block, if there is any.
+	 * @param freeBlockList the list being rebuilt
+	 * @param start the first free position
+	 * @param end the position just past the free space
+	 */
+	private void addGap(DoublyLinkedList freeBlockList, long start, long end) {
+		if (end > start)
+			freeBlockList.add(start, end - start, false);
+	}
+}
@@ -0,0 +1,286 @@
+package memmanager;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * This class sums up how the memory pool is laid out, for pools far too big to look at with
+ * printFreeList. The pool is cut into buckets of equal size and, for each bucket, we count its
+ * free bytes and the free blocks that start in it, which plotted along the pool make a heat map
+ * of where it is broken up. Next to that the free blocks are counted by size, in classes that
+ * each go up to twice the one before (1, 2-3, 4-7, 8-15 and so on).
+ *
+ * It is all worked out in one walk through the free block list, in list order, so there is no
+ * sorting: a block adds its bytes to each bucket it covers, which takes O(number of free blocks +
+ * number of buckets) however the blocks lie. Everything that is not free counts as in use. That
+ * includes the bytes a policy hands out but a record does not fill, such as the rounding of
+ * BuddyPolicy or the empty slots of slab pages; the totals tell how many there are, since the
+ * manager counts the bytes its records take up.
+ *
+ * The layout can be written as two CSV files, one row per bucket and one per size class, or as a
+ * binary file holding both. The binary file is made with DataOutput, so it is big endian:
+ *
+ *   long pool start, long pool end, long bucket size, long bytes records take up
+ *   int number of buckets, then for each bucket: long free bytes, int free blocks starting in it
+ *   int number of size classes (64), then for each class: long free blocks, long free bytes
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2012.02.28
+ */
+public class PoolLayout {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The number of buckets the pool is cut into if not told otherwise */
+	public static final int DEFAULT_NUM_OF_BUCKETS = 1024;
+
+	/* The number of size classes, one for each power of 2 a long can hold */
+	public static final int NUM_OF_SIZE_CLASSES = 64;
+
+	/* The first position of the pool */
+	private long poolStart;
+
+	/* The position just past the end of the pool */
+	private long poolEnd;
+
+	/* The number of bytes in each bucket; the last one may be cut short by the end of the pool */
+	private long bucketSize;
+
+	/* The number of bytes the records take up, size bytes included */
+	private long bytesInUse;
+
+	/* The free bytes in each bucket */
+	private long[] freeBytes;
+
+	/* The number of free blocks that start in each bucket */
+	private int[] freeBlocks;
+
+	/* The number of free blocks in each size class */
+	private long[] blocksBySize;
+
+	/* The free bytes in each size class */
+	private long[] bytesBySize;
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Sums up the layout of a manager's pool as it is now.
+	 * @param manager the manager whose pool to look at
+	 * @param numOfBuckets the most buckets to cut the pool into; fewer are used if the pool has
+	 * fewer bytes than that
+	 * @throws IllegalArgumentException if numOfBuckets is less than 1
+	 */
+	public PoolLayout(MemManager manager, int numOfBuckets) {
+		if (numOfBuckets < 1)
+			throw new IllegalArgumentException("The pool needs at least 1 bucket, not " 
+					+ numOfBuckets);
+		poolStart = manager.getPoolStart();
+		poolEnd = manager.getPoolEnd();
+		bytesInUse = manager.getBytesInUse();
+		long poolSize = poolEnd - poolStart;
+		bucketSize = Math.max(1, (poolSize + numOfBuckets - 1) / numOfBuckets);
+		int buckets = (int) ((poolSize + bucketSize - 1) / bucketSize);
+		freeBytes = new long[buckets];
+		freeBlocks = new int[buckets];
+		blocksBySize = new long[NUM_OF_SIZE_CLASSES];
+		bytesBySize = new long[NUM_OF_SIZE_CLASSES];
+
+		DoublyLinkedList freeBlockList = manager.getFreeBlockList();
+		DoublyLinkedList.FreeBlock block = freeBlockList.getHead().getNext();
+		while (block != freeBlockList.getTail()) {
+			addBlock(block.getPosition(), block.getSize());
+			block = block.getNext();
+		}
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Writes the layout to prefix-occupancy.csv, prefix-sizes.csv and, in binary, prefix.layout.
+	 * @param prefix the file names without their endings
+	 * @throws IOException if a file cannot be written
+	 */
+	public void writeFiles(String prefix) throws IOException {
+		OutputStream file = new FileOutputStream(prefix + "-occupancy.csv");
+		try {
+			writeOccupancyCsv(new BufferedOutputSink(file));
+		} finally {
+			file.close();
+		}
+		file = new FileOutputStream(prefix + "-sizes.csv");
+		try {
+			writeSizesCsv(new BufferedOutputSink(file));
+		} finally {
+			file.close();
+		}
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(prefix + ".layout")));
+		try {
+			writeBinary(out);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Writes one row for each bucket: its first position, its size, its free bytes, the free
+	 * blocks that start in it and the share of it that is in use.
+	 * @param out where to write the rows
+	 */
+	public void writeOccupancyCsv(OutputSink out) {
+		out.print("start,size,free_bytes,free_blocks,occupancy");
+		out.println();
+		for (int bucket = 0; bucket < freeBytes.length; bucket++) {
+			long size = getBucketSize(bucket);
+			out.print(poolStart + bucket * bucketSize);
+			out.print(",");
+			out.print(size);
+			out.print(",");
+			out.print(freeBytes[bucket]);
+			out.print(",");
+			out.print(freeBlocks[bucket]);
+			out.print(",");
+			out.print(String.format("%.4f", 1 - (double) freeBytes[bucket] / size));
+			out.println();
+		}
+		out.flush();
+	}
+
+	/**
+	 * Writes one row for each size class from the smallest to the largest that has a free
+	 * block: the smallest and largest size in the class, its free blocks and their bytes.
+	 * @param out where to write the rows
+	 */
+	public void writeSizesCsv(OutputSink out) {
+		out.print("min_size,max_size,free_blocks,free_bytes");
+		out.println();
+		int last = NUM_OF_SIZE_CLASSES - 1;
+		while (last > 0 && blocksBySize[last] == 0)
+			last--;
+		for (int sizeClass = 0; sizeClass <= last; sizeClass++) {
+			out.print(1L << sizeClass);
+			out.print(",");
+			out.print(sizeClass == NUM_OF_SIZE_CLASSES - 1 ? Long.MAX_VALUE 
+					: (1L << (sizeClass + 1)) - 1);
+			out.print(",");
+			out.print(blocksBySize[sizeClass]);
+			out.print(",");
+			out.print(bytesBySize[sizeClass]);
+			out.println();
+		}
+		out.flush();
+	}
+
+	/**
+	 * Writes the whole layout in the binary form described above.
+	 * @param out where to write it
+	 * @throws IOException if out cannot be written
+	 */
+	public void writeBinary(DataOutput out) throws IOException {
+		out.writeLong(poolStart);
+		out.writeLong(poolEnd);
+		out.writeLong(bucketSize);
+		out.writeLong(bytesInUse);
+		out.writeInt(freeBytes.length);
+		for (int bucket = 0; bucket < freeBytes.length; bucket++) {
+			out.writeLong(freeBytes[bucket]);
+			out.writeInt(freeBlocks[bucket]);
+		}
+		out.writeInt(NUM_OF_SIZE_CLASSES);
+		for (int sizeClass = 0; sizeClass < NUM_OF_SIZE_CLASSES; sizeClass++) {
+			out.writeLong(blocksBySize[sizeClass]);
+			out.writeLong(bytesBySize[sizeClass]);
+		}
+	}
+
+	/**
+	 * @return the number of buckets the pool is cut into
+	 */
+	public int getNumOfBuckets() {
+		return freeBytes.length;
+	}
+
+	/**
+	 * @param bucket the index of a bucket
+	 * @return the number of bytes in it, which is bucketSize except maybe for the last one
+	 */
+	public long getBucketSize(int bucket) {
+		return Math.min(bucketSize, poolEnd - poolStart - bucket * bucketSize);
+	}
+
+	/**
+	 * @param bucket the index of a bucket
+	 * @return the free bytes in it
+	 */
+	public long getFreeBytes(int bucket) {
+		return freeBytes[bucket];
+	}
+
+	/**
+	 * @param bucket the index of a bucket
+	 * @return the number of free blocks that start in it
+	 */
+	public int getFreeBlocks(int bucket) {
+		return freeBlocks[bucket];
+	}
+
+	/**
+	 * @param sizeClass the size class, blocks of 2^sizeClass to 2^(sizeClass + 1) - 1 bytes
+	 * @return the number of free blocks in it
+	 */
+	public long getBlocksBySize(int sizeClass) {
+		return blocksBySize[sizeClass];
+	}
+
+	/**
+	 * @param sizeClass the size class, blocks of 2^sizeClass to 2^(sizeClass + 1) - 1 bytes
+	 * @return the free bytes in it
+	 */
+	public long getBytesBySize(int sizeClass) {
+		return bytesBySize[sizeClass];
+	}
+
+	/**
+	 * @return the number of bytes the records take up, size bytes included
+	 */
+	public long getBytesInUse() {
+		return bytesInUse;
+	}
+
+	//~ Private methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Counts a free block in its size class and spreads its bytes over the buckets it covers.
+	 * @param position the position of the block
+	 * @param size the size of the block
+	 */
+	private void addBlock(long position, long size) {
+		int sizeClass = 63 - Long.numberOfLeadingZeros(size);
+		blocksBySize[sizeClass]++;
+		bytesBySize[sizeClass] += size;
+
+		// Only the part inside our pool, in case the block reaches past it
+		long start = Math.max(position, poolStart) - poolStart;
+		long end = Math.min(position + size, poolEnd) - poolStart;
+		if (start >= end)
+			return;
+		if (position >= poolStart)
+			freeBlocks[(int) (start / bucketSize)]++;
+		int bucket = (int) (start / bucketSize);
+		while (start < end) {
+			long bucketEnd = Math.min((bucket + 1) * bucketSize, end);
+			freeBytes[bucket] += bucketEnd - start;
+			start = bucketEnd;
+			bucket++;
+		}
+	}
+}
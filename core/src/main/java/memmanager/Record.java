@@ -1,3 +1,5 @@
+package memmanager;
+
 import java.nio.ByteBuffer;
 /**
  * This class represents a record that we are storing. It has an x, y and a cityName
@@ -54,6 +56,15 @@ public class Record {
 		decode(message);
 	}
 
+	/**
+	 * Constructor. Creates a new record from an encoded message in a buffer, such as a view of
+	 * the memory pool. Sets all the fields of a Record.
+	 * @param ByteBuffer the encoded message, starting at index 0
+	 */
+	public Record(ByteBuffer message) {
+		decode(message);
+	}
+
 	//~ Public Methods ........................................................
 	
 	// ----------------------------------------------------------
@@ -70,9 +81,21 @@ public class Record {
 		// 4 for y, and however many bytes we need to store the string.
 		int sizeOfByteArray = 8 + lengthOfCityName;
 
-		// Combines the size, coordinates and the city name into one single byte array.
-		return mergeRecordIntoByteArray(ByteBuffer.allocate(4).putInt(x).array(), 
-				ByteBuffer.allocate(4).putInt(y).array(), city, sizeOfByteArray);
+		// Combines the coordinates and the city name into one single byte array.
+		byte[] merged = new byte[sizeOfByteArray];
+		ByteBuffer.wrap(merged).putInt(x).putInt(y).put(city);
+		return merged;
+	}
+
+	/**
+	 * Encodes this record straight into the memory pool, at a position allocated for a record of
+	 * getSizeOfMessage() bytes, instead of into a byte array.
+	 * @param memoryPool the pool to write to
+	 * @param position the position of the record, as held by its Handle
+	 */
+	public void encodeTo(PoolBackend memoryPool, long position) {
+		byte[] city = cityName.getBytes();
+		RecordCursor.encode(memoryPool, position, x, y, city, 0, city.length);
 	}
 	
 	/**
@@ -80,23 +103,23 @@ public class Record {
 	 * @param message the byte array to decode
 	 */
 	public void decode(byte[] message) {
+		decode(ByteBuffer.wrap(message));
+	}
+
+	/**
+	 * Decodes the bytes of a buffer, from index 0 up to its limit, into a Record's x, y and 
+	 * cityName. The buffer's position is not used or changed.
+	 * @param message the buffer to decode
+	 */
+	public void decode(ByteBuffer message) {
 	
-		// The first four bytes are for the x, use these bytes in a BytBuffer to set the x value
-		byte[] xArr = {message[0], message[1], message[2], message[3]};
-		setX(ByteBuffer.wrap(xArr).asIntBuffer().get());
-		
-		// Repeat the above method to find y.
-		byte[] yArr = {message[4], message[5], message[6], message[7]};
-		setY(ByteBuffer.wrap(yArr).asIntBuffer().get());
+		// The first four bytes are for the x, the next four for the y
+		setX(message.getInt(0));
+		setY(message.getInt(4));
 		
-		// The city will be message.length - 8 chars long (8 will be taken up by x, y)
-		byte[] city = new byte[message.length - 8];
-		int j = 8; 
-		// Loop to copy the message (starting at pos 8 into out array of characters
-		for (int i = 0; i < city.length; i++) {
-			city[i] = message[j]; 
-			j++;
-		}
+		// The city will be message.limit() - 8 chars long (8 will be taken up by x, y)
+		byte[] city = new byte[message.limit() - 8];
+		message.get(8, city);
 		// Set the cityName with the char[] array
 		cityName = new String(city);
 	}
@@ -170,40 +193,4 @@ public class Record {
 	public int getSizeOfMessage() {
 		return sizeOfMessage;
 	}
-	
-	//~ Private Methods ........................................................
-	
-	// ----------------------------------------------------------
-	
-	/**
-	 * Merges the x, y coordinates, and the cityName into one large byte array
-	 * @param x the x coordinate, taking up four bytes
-	 * @param y the y coordinate, taking up four bytes
-	 * @param cityName the name of the city
-	 * @param sizeOfByteArray specifies what the total size of the byte array should be
-	 * @return byte[] one large byte array containing all the information of a record
-	 */
-	private byte[] mergeRecordIntoByteArray(byte[] x, byte[] y, byte[] cityName, 
-			int sizeOfByteArray) {
-		
-		byte[] merged = new byte[sizeOfByteArray];
-		// The first byte will always be 4 (for x), 4 (for y) and the length of the cityName
-		
-		// Merges the x
-		for (int i = 0; i < 4; i++) {
-			merged[i] = x[i];
-		}
-		
-		// Merges the y
-		for (int j = 0; j < 4; j++) {
-			merged[j + 4] = y[j];
-		}
-		
-		// Merges the cityName
-		for (int k = 0; k < cityName.length; k++) {
-			merged[k + 8] = cityName[k];
-		}
-		
-		return merged;
-	}
-}
+}
\ No newline at end of file
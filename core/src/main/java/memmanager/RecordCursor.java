@@ -0,0 +1,113 @@
+package memmanager;
+
+/**
+ * This class reads the fields of a record right where it sits in the memory pool. Unlike a
+ * Record, it does not decode anything up front: moveTo just remembers where the record is, and
+ * each getter reads its bytes from the pool when it is called. One cursor can be moved from record
+ * to record, so going through millions of records creates no garbage.
+ *
+ * It also has the matching encode, which writes a record's fields straight into the space that
+ * was allocated for it, in the same layout Record.encode produces.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2011.11.15
+ */
+public class RecordCursor {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The number of bytes taken up by x and y in front of the city name */
+	public static final int COORDINATE_BYTES = 8;
+
+	/* The pool the record is in */
+	private PoolBackend memoryPool;
+
+	/* The position of the record's first byte, just past its size byte */
+	private long start;
+
+	/* The number of bytes in the record */
+	private int size;
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Points the cursor at the record whose size byte is at position.
+	 * @param memoryPool the pool the record is in
+	 * @param position the position of the record, as held by its Handle
+	 */
+	public void moveTo(PoolBackend memoryPool, long position) {
+		this.memoryPool = memoryPool;
+		this.start = position + 1;
+		this.size = memoryPool.getByte(position) & 255;
+	}
+
+	/**
+	 * @return the x of the record
+	 */
+	public int getX() {
+		return memoryPool.getInt(start);
+	}
+
+	/**
+	 * @return the y of the record
+	 */
+	public int getY() {
+		return memoryPool.getInt(start + 4);
+	}
+
+	/**
+	 * @return the number of bytes in the city name
+	 */
+	public int getCityLength() {
+		return size - COORDINATE_BYTES;
+	}
+
+	/**
+	 * Copies the bytes of the city name into space.
+	 * @param space the destination, with room for getCityLength() bytes from offset on
+	 * @param offset the first index of space to fill
+	 * @return the number of bytes copied
+	 */
+	public int getCity(byte[] space, int offset) {
+		int length = getCityLength();
+		memoryPool.get(start + COORDINATE_BYTES, space, offset, length);
+		return length;
+	}
+
+	/**
+	 * @return the size of the record, without its size byte
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Works out how many bytes a record takes, without its size byte.
+	 * @param cityLength the number of bytes in the city name
+	 * @return the size of the record
+	 */
+	public static int sizeOf(int cityLength) {
+		return COORDINATE_BYTES + cityLength;
+	}
+
+	/**
+	 * Writes a record into the pool at position, which must have been allocated for a record
+	 * of sizeOf(cityLength) bytes, so its size byte is already there.
+	 * @param memoryPool the pool to write to
+	 * @param position the position of the record, as held by its Handle
+	 * @param x the x of the record
+	 * @param y the y of the record
+	 * @param city holds the bytes of the city name
+	 * @param cityOffset the index of the first byte of the city name in city
+	 * @param cityLength the number of bytes in the city name
+	 */
+	public static void encode(PoolBackend memoryPool, long position, int x, int y, byte[] city,
+			int cityOffset, int cityLength) {
+		memoryPool.putInt(position + 1, x);
+		memoryPool.putInt(position + 5, y);
+		memoryPool.put(position + 1 + COORDINATE_BYTES, city, cityOffset, cityLength);
+	}
+}
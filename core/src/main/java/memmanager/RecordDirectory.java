@@ -0,0 +1,52 @@
+package memmanager;
+
+/**
+ * This interface is the record array of the Client: it maps a record number to the id of the
+ * handle of the record (MemManager.NO_HANDLE if there is none). Record numbers run from 0 up to
+ * getNumOfRecords() - 1.
+ *
+ * ArrayRecordDirectory keeps a slot for every record number, like the original record array.
+ * HashRecordDirectory only keeps the record numbers that are in use, for when there are far more
+ * record numbers than records.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2011.12.20
+ */
+public interface RecordDirectory {
+
+	// ----------------------------------------------------------
+	/**
+	 * @param recordNumber a record number in range
+	 * @return the id of the handle of the record, or MemManager.NO_HANDLE if there is none
+	 */
+	public int get(int recordNumber);
+
+	/**
+	 * Sets the record for a record number.
+	 * @param recordNumber a record number in range
+	 * @param id the id of the handle of the record, or MemManager.NO_HANDLE to clear it
+	 */
+	public void put(int recordNumber, int id);
+
+	/**
+	 * @return the number of record numbers, so every record number is below it
+	 */
+	public int getNumOfRecords();
+
+	/**
+	 * @return the number of record numbers that have a record
+	 */
+	public int size();
+
+	/**
+	 * @return true if the directory only keeps the record numbers in use, so a dump should only
+	 * list those
+	 */
+	public boolean isSparse();
+
+	/**
+	 * @return the record numbers that have a record, lowest first
+	 */
+	public int[] getLiveRecordNumbers();
+}
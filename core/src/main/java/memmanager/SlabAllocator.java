@@ -0,0 +1,340 @@
+package memmanager;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * This class hands out small blocks of the memory pool from fixed size slots. Each size class
+ * owns pages that are carved out of the free block list, and each page keeps a stack of its
+ * free slots, so taking and returning a slot does not touch the DoublyLinkedList at all.
+ * Blocks that do not fit any size class are left to the caller's best fit.
+ *
+ * Pages are never aligned in the pool (they come from best fit like any other block), but no two
+ * pages can start in the same pageSize wide frame of the pool. So a position can only belong to
+ * the page starting in its own frame or the one starting in the frame before, which lets us
+ * find the page of a freed slot with two array lookups.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2011.10.04
+ */
+public class SlabAllocator {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The slot sizes, including the size byte, that small blocks are rounded up to */
+	public static final int[] SIZE_CLASSES = {16, 24, 32, 40, 48, 64};
+
+	/* The page size we use when none is given */
+	public static final int DEFAULT_PAGE_SIZE = 4096;
+
+	/* The smallest page size, one that holds at least one slot of the biggest class */
+	public static final int MIN_PAGE_SIZE = SIZE_CLASSES[SIZE_CLASSES.length - 1];
+
+	/* The number of bytes carved out of the free list for each page */
+	private int pageSize;
+
+	/* For every block size up to the biggest class, the index of the class it goes in */
+	private int[] classOfSize;
+
+	/* For every size class, the first page that still has a free slot */
+	private SlabPage[] partialPages;
+
+	/* For every size class, an empty page we hold on to so churn does not keep carving pages */
+	private SlabPage[] sparePages;
+
+	/* The page that starts in each pageSize wide frame of the pool, if any */
+	private SlabPage[] pageStartingInFrame;
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Creates a slab allocator for a pool of the given size.
+	 * @param poolSize the size of the memory pool the pages are carved from
+	 * @param pageSize the number of bytes in each page
+	 * @throws IllegalArgumentException if pageSize is less than MIN_PAGE_SIZE
+	 */
+	public SlabAllocator(long poolSize, int pageSize) {
+		if (pageSize < MIN_PAGE_SIZE)
+			throw new IllegalArgumentException("The slab page size must be at least " 
+					+ MIN_PAGE_SIZE + " bytes, not " + pageSize);
+		this.pageSize = pageSize;
+		int largestClass = SIZE_CLASSES[SIZE_CLASSES.length - 1];
+		classOfSize = new int[largestClass + 1];
+		int sizeClass = 0;
+		for (int size = 0; size <= largestClass; size++) {
+			if (size > SIZE_CLASSES[sizeClass])
+				sizeClass++;
+			classOfSize[size] = sizeClass;
+		}
+		partialPages = new SlabPage[SIZE_CLASSES.length];
+		sparePages = new SlabPage[SIZE_CLASSES.length];
+		pageStartingInFrame = new SlabPage[(int) (poolSize / pageSize) + 1];
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Takes a slot for a block of blockSize bytes. If the size class has no free slot, a new page
+	 * is carved out of the free block list with best fit.
+	 * @param blockSize the size of the block, including its size byte
+	 * @param freeBlockList the list new pages are taken from
+	 * @return the position of the slot, or -1 if the block is too big for a slot or there is
+	 * no room for a new page
+	 */
+	public long allocate(int blockSize, DoublyLinkedList freeBlockList) {
+		if (blockSize >= classOfSize.length)
+			return -1;
+		int sizeClass = classOfSize[blockSize];
+		SlabPage page = partialPages[sizeClass];
+		if (page == null) {
+			page = newPage(sizeClass, freeBlockList);
+			if (page == null)
+				return -1;
+		}
+		int slot = page.freeSlots[--page.freeCount];
+		if (page.freeCount == 0) {
+			// The page is full, so it no longer belongs in the partial list
+			unlinkPartial(page);
+		}
+		return page.position + slot * page.slotSize;
+	}
+
+	/**
+	 * Returns the slot at position to its page. If that empties the page, the page is kept as
+	 * the spare for its size class or given back to the free block list.
+	 * @param position the position of the block being freed
+	 * @param freeBlockList the list empty pages are returned to
+	 * @return true if the position was a slot, false if it belongs to the caller's free list
+	 */
+	public boolean free(long position, DoublyLinkedList freeBlockList) {
+		SlabPage page = findPage(position);
+		if (page == null)
+			return false;
+		if (page.freeCount == 0) {
+			// The page was full, so it goes back in the partial list
+			linkPartial(page);
+		}
+		page.freeSlots[page.freeCount++] = (int) ((position - page.position) / page.slotSize);
+		if (page.freeCount == page.capacity) {
+			unlinkPartial(page);
+			if (sparePages[page.sizeClass] == null) {
+				sparePages[page.sizeClass] = page;
+			}
+			else {
+				pageStartingInFrame[(int) (page.position / pageSize)] = null;
+				freeBlockList.add(page.position, pageSize, true);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Writes out every page with its size class, its free slots and whether it is the spare, so
+	 * the allocator can be rebuilt by readState.
+	 * @param out where to write the pages
+	 * @throws IOException if out cannot be written
+	 */
+	public void writeState(DataOutput out) throws IOException {
+		int numOfPages = 0;
+		for (int frame = 0; frame < pageStartingInFrame.length; frame++) {
+			if (pageStartingInFrame[frame] != null)
+				numOfPages++;
+		}
+		out.writeInt(numOfPages);
+		for (int frame = 0; frame < pageStartingInFrame.length; frame++) {
+			SlabPage page = pageStartingInFrame[frame];
+			if (page == null)
+				continue;
+			out.writeLong(page.position);
+			out.writeInt(page.sizeClass);
+			out.writeBoolean(sparePages[page.sizeClass] == page);
+			out.writeInt(page.freeCount);
+			for (int i = 0; i < page.freeCount; i++) {
+				out.writeInt(page.freeSlots[i]);
+			}
+		}
+	}
+
+	/**
+	 * Fills in this allocator, which must be new, with the pages written out by writeState.
+	 * @param in where to read the pages from
+	 * @throws IOException if in cannot be read
+	 */
+	public void readState(DataInput in) throws IOException {
+		int numOfPages = in.readInt();
+		for (int i = 0; i < numOfPages; i++) {
+			SlabPage page = new SlabPage(in.readLong(), in.readInt());
+			boolean spare = in.readBoolean();
+			page.freeCount = in.readInt();
+			for (int slot = 0; slot < page.freeCount; slot++) {
+				page.freeSlots[slot] = in.readInt();
+			}
+			pageStartingInFrame[(int) (page.position / pageSize)] = page;
+			if (spare)
+				sparePages[page.sizeClass] = page;
+			else if (page.freeCount > 0)
+				linkPartial(page);
+		}
+	}
+
+	/**
+	 * @param position a position in the pool
+	 * @return true if position is inside one of the pages
+	 */
+	public boolean contains(long position) {
+		return findPage(position) != null;
+	}
+
+	/**
+	 * @return the positions of all the pages, lowest first
+	 */
+	public long[] getPagePositions() {
+		int numOfPages = 0;
+		for (int frame = 0; frame < pageStartingInFrame.length; frame++) {
+			if (pageStartingInFrame[frame] != null)
+				numOfPages++;
+		}
+		long[] pagePositions = new long[numOfPages];
+		int i = 0;
+		for (int frame = 0; frame < pageStartingInFrame.length; frame++) {
+			if (pageStartingInFrame[frame] != null)
+				pagePositions[i++] = pageStartingInFrame[frame].position;
+		}
+		return pagePositions;
+	}
+
+	/**
+	 * Makes room in the frame table for a pool that has grown.
+	 * @param poolSize the new size of the pool
+	 */
+	public void setPoolSize(long poolSize) {
+		int numOfFrames = (int) (poolSize / pageSize) + 1;
+		if (numOfFrames > pageStartingInFrame.length)
+			pageStartingInFrame = Arrays.copyOf(pageStartingInFrame, numOfFrames);
+	}
+
+	/**
+	 * @return the pageSize
+	 */
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	//~ Private methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets a page for the size class, either its spare or a new one from the free block list,
+	 * and puts it in the partial list.
+	 * @param sizeClass the size class that needs a page
+	 * @param freeBlockList the list the page is carved from
+	 * @return the page, or null if no free block is big enough for a page
+	 */
+	private SlabPage newPage(int sizeClass, DoublyLinkedList freeBlockList) {
+		SlabPage page = sparePages[sizeClass];
+		if (page != null) {
+			sparePages[sizeClass] = null;
+		}
+		else {
+			long position = freeBlockList.getBestFit(pageSize);
+			if (position == -1)
+				return null;
+			freeBlockList.remove(position, pageSize);
+			page = new SlabPage(position, sizeClass);
+			pageStartingInFrame[(int) (position / pageSize)] = page;
+		}
+		linkPartial(page);
+		return page;
+	}
+
+	/**
+	 * Finds the page that contains position by looking at the pages that start in its frame
+	 * and in the frame before it.
+	 * @param position the position to look up
+	 * @return the page holding position, or null if it is not in any page
+	 */
+	private SlabPage findPage(long position) {
+		int frame = (int) (position / pageSize);
+		SlabPage page = pageStartingInFrame[frame];
+		if (page != null && page.position <= position)
+			return page;
+		if (frame > 0) {
+			page = pageStartingInFrame[frame - 1];
+			if (page != null && position < page.position + pageSize)
+				return page;
+		}
+		return null;
+	}
+
+	/**
+	 * Puts a page at the front of the partial list of its size class.
+	 * @param page the page to link in
+	 */
+	private void linkPartial(SlabPage page) {
+		page.previous = null;
+		page.next = partialPages[page.sizeClass];
+		if (page.next != null)
+			page.next.previous = page;
+		partialPages[page.sizeClass] = page;
+	}
+
+	/**
+	 * Takes a page out of the partial list of its size class.
+	 * @param page the page to unlink
+	 */
+	private void unlinkPartial(SlabPage page) {
+		if (page.previous != null)
+			page.previous.next = page.next;
+		else
+			partialPages[page.sizeClass] = page.next;
+		if (page.next != null)
+			page.next.previous = page.previous;
+		page.next = null;
+		page.previous = null;
+	}
+
+	//~ Private classes.......................................................
+	// ----------------------------------------------------------
+
+	/**
+	 * This class is one page of slots of the same size, with a stack of the slots that are free.
+	 *
+	 * @author Karthik Kumar (kkumar91)
+	 * @author Germond Oatneal (goatn07)
+	 * @version 2011.10.04
+	 */
+	private class SlabPage {
+		private long position;
+		private int sizeClass;
+		private int slotSize;
+		private int capacity;
+		private int[] freeSlots;
+		private int freeCount;
+		private SlabPage next;
+		private SlabPage previous;
+
+		/**
+		 * Creates a page with all of its slots free. Slots are handed out from the lowest
+		 * position up.
+		 * @param position the position of the page in the memory pool
+		 * @param sizeClass the size class the page serves
+		 */
+		public SlabPage(long position, int sizeClass) {
+			this.position = position;
+			this.sizeClass = sizeClass;
+			slotSize = SIZE_CLASSES[sizeClass];
+			capacity = pageSize / slotSize;
+			freeSlots = new int[capacity];
+			for (int i = 0; i < capacity; i++) {
+				freeSlots[i] = capacity - 1 - i;
+			}
+			freeCount = capacity;
+		}
+	}
+}
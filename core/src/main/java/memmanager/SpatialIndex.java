@@ -0,0 +1,307 @@
+package memmanager;
+
+import java.util.Arrays;
+
+/**
+ * This class indexes the records by their x and y, so the records in a rectangle or a circle can
+ * be found without looking at every record. It is a PR quadtree over the whole range of int
+ * coordinates: every node covers a square, and a leaf holds up to BUCKET_SIZE points. A leaf
+ * that gets more is split into four quarters, and a node whose quarters hold BUCKET_SIZE points
+ * or fewer between them is made a leaf again.
+ *
+ * The index keeps the coordinates of every point next to its record number, so a search only has
+ * to look at the leaves that overlap the area and never reads a record that is not in it. The
+ * record numbers found are put in an array that is reused from search to search.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2012.01.10
+ */
+public class SpatialIndex {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The most points a leaf holds before it is split, unless they are all in the same place */
+	public static final int BUCKET_SIZE = 16;
+
+	/* The node covering every possible point */
+	private Node root;
+
+	/* The number of points in the index */
+	private int size;
+
+	/* The record numbers found by the last search */
+	private int[] results;
+
+	/* The number of record numbers found by the last search */
+	private int numOfResults;
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Creates an empty index.
+	 */
+	public SpatialIndex() {
+		root = new Node(Integer.MIN_VALUE, Integer.MIN_VALUE, 1L << 32);
+		results = new int[16];
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Adds the point of a record.
+	 * @param x the x of the record
+	 * @param y the y of the record
+	 * @param recordNumber the record number of the record
+	 */
+	public void insert(int x, int y, int recordNumber) {
+		Node node = root;
+		while (node.children != null)
+			node = node.childFor(x, y);
+		node.add(x, y, recordNumber);
+		size++;
+		while (node.count > BUCKET_SIZE && node.size > 1) {
+			node.split();
+			node = node.childFor(x, y);
+		}
+	}
+
+	/**
+	 * Takes out the point of a record.
+	 * @param x the x the record was added with
+	 * @param y the y the record was added with
+	 * @param recordNumber the record number of the record
+	 * @return true if the point was found
+	 */
+	public boolean remove(int x, int y, int recordNumber) {
+		if (!remove(root, x, y, recordNumber))
+			return false;
+		size--;
+		return true;
+	}
+
+	/**
+	 * Finds the records whose points are in a rectangle, edges included.
+	 * @param x the smallest x of the rectangle
+	 * @param y the smallest y of the rectangle
+	 * @param width how far the rectangle reaches past x
+	 * @param height how far the rectangle reaches past y
+	 * @return the number of records found, whose record numbers are in getResults(), lowest first
+	 */
+	public int regionSearch(int x, int y, int width, int height) {
+		numOfResults = 0;
+		search(root, x, y, (long) x + width, (long) y + height, x, y, -1);
+		Arrays.sort(results, 0, numOfResults);
+		return numOfResults;
+	}
+
+	/**
+	 * Finds the records whose points are no further than radius from a point.
+	 * @param x the x of the centre
+	 * @param y the y of the centre
+	 * @param radius the distance from the centre, which must not be negative
+	 * @return the number of records found, whose record numbers are in getResults(), lowest first
+	 */
+	public int radiusSearch(int x, int y, int radius) {
+		numOfResults = 0;
+		search(root, (long) x - radius, (long) y - radius, (long) x + radius, (long) y + radius,
+				x, y, (long) radius * radius);
+		Arrays.sort(results, 0, numOfResults);
+		return numOfResults;
+	}
+
+	/**
+	 * @return the array holding the record numbers found by the last search in its first entries
+	 */
+	public int[] getResults() {
+		return results;
+	}
+
+	/**
+	 * @return the number of points in the index
+	 */
+	public int size() {
+		return size;
+	}
+
+	//~ Private methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Takes a point out of the subtree of node, and makes node a leaf again if what is left of
+	 * it fits in one.
+	 * @return true if the point was found
+	 */
+	private boolean remove(Node node, int x, int y, int recordNumber) {
+		if (node.children == null)
+			return node.removePoint(x, y, recordNumber);
+		if (!remove(node.childFor(x, y), x, y, recordNumber))
+			return false;
+		node.merge();
+		return true;
+	}
+
+	/**
+	 * Adds the record numbers of the points in the subtree of node that are inside the box from
+	 * (minX, minY) to (maxX, maxY) and, if maxDistanceSquared is not negative, no further than
+	 * its square root from (centreX, centreY).
+	 */
+	private void search(Node node, long minX, long minY, long maxX, long maxY, int centreX,
+			int centreY, long maxDistanceSquared) {
+		if (node.minX > maxX || node.minX + node.size - 1 < minX || node.minY > maxY
+				|| node.minY + node.size - 1 < minY)
+			return;
+		if (node.children != null) {
+			for (int i = 0; i < 4; i++) {
+				search(node.children[i], minX, minY, maxX, maxY, centreX, centreY,
+						maxDistanceSquared);
+			}
+			return;
+		}
+		for (int i = 0; i < node.count; i++) {
+			int x = node.xs[i];
+			int y = node.ys[i];
+			if (x < minX || x > maxX || y < minY || y > maxY)
+				continue;
+			if (maxDistanceSquared >= 0) {
+				long dx = (long) x - centreX;
+				long dy = (long) y - centreY;
+				// Both are within the radius, so the sum is below 2^63
+				if (dx * dx + dy * dy > maxDistanceSquared)
+					continue;
+			}
+			if (numOfResults == results.length)
+				results = Arrays.copyOf(results, results.length * 2);
+			results[numOfResults++] = node.recordNumbers[i];
+		}
+	}
+
+	//~ Private classes.......................................................
+	// ----------------------------------------------------------
+
+	/**
+	 * This class is one square of the quadtree: a leaf with its points, or a node with four
+	 * children, one for each quarter, in the order low x low y, high x low y, low x high y,
+	 * high x high y.
+	 *
+	 * @author Karthik Kumar (kkumar91)
+	 * @author Germond Oatneal (goatn07)
+	 * @version 2012.01.10
+	 */
+	private static class Node {
+		private long minX;
+		private long minY;
+		private long size;
+		private Node[] children;
+		private int count;
+		private int[] xs;
+		private int[] ys;
+		private int[] recordNumbers;
+
+		/**
+		 * Creates an empty leaf.
+		 * @param minX the smallest x of the square
+		 * @param minY the smallest y of the square
+		 * @param size the width and height of the square, a power of 2
+		 */
+		public Node(long minX, long minY, long size) {
+			this.minX = minX;
+			this.minY = minY;
+			this.size = size;
+			xs = new int[BUCKET_SIZE];
+			ys = new int[BUCKET_SIZE];
+			recordNumbers = new int[BUCKET_SIZE];
+		}
+
+		/**
+		 * @return the child whose quarter holds the point
+		 */
+		public Node childFor(int x, int y) {
+			long half = size / 2;
+			int quarter = 0;
+			if (x >= minX + half)
+				quarter += 1;
+			if (y >= minY + half)
+				quarter += 2;
+			return children[quarter];
+		}
+
+		/**
+		 * Adds a point to this leaf, making room for it if the leaf is full.
+		 */
+		public void add(int x, int y, int recordNumber) {
+			if (count == xs.length) {
+				xs = Arrays.copyOf(xs, count * 2);
+				ys = Arrays.copyOf(ys, count * 2);
+				recordNumbers = Arrays.copyOf(recordNumbers, count * 2);
+			}
+			xs[count] = x;
+			ys[count] = y;
+			recordNumbers[count] = recordNumber;
+			count++;
+		}
+
+		/**
+		 * Takes a point out of this leaf by moving the last point into its place.
+		 * @return true if the point was in the leaf
+		 */
+		public boolean removePoint(int x, int y, int recordNumber) {
+			for (int i = 0; i < count; i++) {
+				if (recordNumbers[i] == recordNumber && xs[i] == x && ys[i] == y) {
+					count--;
+					xs[i] = xs[count];
+					ys[i] = ys[count];
+					recordNumbers[i] = recordNumbers[count];
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Turns this leaf into a node, sharing its points out between four new leaves.
+		 */
+		public void split() {
+			long half = size / 2;
+			children = new Node[4];
+			for (int i = 0; i < 4; i++) {
+				children[i] = new Node(minX + (i & 1) * half, minY + (i >> 1) * half, half);
+			}
+			for (int i = 0; i < count; i++) {
+				childFor(xs[i], ys[i]).add(xs[i], ys[i], recordNumbers[i]);
+			}
+			count = 0;
+			xs = null;
+			ys = null;
+			recordNumbers = null;
+		}
+
+		/**
+		 * Turns this node back into a leaf if its children are leaves holding BUCKET_SIZE points
+		 * or fewer between them.
+		 */
+		public void merge() {
+			int total = 0;
+			for (int i = 0; i < 4; i++) {
+				if (children[i].children != null)
+					return;
+				total += children[i].count;
+			}
+			if (total > BUCKET_SIZE)
+				return;
+			xs = new int[BUCKET_SIZE];
+			ys = new int[BUCKET_SIZE];
+			recordNumbers = new int[BUCKET_SIZE];
+			for (int i = 0; i < 4; i++) {
+				Node child = children[i];
+				for (int j = 0; j < child.count; j++) {
+					add(child.xs[j], child.ys[j], child.recordNumbers[j]);
+				}
+			}
+			children = null;
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package memmanager;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * This class is the Flight Recorder event for a free block cut in two, the front part being
+ * taken and the rest staying free: by DoublyLinkedList.remove, or by BuddyPolicy each time it
+ * halves a block.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2012.02.21
+ */
+@Name("memmanager.Split")
+@Label("Split")
+@Category({"Memory Manager", "Free Block List"})
+@Description("A free block was split and its front part taken")
+@Enabled(false)
+@StackTrace(false)
+class SplitEvent extends jdk.jfr.Event {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The size of the part taken */
+	@Label("Size")
+	@DataAmount(DataAmount.BYTES)
+	long size;
+
+	/* The position of the block that was split */
+	@Label("Position")
+	long position;
+
+	/* The size of the part left free */
+	@Label("Remainder")
+	@DataAmount(DataAmount.BYTES)
+	long remainder;
+
+	/* The number of free blocks afterwards */
+	@Label("Free Blocks")
+	int freeBlocks;
+}
@@ -0,0 +1,499 @@
+package memmanager;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * This class makes up a stream of insert, remove, print and dump commands, so the memory manager
+ * can be run under a load shaped like a real one without writing the commands by hand. It is a
+ * CommandSource, so WorkloadReplay can run the commands as they are made, and its main method
+ * writes them to a text or binary commands file for memman.
+ *
+ * What the stream looks like is set with these options (the same ones WorkloadReplay takes):
+ *
+ *   -mix=i:r:p:d         how often each command comes up, as weights for insert, remove, print
+ *                        and dump (50:25:25:0 if not given)
+ *   -ids=uniform|zipf[:s]
+ *                        how record numbers are picked: all equally often, or by a Zipf
+ *                        distribution with exponent s (0.99 if not given), record number 0
+ *                        being the most popular
+ *   -citylength=min:max[:deviation]
+ *                        the length of the city names: spread evenly from min to max, or if a
+ *                        deviation is given, normally around the middle of them and cut off at
+ *                        min and max (4:16 if not given)
+ *   -churn=rate          the share of inserts that replace a record that is there already, which
+ *                        frees it and makes a new one of a different size (0 if not given)
+ *   -seed=n              the seed of the random numbers, so the same stream can be made again
+ *
+ * To pick a record to replace, the generator keeps track of the records it has inserted and not
+ * removed. It cannot see the Client, so it takes every insert to have worked.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2012.02.07
+ */
+public class WorkloadGenerator implements CommandSource {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The longest city name that still fits in a record, whose size is kept in one byte */
+	public static final int MAX_CITY_LENGTH = 255 - RecordCursor.COORDINATE_BYTES;
+
+	/* The x and y of the records are picked from 0 up to this */
+	private static final int COORDINATE_RANGE = 1 << 14;
+
+	/* The number of record numbers */
+	private int numOfRecords;
+
+	/* The number of commands left to make, or -1 for no end */
+	private long numOfCommands;
+
+	/* The weight of insert, remove, print and dump, in the order of the Client constants */
+	private int[] weights = {50, 25, 25, 0};
+
+	/* The exponent of the Zipf distribution of the record numbers, 0 to pick them evenly */
+	private double zipfExponent;
+
+	/* The shortest city name */
+	private int minCityLength = 4;
+
+	/* The longest city name */
+	private int maxCityLength = 16;
+
+	/* The standard deviation of the city name lengths, 0 to spread them evenly */
+	private double cityLengthDeviation;
+
+	/* The share of inserts that replace a record that is there */
+	private double churnRate;
+
+	/* Where all the random numbers come from */
+	private Random random;
+
+	/* Picks record numbers by the Zipf distribution, made on the first command */
+	private ZipfSampler zipf;
+
+	/* The record numbers we take to have a record, in no order */
+	private int[] live;
+
+	/* The number of record numbers in live */
+	private int numOfLive;
+
+	/* Where each record number is in live, -1 if it is not there; only kept if churnRate > 0 */
+	private int[] indexInLive;
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Creates a generator with the default options.
+	 * @param numOfRecords the number of record numbers
+	 * @param numOfCommands the number of commands to make, -1 for no end
+	 */
+	public WorkloadGenerator(int numOfRecords, long numOfCommands) {
+		this.numOfRecords = numOfRecords;
+		this.numOfCommands = numOfCommands;
+		random = new Random();
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Writes a generated commands file. Run: java memmanager.WorkloadGenerator <number of
+	 * records> <number of commands> <commands file> [options] [-binary]
+	 * @param args the command line arguments
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 3) {
+			System.err.println("Usage: java memmanager.WorkloadGenerator <number of records> "
+					+ "<number of commands> <commands file> [options] [-binary]");
+			return;
+		}
+		WorkloadGenerator generator = new WorkloadGenerator(Integer.parseInt(args[0]),
+				Long.parseLong(args[1]));
+		boolean binary = false;
+		for (int i = 3; i < args.length; i++) {
+			if (args[i].equals("-binary"))
+				binary = true;
+			else if (!generator.parseOption(args[i]))
+				System.err.println("Ignoring unknown option " + args[i]);
+		}
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(args[2]), 1 << 16);
+		try {
+			long count = binary ? generator.writeBinary(out) : generator.writeText(out);
+			System.out.println("Wrote " + count + " commands");
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Makes the next command.
+	 * @param command the command to fill in
+	 * @return true if command was filled in, false if all the commands have been made
+	 */
+	public boolean next(Command command) {
+		if (numOfCommands == 0)
+			return false;
+		if (numOfCommands > 0)
+			numOfCommands--;
+		if (zipf == null && zipfExponent > 0)
+			zipf = new ZipfSampler(numOfRecords, zipfExponent);
+		if (indexInLive == null && churnRate > 0) {
+			indexInLive = new int[numOfRecords];
+			Arrays.fill(indexInLive, -1);
+			live = new int[16];
+		}
+		int kind = pickCommand();
+		command.setCommand(kind);
+		if (kind == Client.INSERT_COMMAND) {
+			int recordNumber;
+			if (numOfLive > 0 && random.nextDouble() < churnRate)
+				recordNumber = live[random.nextInt(numOfLive)];
+			else
+				recordNumber = pickRecordNumber();
+			command.setRecordPosition(recordNumber);
+			command.setX(random.nextInt(COORDINATE_RANGE));
+			command.setY(random.nextInt(COORDINATE_RANGE));
+			int cityLength = pickCityLength();
+			byte[] city = command.reserveCity(cityLength);
+			city[0] = (byte) ('A' + random.nextInt(26));
+			for (int i = 1; i < cityLength; i++) {
+				city[i] = (byte) ('a' + random.nextInt(26));
+			}
+			command.setCityLength(cityLength);
+			addLive(recordNumber);
+		}
+		else if (kind == Client.REMOVE_COMMAND) {
+			int recordNumber = pickRecordNumber();
+			command.setRecordPosition(recordNumber);
+			removeLive(recordNumber);
+		}
+		else if (kind == Client.PRINT_COMMAND) {
+			command.setRecordPosition(pickRecordNumber());
+		}
+		return true;
+	}
+
+	/**
+	 * Writes the commands that are left as a text commands file.
+	 * @param out where to write them
+	 * @return the number of commands written
+	 */
+	public long writeText(OutputStream out) {
+		OutputSink sink = new BufferedOutputSink(out);
+		Command command = new Command();
+		long count = 0;
+		while (next(command)) {
+			switch (command.getCommand()) {
+			case Client.INSERT_COMMAND:
+				sink.print("insert ");
+				sink.print(command.getRecordPosition());
+				sink.print(" ");
+				sink.print(command.getX());
+				sink.print(" ");
+				sink.print(command.getY());
+				sink.print(" ");
+				sink.write(command.getCity(), 0, command.getCityLength());
+				break;
+			case Client.REMOVE_COMMAND:
+				sink.print("remove ");
+				sink.print(command.getRecordPosition());
+				break;
+			case Client.PRINT_COMMAND:
+				sink.print("print ");
+				sink.print(command.getRecordPosition());
+				break;
+			case Client.DUMP_COMMAND:
+				sink.print("dump");
+				break;
+			}
+			sink.println();
+			sink.endCommand();
+			count++;
+		}
+		sink.flush();
+		return count;
+	}
+
+	/**
+	 * Writes the commands that are left as a binary commands file.
+	 * @param out where to write them
+	 * @return the number of commands written
+	 * @throws IOException if out cannot be written
+	 */
+	public long writeBinary(OutputStream out) throws IOException {
+		BinaryCommandWriter writer = new BinaryCommandWriter(out);
+		Command command = new Command();
+		long count = 0;
+		while (next(command)) {
+			writer.write(command);
+			count++;
+		}
+		writer.flush();
+		return count;
+	}
+
+	/**
+	 * Sets the field for one of the options in the class comment.
+	 * @param option the option as given on the command line
+	 * @return false if it is not one of our options
+	 */
+	public boolean parseOption(String option) {
+		String value = "";
+		int equals = option.indexOf('=');
+		if (equals != -1) {
+			value = option.substring(equals + 1);
+			option = option.substring(0, equals);
+		}
+		String[] parts = value.split(":");
+		if (option.equals("-mix")) {
+			int[] mix = new int[4];
+			for (int i = 0; i < parts.length && i < mix.length; i++) {
+				mix[i] = Integer.parseInt(parts[i]);
+			}
+			setWeights(mix);
+		}
+		else if (option.equals("-ids")) {
+			if (parts[0].equals("zipf"))
+				setZipfExponent(parts.length > 1 ? Double.parseDouble(parts[1]) : 0.99);
+			else
+				setZipfExponent(0);
+		}
+		else if (option.equals("-citylength")) {
+			setCityLengths(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]),
+					parts.length > 2 ? Double.parseDouble(parts[2]) : 0);
+		}
+		else if (option.equals("-churn")) {
+			setChurnRate(Double.parseDouble(value));
+		}
+		else if (option.equals("-seed")) {
+			random.setSeed(Long.parseLong(value));
+		}
+		else {
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @param weights the weights of insert, remove, print and dump, which may not all be 0
+	 */
+	public void setWeights(int[] weights) {
+		int total = 0;
+		for (int i = 0; i < weights.length; i++) {
+			if (weights[i] < 0)
+				throw new IllegalArgumentException("A weight cannot be negative");
+			total += weights[i];
+		}
+		if (weights.length != 4 || total == 0)
+			throw new IllegalArgumentException("Give four weights that are not all 0");
+		this.weights = weights.clone();
+	}
+
+	/**
+	 * @param zipfExponent the exponent of the Zipf distribution of the record numbers, 0 to
+	 * pick them evenly
+	 */
+	public void setZipfExponent(double zipfExponent) {
+		if (zipfExponent < 0)
+			throw new IllegalArgumentException("The Zipf exponent cannot be negative");
+		this.zipfExponent = zipfExponent;
+		zipf = null;
+	}
+
+	/**
+	 * @param minCityLength the shortest city name, at least 1
+	 * @param maxCityLength the longest city name, up to MAX_CITY_LENGTH
+	 * @param deviation the standard deviation of the lengths around the middle of the two, 0 to
+	 * spread them evenly
+	 */
+	public void setCityLengths(int minCityLength, int maxCityLength, double deviation) {
+		if (minCityLength < 1 || maxCityLength < minCityLength || maxCityLength > MAX_CITY_LENGTH)
+			throw new IllegalArgumentException("City names must be 1 to " + MAX_CITY_LENGTH
+					+ " bytes long");
+		this.minCityLength = minCityLength;
+		this.maxCityLength = maxCityLength;
+		this.cityLengthDeviation = deviation;
+	}
+
+	/**
+	 * @param churnRate the share of inserts that replace a record that is there, from 0 to 1
+	 */
+	public void setChurnRate(double churnRate) {
+		if (churnRate < 0 || churnRate > 1)
+			throw new IllegalArgumentException("The churn rate must be from 0 to 1");
+		this.churnRate = churnRate;
+	}
+
+	/**
+	 * @param seed the seed of the random numbers
+	 */
+	public void setSeed(long seed) {
+		random.setSeed(seed);
+	}
+
+	//~ Private methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * @return one of the Client constants for insert, remove, print and dump, picked by weight
+	 */
+	private int pickCommand() {
+		int total = weights[0] + weights[1] + weights[2] + weights[3];
+		int pick = random.nextInt(total);
+		int kind = 0;
+		while (pick >= weights[kind]) {
+			pick -= weights[kind];
+			kind++;
+		}
+		return kind;
+	}
+
+	/**
+	 * @return a record number, picked evenly or by the Zipf distribution
+	 */
+	private int pickRecordNumber() {
+		if (zipf == null)
+			return random.nextInt(numOfRecords);
+		return (int) zipf.sample(random) - 1;
+	}
+
+	/**
+	 * @return the length of a city name
+	 */
+	private int pickCityLength() {
+		if (cityLengthDeviation == 0)
+			return minCityLength + random.nextInt(maxCityLength - minCityLength + 1);
+		double middle = (minCityLength + maxCityLength) / 2.0;
+		long length = Math.round(middle + random.nextGaussian() * cityLengthDeviation);
+		return (int) Math.max(minCityLength, Math.min(maxCityLength, length));
+	}
+
+	/**
+	 * Notes that a record number has a record, if we keep track of them.
+	 * @param recordNumber the record number
+	 */
+	private void addLive(int recordNumber) {
+		if (indexInLive == null || indexInLive[recordNumber] != -1)
+			return;
+		if (numOfLive == live.length)
+			live = Arrays.copyOf(live, live.length * 2);
+		indexInLive[recordNumber] = numOfLive;
+		live[numOfLive++] = recordNumber;
+	}
+
+	/**
+	 * Notes that a record number has no record, if we keep track of them.
+	 * @param recordNumber the record number
+	 */
+	private void removeLive(int recordNumber) {
+		if (indexInLive == null || indexInLive[recordNumber] == -1)
+			return;
+		// Move the last one into the gap
+		int index = indexInLive[recordNumber];
+		int last = live[--numOfLive];
+		live[index] = last;
+		indexInLive[last] = index;
+		indexInLive[recordNumber] = -1;
+	}
+
+	//~ Private classes.......................................................
+	// ----------------------------------------------------------
+
+	/**
+	 * This class picks numbers from 1 to n by a Zipf distribution, where k comes up in proportion
+	 * to 1 / k^s. It uses rejection-inversion sampling (Hormann and Derflinger), which takes a
+	 * few steps per number whatever n is and needs no table, so n may be in the billions.
+	 *
+	 * @author Karthik Kumar (kkumar91)
+	 * @author Germond Oatneal (goatn07)
+	 * @version 2012.02.07
+	 */
+	private static class ZipfSampler {
+		private long n;
+		private double exponent;
+		private double hIntegralX1;
+		private double hIntegralN;
+		private double s;
+
+		/**
+		 * Creates a sampler.
+		 * @param n the biggest number
+		 * @param exponent the exponent, more than 0
+		 */
+		public ZipfSampler(long n, double exponent) {
+			this.n = n;
+			this.exponent = exponent;
+			hIntegralX1 = hIntegral(1.5) - 1;
+			hIntegralN = hIntegral(n + 0.5);
+			s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+		}
+
+		/**
+		 * @return a number from 1 to n
+		 */
+		public long sample(Random random) {
+			while (true) {
+				double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+				double x = hIntegralInverse(u);
+				long k = (long) (x + 0.5);
+				if (k < 1)
+					k = 1;
+				else if (k > n)
+					k = n;
+				if (k - x <= s || u >= hIntegral(k + 0.5) - h(k))
+					return k;
+			}
+		}
+
+		/**
+		 * @return the integral of h from 1 to x, give or take a constant
+		 */
+		private double hIntegral(double x) {
+			double logX = Math.log(x);
+			return helper2((1 - exponent) * logX) * logX;
+		}
+
+		/**
+		 * @return 1 / x^exponent
+		 */
+		private double h(double x) {
+			return Math.exp(-exponent * Math.log(x));
+		}
+
+		/**
+		 * @return the x whose hIntegral is y
+		 */
+		private double hIntegralInverse(double y) {
+			double t = y * (1 - exponent);
+			if (t < -1)
+				t = -1;
+			return Math.exp(helper1(t) * y);
+		}
+
+		/**
+		 * @return log(1 + x) / x, kept accurate near 0
+		 */
+		private static double helper1(double x) {
+			if (Math.abs(x) > 1e-8)
+				return Math.log1p(x) / x;
+			return 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+		}
+
+		/**
+		 * @return (e^x - 1) / x, kept accurate near 0
+		 */
+		private static double helper2(double x) {
+			if (Math.abs(x) > 1e-8)
+				return Math.expm1(x) / x;
+			return 1 + x * 0.5 * (1 + x / 3 * (1 + 0.25 * x));
+		}
+	}
+}
@@ -0,0 +1,195 @@
+package memmanager;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * This class runs a stream of commands through a Client with its output thrown away (see
+ * CountingOutputSink) and reports how fast they ran: the commands per second, the 50th, 99th and
+ * 99.9th percentile time of each kind of command, and how broken up the free space was at the
+ * end. The commands come from a commands file, or straight from a WorkloadGenerator.
+ *
+ * Run: java memmanager.WorkloadReplay <pool size> <number of records> <commands file> [options]
+ *
+ * If the commands file is given as -generate, the commands are made as they run. The options are
+ * those of memman (except -poolfile and -parsethreads), those of WorkloadGenerator and -ops=n for
+ * the number of commands to make (1000000 if not given). With -layout the layout of the pool at
+ * the end is written out as well (see PoolLayout).
+ *
+ * Only the time spent in Client.execute is timed, so reading or making the commands does not
+ * count towards the percentiles or the commands per second; the time from start to end is
+ * reported next to them.
+ *
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2012.02.07
+ */
+public class WorkloadReplay {
+
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The name of each command, by its Client constant */
+	private static final String[] COMMAND_NAMES = {"insert", "remove", "print", "dump",
+			"regionsearch", "radiussearch", "search"};
+
+	/* The client the commands run through */
+	private Client client;
+
+	/* Counts the output of the commands instead of printing it */
+	private CountingOutputSink out;
+
+	/* How long each kind of command took, by its Client constant */
+	private LatencyHistogram[] latencies;
+
+	/* The time from the first command starting to the last one ending */
+	private long elapsedNanos;
+
+	//~ Constructors .....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Constructor. Creates a replay against a manager and a record array.
+	 * @param manager the manager to run the commands against
+	 * @param records the record array
+	 */
+	public WorkloadReplay(MemManager manager, RecordDirectory records) {
+		out = new CountingOutputSink();
+		client = new Client(manager, records, out);
+		latencies = new LatencyHistogram[COMMAND_NAMES.length];
+		for (int i = 0; i < latencies.length; i++) {
+			latencies[i] = new LatencyHistogram();
+		}
+	}
+
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Replays a commands file or a generated stream and prints the report.
+	 * @param args the command line arguments
+	 * @throws IOException if the commands file cannot be read
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 3) {
+			System.err.println("Usage: java memmanager.WorkloadReplay <pool size> "
+					+ "<number of records> <commands file | -generate> [options]");
+			return;
+		}
+		memman.poolSize = Long.parseLong(args[0]);
+		memman.numOfRecords = Integer.parseInt(args[1]);
+		long numOfCommands = 1000000;
+		WorkloadGenerator generator = new WorkloadGenerator(memman.numOfRecords, -1);
+		for (int i = 3; i < args.length; i++) {
+			if (args[i].startsWith("-ops="))
+				numOfCommands = Long.parseLong(args[i].substring("-ops=".length()));
+			else if (!memman.parseOption(args[i]) && !generator.parseOption(args[i]))
+				System.err.println("Ignoring unknown option " + args[i]);
+		}
+		if (memman.poolFileName != null) {
+			System.err.println("Ignoring -poolfile, since a replay always starts with an empty pool");
+			memman.poolFileName = null;
+		}
+
+		WorkloadReplay replay = new WorkloadReplay(memman.createManager(), memman.createRecords());
+		if (args[2].equals("-generate")) {
+			replay.run(generator, numOfCommands);
+		}
+		else {
+			InputStream in = new BufferedInputStream(new FileInputStream(args[2]), 1 << 16);
+			try {
+				replay.run(Client.createSource(in), Long.MAX_VALUE);
+			} finally {
+				in.close();
+			}
+		}
+		replay.printReport();
+		memman.writeLayout(replay.getClient().getManager());
+	}
+
+	/**
+	 * Runs commands through the client, timing each one.
+	 * @param source where the commands come from
+	 * @param maxCommands the most commands to run
+	 * @throws IOException if the source cannot be read
+	 */
+	public void run(CommandSource source, long maxCommands) throws IOException {
+		Command command = new Command();
+		long start = System.nanoTime();
+		for (long i = 0; i < maxCommands && source.next(command); i++) {
+			long before = System.nanoTime();
+			client.execute(command);
+			latencies[command.getCommand()].record(System.nanoTime() - before);
+		}
+		elapsedNanos += System.nanoTime() - start;
+	}
+
+	/**
+	 * Prints the commands per second, the percentiles of each kind of command and the state of
+	 * the free space.
+	 */
+	public void printReport() {
+		long count = 0;
+		long executeNanos = 0;
+		for (int i = 0; i < latencies.length; i++) {
+			count += latencies[i].getCount();
+			executeNanos += latencies[i].getTotal();
+		}
+		System.out.println("Commands: " + count + " in " + elapsedNanos / 1000000 + " ms, "
+				+ perSecond(count, executeNanos) + " commands/sec in Client.execute ("
+				+ perSecond(count, elapsedNanos) + " from start to end)");
+		System.out.println(String.format("%-13s %10s %10s %10s %10s %10s %12s", "Command",
+				"Count", "Mean (ns)", "p50 (ns)", "p99 (ns)", "p999 (ns)", "Max (ns)"));
+		for (int i = 0; i < latencies.length; i++) {
+			LatencyHistogram latency = latencies[i];
+			if (latency.getCount() == 0)
+				continue;
+			System.out.println(String.format("%-13s %10d %10d %10d %10d %10d %12d",
+					COMMAND_NAMES[i], latency.getCount(), latency.getMean(),
+					latency.getPercentile(0.5), latency.getPercentile(0.99),
+					latency.getPercentile(0.999), latency.getMax()));
+		}
+		MemManager manager = client.getManager();
+		DoublyLinkedList freeBlockList = manager.getFreeBlockList();
+		long poolSize = manager.getPoolEnd() - manager.getPoolStart();
+		System.out.println("Pool: " + poolSize + " bytes, " + freeBlockList.getFreeBytes()
+				+ " free in " + freeBlockList.getNumOfBlocks() + " blocks, the largest "
+				+ freeBlockList.getLargestBlockSize() + " bytes");
+		System.out.println(String.format("Fragmentation: %.4f (1 - largest free block / free bytes)",
+				freeBlockList.getFragmentation()));
+		System.out.println("Allocations: " + manager.getNumOfAllocations() + ", frees: "
+				+ manager.getNumOfFrees() + ", insert failures: " + manager.getInsertFailures()
+				+ ", merges forward/backward/both ways: " + freeBlockList.getForwardMerges() + "/"
+				+ freeBlockList.getBackwardMerges() + "/" + freeBlockList.getBothWaysMerges());
+		System.out.println("Output: " + out.getNumOfLines() + " lines, " + out.getNumOfBytes()
+				+ " bytes (not printed)");
+	}
+
+	/**
+	 * @return the latencies of each kind of command, by its Client constant
+	 */
+	public LatencyHistogram[] getLatencies() {
+		return latencies;
+	}
+
+	/**
+	 * @return the client the commands run through
+	 */
+	public Client getClient() {
+		return client;
+	}
+
+	//~ Private methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * @return count per second over nanos, 0 if nanos is 0
+	 */
+	private static long perSecond(long count, long nanos) {
+		if (nanos == 0)
+			return 0;
+		return (long) (count * 1e9 / nanos);
+	}
+}
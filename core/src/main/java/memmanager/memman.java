@@ -0,0 +1,423 @@
+package memmanager;
+
+import java.io.IOException;
+
+import javax.management.JMException;
+
+/**
+ * This is the main class of the project, which processes the parameters sent to it. It is a memory 
+ * manager that stores a city record. It responds to commands from a given file and performs the
+ * appropriate actions. It uses three main data structures: a byte array for the memory pool, a
+ * DoublyLinkedList for the free blocks and a record array that holds the handles to each record.
+ * 
+ * This project takes in three command-line arguments -the pool size (int), number of records (int), 
+ * and the file name containing the commands (String). The commands file may be a text file or
+ * a binary one made by CommandConverter. They may be followed by options:
+ * 
+ *   -slab[=pageSize]   store small records in size class slots (see SlabAllocator)
+ *   -offheap           keep the pool in direct buffers outside the heap; the pool size may
+ *                      then be more than 2 GB
+ *   -poolfile=file     keep the pool in a memory mapped file and the record array and handle
+ *                      table in a second one next to it, so the next run (even after a crash)
+ *                      starts with the records of this one
+ *   -grow=double|bytes grow the pool when a record does not fit, by doubling it or by the
+ *                      given number of bytes
+ *   -maxpool=bytes     the size the pool may grow to (by default as big as the backend allows)
+ *   -parsethreads=n    read the commands file in segments and parse them on n threads (1 to
+ *                      256) while the commands run (see CommandPipeline)
+ *   -sparse            keep only the record numbers in use (see HashRecordDirectory), so the
+ *                      number of records may be huge; a dump then lists only the records there are
+ *   -policy=best|first|next|worst|buddy
+ *                      how a free block is picked for each record (see FitPolicy and BuddyPolicy);
+ *                      best fit if not given. The buddy system cannot be used with -slab or
+ *                      -poolfile; with either of them it is ignored and best fit is used.
+ *   -jmx[=name]        show the counters of the manager over JMX while the commands run (see
+ *                      MemManagerStats), under memmanager:type=MemManager,name=name
+ *   -layout=prefix[:buckets]
+ *                      once the commands have run, write how the pool is laid out (see
+ *                      PoolLayout) to prefix-occupancy.csv, prefix-sizes.csv and prefix.layout,
+ *                      with the pool cut into 1024 buckets if not told otherwise
+ * 
+ * Compiler Used: Java 1.6
+ * Operating System Used: Windows 7 64-bit
+ * Date Completed: 9/8/2011
+ * 
+ * @author Karthik Kumar (kkumar91)
+ * @author Germond Oatneal (goatn07)
+ * @version 2011.08.28
+ * 
+ */
+public class memman {
+	 // On my honor:
+	 //
+	 // - I have not used source code obtained from another student,
+	 // or any other unauthorized source, either modified or
+	 // unmodified.
+	 //
+	 // - All source code and documentation used in my program is
+	 // either my original work, or was derived by me from the
+	 // source code published in the textbook for this course.
+	 //
+	 // - I have not discussed coding details about this project with
+	 // anyone other than my partner (in the case of a joint
+	 // submission), instructor, ACM/UPE tutors or the TAs assigned
+	 // to this course. I understand that I may discuss the concepts
+	 // of this program with other students, and that another student
+	 // may help me debug my program so long as neither of us writes
+	 // anything during the discussion or modifies any computer file
+	 // during the discussion. I have violated neither the spirit nor
+	 // letter of this restriction.
+	
+	//~ Instance/static variables .........................................
+
+	// ----------------------------------------------------------
+	/* The size of our memory pool, or the number of bytes we have available */ 
+	public static long poolSize;
+	
+	/* The total number of records we will have*/
+	public static int numOfRecords;
+	
+	/* The name of the file which contains the commands we need to parse*/
+	public static String commandFileName;
+	
+	/* The page size for slab mode, or 0 if slab mode is off */
+	public static int slabPageSize;
+	
+	/* Whether the pool is kept off the heap */
+	public static boolean offHeap;
+	
+	/* The name of the file the pool is mapped from, or null for a pool that is not kept */
+	public static String poolFileName;
+	
+	/* The number of bytes the pool grows by, 0 to double it, -1 if it never grows */
+	public static long growIncrement = -1;
+	
+	/* The size the pool may grow to, 0 for as big as the backend allows */
+	public static long maxPoolSize;
+	
+	/* The number of threads that parse the commands file, 0 to parse it as the commands run */
+	public static int parseThreads;
+	
+	/* Whether the record array only keeps the record numbers in use */
+	public static boolean sparse;
+	
+	/* The name of the allocation policy: best, first, next, worst or buddy */
+	public static String policyName = "best";
+	
+	/* The name the manager's counters are shown under over JMX, or null to not show them */
+	public static String jmxName;
+	
+	/* The file names the pool layout is written to, without their endings, or null for none */
+	public static String layoutPrefix;
+	
+	/* The number of buckets the pool layout cuts the pool into */
+	public static int layoutBuckets = PoolLayout.DEFAULT_NUM_OF_BUCKETS;
+	
+	//~ Public methods ....................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Main method of this project, simply gets the arguments from the command line, and
+	 * creates an instance of MemManager, which handles almost all of the functionality
+	 * @param args the command line arguments given to us - poolSize, numOfRecords, commandFileName
+	 */
+	public static void main (String [] args) {
+		
+		// Get the argument from the command line
+		poolSize = Long.parseLong(args[0]);
+		numOfRecords = Integer.parseInt(args[1]);
+		commandFileName = args[2];
+		for (int i = 3; i < args.length; i++) {
+			if (!parseOption(args[i]))
+				System.err.println("Ignoring unknown option " + args[i]);
+		}
+		
+		if (poolFileName != null) {
+			runPersistent();
+			return;
+		}
+		
+		MemManager manager;
+		try {
+			manager = createManager();
+		} catch (IllegalArgumentException e) {
+			// Such as a pool over 2 GB on the heap or a slab page too small for a slot
+			System.err.println(e.getMessage());
+			return;
+		}
+		showStats(manager);
+		@SuppressWarnings("unused")
+		Client client = new Client(manager, createRecords(), commandFileName, parseThreads);
+		writeLayout(manager);
+	}
+
+	//~ Package methods ...................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Creates the manager asked for by poolSize and the options, with a pool that is not kept
+	 * in a file. WorkloadReplay uses it too.
+	 * @return the manager
+	 */
+	static MemManager createManager() {
+		PoolBackend memoryPool;
+		if (offHeap)
+			memoryPool = new OffHeapPoolBackend(poolSize);
+		else if (poolSize > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Pools over 2 GB need the -offheap option");
+		else
+			memoryPool = new HeapPoolBackend((int) poolSize);
+		
+		AllocationPolicy policy = allocationPolicy();
+		if (slabPageSize > 0 && !policy.allowsRearranging()) {
+			System.err.println("Ignoring -policy=" + policyName 
+					+ ", since it cannot share its blocks with slab pages");
+			policy = new FitPolicy(FitPolicy.BEST_FIT);
+		}
+		MemManager manager;
+		if (slabPageSize > 0) {
+			manager = new MemManager (memoryPool, slabPageSize);
+			manager.setAllocationPolicy(policy);
+		}
+		else
+			manager = new MemManager (memoryPool, policy);
+		manager.setGrowthPolicy(growthPolicy());
+		return manager;
+	}
+
+	/**
+	 * Creates the record array asked for by numOfRecords and the -sparse option.
+	 * @return the record array
+	 */
+	static RecordDirectory createRecords() {
+		if (sparse)
+			return new HashRecordDirectory(numOfRecords);
+		return new ArrayRecordDirectory(numOfRecords);
+	}
+
+	/**
+	 * Sets the field for one of the options that may follow the three required arguments.
+	 * @param option the option as given on the command line
+	 * @return false if it is not one of our options
+	 */
+	static boolean parseOption(String option) {
+		String value = null;
+		int equals = option.indexOf('=');
+		if (equals != -1) {
+			value = option.substring(equals + 1);
+			option = option.substring(0, equals);
+		}
+		if (option.equals("-slab")) {
+			if (value == null) {
+				slabPageSize = SlabAllocator.DEFAULT_PAGE_SIZE;
+			}
+			else {
+				long pageSize = parseNumber("-slab", value, SlabAllocator.MIN_PAGE_SIZE, 
+						Integer.MAX_VALUE, "-slab[=pageSize]");
+				if (pageSize != -1)
+					slabPageSize = (int) pageSize;
+			}
+		}
+		else if (option.equals("-offheap")) {
+			offHeap = true;
+		}
+		else if (option.equals("-poolfile")) {
+			poolFileName = value;
+		}
+		else if (option.equals("-grow")) {
+			if (value == null || value.equals("double")) {
+				growIncrement = 0;
+			}
+			else {
+				long increment = parseNumber("-grow", value, 1, Long.MAX_VALUE, 
+						"-grow=double|bytes");
+				if (increment != -1)
+					growIncrement = increment;
+			}
+		}
+		else if (option.equals("-maxpool")) {
+			long ceiling = parseNumber("-maxpool", value, 1, Long.MAX_VALUE, "-maxpool=bytes");
+			if (ceiling != -1)
+				maxPoolSize = ceiling;
+		}
+		else if (option.equals("-sparse")) {
+			sparse = true;
+		}
+		else if (option.equals("-policy")) {
+			policyName = value == null ? "best" : value;
+		}
+		else if (option.equals("-jmx")) {
+			jmxName = value == null ? "memman" : value;
+		}
+		else if (option.equals("-layout")) {
+			parseLayout(value);
+		}
+		else if (option.equals("-parsethreads")) {
+			long threads = parseNumber("-parsethreads", value, 1, CommandPipeline.MAX_WORKERS, 
+					"-parsethreads=n");
+			if (threads != -1)
+				parseThreads = (int) threads;
+		}
+		else {
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Writes the layout of the manager's pool, if the -layout option asked for it.
+	 * @param manager the manager whose pool to write the layout of
+	 */
+	static void writeLayout(MemManager manager) {
+		if (layoutPrefix == null)
+			return;
+		try {
+			new PoolLayout(manager, layoutBuckets).writeFiles(layoutPrefix);
+		} catch (IOException e) {
+			System.err.println("Cannot write the pool layout to " + layoutPrefix);
+			e.printStackTrace();
+		}
+	}
+
+	//~ Private methods ...................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Reads the whole number given to an option. A value that is missing, is not a number or is
+	 * out of range is reported, and the option is then ignored.
+	 * @param option the name of the option, for the report
+	 * @param value the value given to it, or null if it had none
+	 * @param min the smallest number the option takes
+	 * @param max the biggest number the option takes
+	 * @param usage how the option is written, for the report
+	 * @return the number, or -1 if it was reported
+	 */
+	private static long parseNumber(String option, String value, long min, long max, 
+			String usage) {
+		// Anything longer than 18 digits is out of range anyway, and would not fit in a long
+		if (value != null && value.matches("[0-9]{1,18}")) {
+			long number = Long.parseLong(value);
+			if (number >= min && number <= max)
+				return number;
+		}
+		System.err.println("Ignoring " + option + (value == null ? "" : "=" + value) 
+				+ ", which needs a whole number from " + min + " to " + max + ": " + usage);
+		return -1;
+	}
+
+	/**
+	 * Sets layoutPrefix and layoutBuckets from the value of the -layout option. What follows the
+	 * last colon is only taken as the number of buckets if it is all digits, so a prefix such as
+	 * C:\pools\run1 keeps its colon. A value that is missing or asks for no buckets is reported
+	 * and leaves the layout off.
+	 * @param value prefix or prefix:buckets, or null if the option had no value
+	 */
+	private static void parseLayout(String value) {
+		if (value == null || value.length() == 0) {
+			System.err.println("Ignoring -layout, which needs a value: -layout=prefix[:buckets]");
+			return;
+		}
+		String prefix = value;
+		long buckets = PoolLayout.DEFAULT_NUM_OF_BUCKETS;
+		int colon = value.lastIndexOf(':');
+		String suffix = value.substring(colon + 1);
+		if (colon > 0 && suffix.matches("[0-9]+")) {
+			prefix = value.substring(0, colon);
+			// Anything longer than 10 digits is too many buckets anyway
+			buckets = suffix.length() > 10 ? Long.MAX_VALUE : Long.parseLong(suffix);
+			if (buckets < 1 || buckets > Integer.MAX_VALUE) {
+				System.err.println("Ignoring -layout, since the number of buckets must be from 1 to "
+						+ Integer.MAX_VALUE);
+				return;
+			}
+		}
+		layoutPrefix = prefix;
+		layoutBuckets = (int) buckets;
+	}
+
+	/**
+	 * Opens the pool kept in poolFileName, runs the commands against it and closes it again so
+	 * the next run picks up its records.
+	 */
+	private static void runPersistent() {
+		if (sparse)
+			System.err.println("Ignoring -sparse, since a pool file keeps a full record array");
+		AllocationPolicy policy = allocationPolicy();
+		if (!policy.allowsRearranging()) {
+			System.err.println("Ignoring -policy=" + policyName 
+					+ ", since a pool file does not keep it");
+			policy = new FitPolicy(FitPolicy.BEST_FIT);
+		}
+		PersistentPool pool;
+		try {
+			pool = new PersistentPool(poolFileName, poolSize, numOfRecords, slabPageSize);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			return;
+		} catch (IOException e) {
+			System.err.println("Cannot use the pool file " + poolFileName);
+			e.printStackTrace();
+			return;
+		}
+		try {
+			pool.getManager().setGrowthPolicy(growthPolicy());
+			pool.getManager().setAllocationPolicy(policy);
+			showStats(pool.getManager());
+			@SuppressWarnings("unused")
+			Client client = new Client(pool.getManager(), pool.getRecords(), commandFileName,
+					parseThreads);
+			writeLayout(pool.getManager());
+			pool.close();
+		} catch (IOException e) {
+			System.err.println("Cannot use the pool file " + poolFileName);
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Registers a MemManagerStats for the manager, if the -jmx option asked for it.
+	 * @param manager the manager whose counters to show
+	 */
+	private static void showStats(MemManager manager) {
+		if (jmxName == null)
+			return;
+		try {
+			new MemManagerStats(manager).register(jmxName);
+		} catch (JMException e) {
+			System.err.println("Cannot show the counters over JMX as " + jmxName);
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Creates the growth policy asked for by the -grow and -maxpool options.
+	 * @return the policy, or null if the pool should not grow
+	 */
+	private static GrowthPolicy growthPolicy() {
+		if (growIncrement == -1)
+			return null;
+		long ceiling = maxPoolSize;
+		if (ceiling == 0)
+			ceiling = offHeap || poolFileName != null ? Long.MAX_VALUE 
+					: HeapPoolBackend.MAX_POOL_SIZE;
+		return new GrowthPolicy(growIncrement, ceiling);
+	}
+
+	/**
+	 * Creates the allocation policy asked for by the -policy option.
+	 * @return the policy
+	 */
+	private static AllocationPolicy allocationPolicy() {
+		if (policyName.equals("first"))
+			return new FitPolicy(FitPolicy.FIRST_FIT);
+		if (policyName.equals("next"))
+			return new FitPolicy(FitPolicy.NEXT_FIT);
+		if (policyName.equals("worst"))
+			return new FitPolicy(FitPolicy.WORST_FIT);
+		if (policyName.equals("buddy"))
+			return new BuddyPolicy();
+		if (!policyName.equals("best"))
+			System.err.println("Ignoring unknown policy " + policyName + ", using best fit");
+		return new FitPolicy(FitPolicy.BEST_FIT);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,165 @@
+package memmanager;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs random allocations and frees through every AllocationPolicy, with and without growing the
+ * pool, and checks after each batch that the free blocks and the records cover the pool exactly
+ * once. For the buddy system it also checks that every block is a power of 2 aligned to its size,
+ * and each record is filled with its own bytes so one record written over another is noticed.
+ */
+public class AllocationPolicyTest {
+
+	/**
+	 * Best fit, with a fixed pool and a growing one.
+	 */
+	@Test
+	public void testBestFit() throws IOException {
+		run(new FitPolicy(FitPolicy.BEST_FIT), 1);
+	}
+
+	/**
+	 * First fit, with a fixed pool and a growing one.
+	 */
+	@Test
+	public void testFirstFit() throws IOException {
+		run(new FitPolicy(FitPolicy.FIRST_FIT), 2);
+	}
+
+	/**
+	 * Next fit, with a fixed pool and a growing one.
+	 */
+	@Test
+	public void testNextFit() throws IOException {
+		run(new FitPolicy(FitPolicy.NEXT_FIT), 3);
+	}
+
+	/**
+	 * Worst fit, with a fixed pool and a growing one.
+	 */
+	@Test
+	public void testWorstFit() throws IOException {
+		run(new FitPolicy(FitPolicy.WORST_FIT), 4);
+	}
+
+	/**
+	 * The buddy system, with a fixed pool and a growing one.
+	 */
+	@Test
+	public void testBuddy() throws IOException {
+		run(new BuddyPolicy(), 5);
+	}
+
+	/**
+	 * Runs the policy over a fixed pool and over a small pool that grows.
+	 * @param policy the policy to test
+	 * @param seed the seed of the random commands
+	 */
+	private void run(AllocationPolicy policy, long seed) throws IOException {
+		run(new MemManager(new HeapPoolBackend(50000), policy), new Random(seed));
+		MemManager growing = new MemManager(new HeapPoolBackend(1000), policy);
+		growing.setGrowthPolicy(new GrowthPolicy(777, 200000));
+		run(growing, new Random(seed + 100));
+	}
+
+	/**
+	 * Allocates and frees records at random, checking the pool as it goes.
+	 * @param manager the manager to run against
+	 * @param random where the commands come from
+	 */
+	private void run(MemManager manager, Random random) throws IOException {
+		boolean buddy = manager.getAllocationPolicy() instanceof BuddyPolicy;
+		ArrayList<Integer> ids = new ArrayList<Integer>();
+		for (int i = 0; i < 100000; i++) {
+			if (ids.isEmpty() || random.nextInt(100) < 52) {
+				int size = 8 + random.nextInt(200);
+				byte[] space = new byte[size];
+				fill(space, i);
+				int id = manager.insertId(space, size);
+				if (id != MemManager.NO_HANDLE)
+					ids.add(id);
+			}
+			else {
+				int k = random.nextInt(ids.size());
+				int id = ids.get(k);
+				ids.set(k, ids.get(ids.size() - 1));
+				ids.remove(ids.size() - 1);
+				byte[] space = new byte[manager.getSizeOfRecord(id)];
+				manager.get(space, id, space.length);
+				byte[] expected = space.clone();
+				fill(expected, space[0] & 255);
+				assertArrayEquals(expected, space, "record " + id + " was written over");
+				manager.removeFromMemoryPool(id);
+			}
+			if (i % 5000 == 0)
+				check(manager, ids, buddy);
+		}
+		check(manager, ids, buddy);
+	}
+
+	/**
+	 * Fills a record with bytes that start with seed, so it can be checked later.
+	 */
+	private static void fill(byte[] space, int seed) {
+		for (int i = 0; i < space.length; i++) {
+			space[i] = (byte) (seed + i);
+		}
+	}
+
+	/**
+	 * Checks that the free blocks and the records do not overlap and together cover the pool.
+	 */
+	private static void check(MemManager manager, ArrayList<Integer> ids, boolean buddy) 
+			throws IOException {
+		DoublyLinkedList freeBlockList = manager.getFreeBlockList();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		freeBlockList.writeState(new DataOutputStream(bytes));
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		TreeMap<Long, Long> blocks = new TreeMap<Long, Long>();
+		long free = 0;
+		int numOfBlocks = in.readInt();
+		for (int i = 0; i < numOfBlocks; i++) {
+			long position = in.readLong();
+			long size = in.readLong();
+			if (buddy)
+				assertTrue(Long.bitCount(size) == 1 && position % size == 0, 
+						"free block " + position + " of " + size + " is not aligned");
+			assertEquals(null, blocks.put(position, size));
+			free += size;
+		}
+		assertEquals(free, freeBlockList.getFreeBytes());
+		long used = 0;
+		for (int i = 0; i < ids.size(); i++) {
+			int id = ids.get(i);
+			long position = manager.getPosition(id);
+			long size = manager.getSizeOfRecord(id) + 1;
+			if (buddy) {
+				size = BuddyPolicy.roundUp(size);
+				assertEquals(0, position % size, "record at " + position + " is not aligned");
+			}
+			assertEquals(null, blocks.put(position, size));
+			used += size;
+		}
+		long end = 0;
+		for (Map.Entry<Long, Long> block : blocks.entrySet()) {
+			assertTrue(block.getKey() >= end, "overlap at " + block.getKey());
+			end = block.getKey() + block.getValue();
+		}
+		assertTrue(end <= manager.getPoolEnd());
+		assertEquals(manager.getPoolEnd(), free + used);
+	}
+}
@@ -0,0 +1,207 @@
+package memmanager;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that every command written by BinaryCommandWriter is read back the same by
+ * BinaryCommandReader, with numbers from the whole int range and city names of every length.
+ */
+public class BinaryCommandTest {
+
+	/**
+	 * Writes random commands of every kind and reads them back.
+	 */
+	@Test
+	public void testRoundTrip() throws IOException {
+		Random random = new Random(7);
+		Command[] commands = new Command[50000];
+		for (int i = 0; i < commands.length; i++) {
+			commands[i] = randomCommand(random);
+		}
+		byte[] bytes = write(commands);
+		InputStream in = new ByteArrayInputStream(bytes);
+		assertTrue(BinaryCommandReader.hasHeader(in));
+		BinaryCommandReader reader = new BinaryCommandReader(in);
+		Command command = new Command();
+		for (int i = 0; i < commands.length; i++) {
+			assertTrue(reader.next(command));
+			assertSame(commands[i], command, i);
+		}
+		assertFalse(reader.next(command));
+	}
+
+	/**
+	 * Zigzag encoding gives back every number it is given, small ones taking small codes.
+	 */
+	@Test
+	public void testZigzag() {
+		int[] values = {0, 1, -1, 2, -2, 63, -64, Integer.MAX_VALUE, Integer.MIN_VALUE};
+		for (int i = 0; i < values.length; i++) {
+			int zigzag = BinaryCommandWriter.encodeZigzag(values[i]);
+			assertEquals(values[i], BinaryCommandReader.decodeZigzag(zigzag));
+		}
+		assertEquals(1, BinaryCommandWriter.encodeZigzag(-1));
+		assertEquals(2, BinaryCommandWriter.encodeZigzag(1));
+	}
+
+	/**
+	 * A file cut off in the middle of a command is an error, not the end of the commands.
+	 */
+	@Test
+	public void testTruncatedFile() throws IOException {
+		Command insert = new Command();
+		insert.setCommand(Client.INSERT_COMMAND);
+		insert.setRecordPosition(300);
+		insert.setX(-5);
+		insert.setY(70000);
+		setCity(insert, "Blacksburg");
+		byte[] bytes = write(new Command[] {insert});
+		BinaryCommandReader reader = new BinaryCommandReader(new ByteArrayInputStream(
+				Arrays.copyOf(bytes, bytes.length - 3)));
+		try {
+			reader.next(new Command());
+			fail("A cut off command was read");
+		} catch (IOException e) {
+			// Expected
+		}
+	}
+
+	/**
+	 * @return the bytes of a file holding the commands
+	 */
+	private static byte[] write(Command[] commands) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BinaryCommandWriter writer = new BinaryCommandWriter(out);
+		for (int i = 0; i < commands.length; i++) {
+			writer.write(commands[i]);
+		}
+		writer.flush();
+		return out.toByteArray();
+	}
+
+	/**
+	 * @return a command of a random kind with random fields for that kind
+	 */
+	private static Command randomCommand(Random random) {
+		Command command = new Command();
+		command.setCommand(random.nextInt(Client.SEARCH_COMMAND + 1));
+		switch (command.getCommand()) {
+		case Client.INSERT_COMMAND:
+			command.setRecordPosition(randomInt(random) & Integer.MAX_VALUE);
+			command.setX(randomInt(random));
+			command.setY(randomInt(random));
+			setCity(command, randomCity(random));
+			break;
+		case Client.REMOVE_COMMAND:
+		case Client.PRINT_COMMAND:
+			command.setRecordPosition(randomInt(random) & Integer.MAX_VALUE);
+			break;
+		case Client.REGION_SEARCH_COMMAND:
+			command.setX(randomInt(random));
+			command.setY(randomInt(random));
+			command.setWidth(randomInt(random));
+			command.setHeight(randomInt(random));
+			break;
+		case Client.RADIUS_SEARCH_COMMAND:
+			command.setX(randomInt(random));
+			command.setY(randomInt(random));
+			command.setRadius(randomInt(random));
+			break;
+		case Client.SEARCH_COMMAND:
+			setCity(command, randomCity(random));
+			break;
+		}
+		return command;
+	}
+
+	/**
+	 * @return an int that is small, near one of the ends of the range, or anything at all
+	 */
+	private static int randomInt(Random random) {
+		switch (random.nextInt(4)) {
+		case 0:
+			return random.nextInt(256) - 128;
+		case 1:
+			return Integer.MAX_VALUE - random.nextInt(4);
+		case 2:
+			return Integer.MIN_VALUE + random.nextInt(4);
+		default:
+			return random.nextInt();
+		}
+	}
+
+	/**
+	 * @return a city name of up to WorkloadGenerator.MAX_CITY_LENGTH letters
+	 */
+	private static String randomCity(Random random) {
+		char[] city = new char[random.nextInt(WorkloadGenerator.MAX_CITY_LENGTH + 1)];
+		for (int i = 0; i < city.length; i++) {
+			city[i] = (char) ('a' + random.nextInt(26));
+		}
+		return new String(city);
+	}
+
+	/**
+	 * Sets the city name of a command.
+	 */
+	private static void setCity(Command command, String city) {
+		byte[] bytes = city.getBytes();
+		System.arraycopy(bytes, 0, command.reserveCity(bytes.length), 0, bytes.length);
+		command.setCityLength(bytes.length);
+	}
+
+	/**
+	 * Checks that a command read back has the fields its kind of command was written with.
+	 */
+	private static void assertSame(Command expected, Command actual, int index) {
+		String message = "command " + index;
+		assertEquals(expected.getCommand(), actual.getCommand(), message);
+		switch (expected.getCommand()) {
+		case Client.INSERT_COMMAND:
+			assertEquals(expected.getRecordPosition(), actual.getRecordPosition(), message);
+			assertEquals(expected.getX(), actual.getX(), message);
+			assertEquals(expected.getY(), actual.getY(), message);
+			assertCity(expected, actual, message);
+			break;
+		case Client.REMOVE_COMMAND:
+		case Client.PRINT_COMMAND:
+			assertEquals(expected.getRecordPosition(), actual.getRecordPosition(), message);
+			break;
+		case Client.REGION_SEARCH_COMMAND:
+			assertEquals(expected.getX(), actual.getX(), message);
+			assertEquals(expected.getY(), actual.getY(), message);
+			assertEquals(expected.getWidth(), actual.getWidth(), message);
+			assertEquals(expected.getHeight(), actual.getHeight(), message);
+			break;
+		case Client.RADIUS_SEARCH_COMMAND:
+			assertEquals(expected.getX(), actual.getX(), message);
+			assertEquals(expected.getY(), actual.getY(), message);
+			assertEquals(expected.getRadius(), actual.getRadius(), message);
+			break;
+		case Client.SEARCH_COMMAND:
+			assertCity(expected, actual, message);
+			break;
+		}
+	}
+
+	/**
+	 * Checks that two commands have the same city name.
+	 */
+	private static void assertCity(Command expected, Command actual, String message) {
+		assertArrayEquals(Arrays.copyOf(expected.getCity(), expected.getCityLength()), 
+				Arrays.copyOf(actual.getCity(), actual.getCityLength()), message);
+	}
+}
@@ -0,0 +1,87 @@
+package memmanager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for BufferedOutputSink: numbers, text longer than the buffer, and when the buffer is
+ * written out.
+ */
+public class BufferedOutputSinkTest {
+
+	/* The line separator as the sink writes it */
+	private static final String NEW_LINE = System.lineSeparator();
+
+	@Test
+	public void testNumbers() {
+		long[] numbers = {0, 7, -7, 10, -10, 99, 1000000007, Long.MAX_VALUE, Long.MIN_VALUE,
+				Long.MIN_VALUE + 1, Integer.MIN_VALUE};
+		for (int bufferSize = 20; bufferSize < 60; bufferSize += 13) {
+			ByteArrayOutputStream printed = new ByteArrayOutputStream();
+			BufferedOutputSink sink = new BufferedOutputSink(printed, bufferSize);
+			StringBuilder expected = new StringBuilder();
+			for (long number : numbers) {
+				sink.print(number);
+				sink.print(" ");
+				expected.append(number).append(' ');
+			}
+			sink.flush();
+			assertEquals(expected.toString(), printed.toString());
+		}
+	}
+
+	@Test
+	public void testDigits() {
+		assertEquals(1, BufferedOutputSink.digits(0));
+		assertEquals(1, BufferedOutputSink.digits(9));
+		assertEquals(2, BufferedOutputSink.digits(10));
+		assertEquals(10, BufferedOutputSink.digits(Integer.MAX_VALUE));
+		assertEquals(19, BufferedOutputSink.digits(Long.MAX_VALUE));
+	}
+
+	@Test
+	public void testTextAcrossTheBufferEnd() {
+		ByteArrayOutputStream printed = new ByteArrayOutputStream();
+		// The sink never holds less than a long's worth of characters, so this gives 20 bytes
+		BufferedOutputSink sink = new BufferedOutputSink(printed, 1);
+		String city = "Blacksburg, Virginia, United States";
+		sink.print("0123456789012345");
+		sink.write(city.getBytes(), 12, 8);
+		sink.print(city);
+		sink.write(city.getBytes(), 0, city.length());
+		sink.println();
+		sink.flush();
+		assertEquals("0123456789012345Virginia" + city + city + NEW_LINE, printed.toString());
+	}
+
+	@Test
+	public void testWhenTheBufferIsWritten() {
+		ByteArrayOutputStream printed = new ByteArrayOutputStream();
+		BufferedOutputSink sink = new BufferedOutputSink(printed, 40);
+		sink.print("short");
+		sink.endCommand();
+		assertEquals(0, printed.size());
+		sink.print(" and then a lot more");
+		// Now the buffer is at least half full, so the end of a command writes it
+		sink.endCommand();
+		assertEquals("short and then a lot more", printed.toString());
+		sink.print(1);
+		assertEquals(25, printed.size());
+		sink.flush();
+		assertEquals("short and then a lot more1", printed.toString());
+	}
+
+	@Test
+	public void testPrintFreeList() {
+		MemManager manager = new MemManager(100);
+		manager.insertId(new byte[30], 30);
+		ByteArrayOutputStream printed = new ByteArrayOutputStream();
+		OutputSink sink = new BufferedOutputSink(printed);
+		manager.printFreeList(sink);
+		sink.flush();
+		assertEquals("[31, 99] (69 bytes)" + NEW_LINE, printed.toString());
+	}
+}
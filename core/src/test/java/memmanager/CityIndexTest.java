@@ -0,0 +1,183 @@
+package memmanager;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests CityIndex against a scan of every record, with a few names shared by most of the records
+ * so the lists of duplicates grow, shrink and empty out many times.
+ */
+public class CityIndexTest {
+
+	/* The number of record numbers the tests use */
+	private static final int NUM_OF_RECORDS = 3000;
+
+	/* The city names; the first few are picked far more often than the rest */
+	private static final String[] CITIES = {"Blacksburg", "Blacksburgh", "Roanoke", "B", "", 
+		"Christiansburg", "Radford", "Salem", "Richmond", "Norfolk", "Arlington", "Vinton"};
+
+	/* The manager whose pool holds the records */
+	private MemManager manager;
+
+	/* The records of the test */
+	private RecordDirectory records;
+
+	/* The index being tested */
+	private CityIndex index;
+
+	/* The city name of each record number in the index, or null */
+	private String[] cityOf = new String[NUM_OF_RECORDS];
+
+	/**
+	 * Runs inserts, removes and lookups with a record array.
+	 */
+	@Test
+	public void testDuplicateNames() {
+		run(new ArrayRecordDirectory(NUM_OF_RECORDS), new Random(1));
+	}
+
+	/**
+	 * Runs inserts, removes and lookups with a sparse record directory.
+	 */
+	@Test
+	public void testDuplicateNamesSparse() {
+		run(new HashRecordDirectory(NUM_OF_RECORDS), new Random(2));
+	}
+
+	/**
+	 * Fills the index with a single name and empties it again, in the order it was filled and
+	 * then from the middle out, so the records moved into the gaps are removed later too.
+	 */
+	@Test
+	public void testOneNameFilledAndEmptied() {
+		setUp(new ArrayRecordDirectory(NUM_OF_RECORDS));
+		for (int round = 0; round < 2; round++) {
+			for (int i = 0; i < NUM_OF_RECORDS; i++) {
+				insert(i, "Blacksburg");
+			}
+			check("Blacksburg");
+			for (int i = 0; i < NUM_OF_RECORDS; i++) {
+				int recordNumber = round == 0 ? i : (NUM_OF_RECORDS / 2 + (i % 2 == 0 ? i / 2 
+						: NUM_OF_RECORDS - 1 - i / 2)) % NUM_OF_RECORDS;
+				remove(recordNumber);
+				if (i % 100 == 0)
+					check("Blacksburg");
+			}
+			assertEquals(0, index.size());
+			check("Blacksburg");
+		}
+	}
+
+	/**
+	 * Removing a record that is not in the index leaves it alone.
+	 */
+	@Test
+	public void testRemoveMissingRecord() {
+		setUp(new ArrayRecordDirectory(NUM_OF_RECORDS));
+		insert(1, "Blacksburg");
+		Record record = new Record(0, 0, "Roanoke");
+		int id = manager.allocateId(record.getSizeOfMessage());
+		record.encodeTo(manager.getMemoryPool(), manager.getPosition(id));
+		records.put(2, id);
+		assertFalse(index.remove(2));
+		assertEquals(1, index.size());
+		assertTrue(index.remove(1));
+		assertEquals(0, index.size());
+	}
+
+	/**
+	 * Creates the manager and an empty index over the records.
+	 * @param records the directory the records go in
+	 */
+	private void setUp(RecordDirectory records) {
+		manager = new MemManager(1 << 20);
+		this.records = records;
+		index = new CityIndex(manager, records);
+		Arrays.fill(cityOf, null);
+	}
+
+	/**
+	 * Runs random inserts, removes and lookups and checks each lookup against a scan.
+	 * @param records the directory the records go in
+	 * @param random where the commands come from
+	 */
+	private void run(RecordDirectory records, Random random) {
+		setUp(records);
+		for (int i = 0; i < 60000; i++) {
+			int recordNumber = random.nextInt(NUM_OF_RECORDS);
+			int operation = random.nextInt(10);
+			if (operation < 5 && cityOf[recordNumber] == null) {
+				insert(recordNumber, randomCity(random));
+			}
+			else if (operation < 8 && cityOf[recordNumber] != null) {
+				remove(recordNumber);
+			}
+			else {
+				check(randomCity(random));
+			}
+		}
+		for (int i = 0; i < CITIES.length; i++) {
+			check(CITIES[i]);
+		}
+		check("Nowhere");
+	}
+
+	/**
+	 * @return a city name, one of the first three for most calls
+	 */
+	private String randomCity(Random random) {
+		if (random.nextInt(10) < 8)
+			return CITIES[random.nextInt(3)];
+		return CITIES[random.nextInt(CITIES.length)];
+	}
+
+	/**
+	 * Writes a record into the pool and the directory and adds it to the index, like an insert
+	 * command.
+	 */
+	private void insert(int recordNumber, String city) {
+		Record record = new Record(recordNumber, -recordNumber, city);
+		int id = manager.allocateId(record.getSizeOfMessage());
+		assertTrue(id != MemManager.NO_HANDLE);
+		record.encodeTo(manager.getMemoryPool(), manager.getPosition(id));
+		records.put(recordNumber, id);
+		index.insert(recordNumber);
+		cityOf[recordNumber] = city;
+	}
+
+	/**
+	 * Takes a record out of the index, the pool and the directory, like a remove command.
+	 */
+	private void remove(int recordNumber) {
+		assertTrue(index.remove(recordNumber));
+		manager.removeFromMemoryPool(records.get(recordNumber));
+		records.put(recordNumber, MemManager.NO_HANDLE);
+		cityOf[recordNumber] = null;
+	}
+
+	/**
+	 * Checks that a lookup finds the same record numbers as a scan.
+	 */
+	private void check(String city) {
+		int[] expected = new int[NUM_OF_RECORDS];
+		int count = 0;
+		int size = 0;
+		for (int i = 0; i < NUM_OF_RECORDS; i++) {
+			if (cityOf[i] != null)
+				size++;
+			if (city.equals(cityOf[i]))
+				expected[count++] = i;
+		}
+		byte[] name = ("  " + city).getBytes();
+		int found = index.find(name, 2, name.length - 2);
+		assertArrayEquals(Arrays.copyOf(expected, count), Arrays.copyOf(index.getResults(), found));
+		assertEquals(size, index.size());
+	}
+}
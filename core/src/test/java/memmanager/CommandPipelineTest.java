@@ -0,0 +1,147 @@
+package memmanager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that running a command file through a CommandPipeline, cut into many small segments,
+ * prints exactly what running it one line at a time does, also when a line is bad.
+ */
+public class CommandPipelineTest {
+
+	/* The number of record numbers the commands use */
+	private static final int NUM_OF_RECORDS = 50;
+
+	@TempDir
+	File folder;
+
+	@Test
+	public void testSameOutputAsSerial() throws IOException {
+		File file = write("commands.txt", commands(3000, new Random(14)));
+		String serial = runSerial(file);
+		assertTrue(serial.length() > 10000);
+		assertEquals(serial, runPipeline(file, 3, 200));
+		assertEquals(serial, runPipeline(file, 1, 1));
+		assertEquals(serial, runPipeline(file, 4, 1 << 20));
+	}
+
+	@Test
+	public void testBadLine() throws IOException {
+		File file = write("bad.txt", "insert 0 1 2 A\nprint 0\nbogus 1\nprint 0\n");
+		String serial = runSerial(file);
+		assertTrue(serial.startsWith("Line 3: Unknown command bogus\n"));
+		assertEquals(serial, runPipeline(file, 2, 8));
+		assertEquals(serial, runPipeline(file, 2, 1 << 20));
+	}
+
+	@Test
+	public void testBadLineAfterManySegments() throws IOException {
+		Random random = new Random(15);
+		// Blank lines count towards the line number too
+		String text = commands(1000, random) + "\n\n  \r\n" + commands(1000, random)
+				+ "remove 1 2\n" + commands(100, random);
+		File file = write("late.txt", text);
+		String serial = runSerial(file);
+		int lines = text.substring(0, text.indexOf("remove 1 2")).split("\n", -1).length;
+		assertTrue(serial.startsWith("Line " + lines + ": Unexpected text after the last field\n"));
+		assertEquals(serial, runPipeline(file, 3, 100));
+	}
+
+	@Test
+	public void testBadNumberOfWorkers() {
+		int[] counts = {0, -1, CommandPipeline.MAX_WORKERS + 1};
+		for (int count : counts) {
+			try {
+				new CommandPipeline("commands.txt", count);
+				fail("Expected " + count + " workers to be refused");
+			}
+			catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+	}
+
+	/**
+	 * Makes random commands over a few record numbers, so inserts replace records, removes
+	 * and prints find some of them missing, and dumps show the pool as it changes.
+	 */
+	private String commands(int numOfCommands, Random random) {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < numOfCommands; i++) {
+			int record = random.nextInt(NUM_OF_RECORDS);
+			int kind = random.nextInt(20);
+			if (kind < 9) {
+				text.append("insert ").append(record).append(' ').append(random.nextInt(1000))
+						.append("\t").append(random.nextInt(1000)).append("  City ")
+						.append(random.nextInt(100)).append('\n');
+			}
+			else if (kind < 14) {
+				text.append("remove ").append(record).append('\n');
+			}
+			else if (kind < 19) {
+				text.append("print ").append(record).append("\r\n");
+			}
+			else {
+				text.append("print\n");
+			}
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Runs a file one line at a time.
+	 * @return what was printed, followed by the message of the error that stopped it, if any
+	 */
+	private String runSerial(File file) {
+		ByteArrayOutputStream printed = new ByteArrayOutputStream();
+		String error = "";
+		try {
+			new Client(new MemManager(4096), new ArrayRecordDirectory(NUM_OF_RECORDS),
+					file.getPath(), 0, new BufferedOutputSink(printed));
+		} catch (IllegalArgumentException e) {
+			error = e.getMessage() + "\n";
+		}
+		return error + printed.toString();
+	}
+
+	/**
+	 * Runs a file through a pipeline, like runSerial.
+	 */
+	private String runPipeline(File file, int numOfWorkers, int segmentSize) throws IOException {
+		ByteArrayOutputStream printed = new ByteArrayOutputStream();
+		OutputSink out = new BufferedOutputSink(printed);
+		Client client = new Client(new MemManager(4096),
+				new ArrayRecordDirectory(NUM_OF_RECORDS), out);
+		String error = "";
+		try {
+			new CommandPipeline(file.getPath(), numOfWorkers, segmentSize).run(client);
+		} catch (IllegalArgumentException e) {
+			error = e.getMessage() + "\n";
+		} finally {
+			out.flush();
+		}
+		return error + printed.toString();
+	}
+
+	private File write(String name, String text) throws IOException {
+		File file = new File(folder, name);
+		Writer writer = new FileWriter(file);
+		try {
+			writer.write(text);
+		} finally {
+			writer.close();
+		}
+		return file;
+	}
+}
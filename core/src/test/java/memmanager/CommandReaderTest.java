@@ -0,0 +1,170 @@
+package memmanager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for CommandReader: every command, spaces, tabs and Windows line breaks, lines split
+ * across reads, and the errors with their line numbers.
+ */
+public class CommandReaderTest {
+
+	@Test
+	public void testEveryCommand() throws IOException {
+		CommandReader reader = reader("insert 3 10 -20 Blacksburg\nremove 4\nprint 5\nprint\n"
+				+ "regionsearch 1 2 30 40\nradiussearch -1 -2 50\nsearch New York\n");
+		Command command = new Command();
+		assertTrue(reader.next(command));
+		assertInsert(command, 3, 10, -20, "Blacksburg");
+		assertTrue(reader.next(command));
+		assertEquals(Client.REMOVE_COMMAND, command.getCommand());
+		assertEquals(4, command.getRecordPosition());
+		assertTrue(reader.next(command));
+		assertEquals(Client.PRINT_COMMAND, command.getCommand());
+		assertEquals(5, command.getRecordPosition());
+		assertTrue(reader.next(command));
+		assertEquals(Client.DUMP_COMMAND, command.getCommand());
+		assertTrue(reader.next(command));
+		assertEquals(Client.REGION_SEARCH_COMMAND, command.getCommand());
+		assertEquals(1, command.getX());
+		assertEquals(2, command.getY());
+		assertEquals(30, command.getWidth());
+		assertEquals(40, command.getHeight());
+		assertTrue(reader.next(command));
+		assertEquals(Client.RADIUS_SEARCH_COMMAND, command.getCommand());
+		assertEquals(-1, command.getX());
+		assertEquals(-2, command.getY());
+		assertEquals(50, command.getRadius());
+		assertTrue(reader.next(command));
+		assertEquals(Client.SEARCH_COMMAND, command.getCommand());
+		assertEquals("New York", city(command));
+		assertFalse(reader.next(command));
+	}
+
+	@Test
+	public void testSpacesTabsAndCarriageReturns() throws IOException {
+		CommandReader reader = reader("  insert\t 3  \t10 +20   New \t  York  \r\n"
+				+ "\tprint\t\r\n\r\n   \t \nremove 7\r");
+		Command command = new Command();
+		assertTrue(reader.next(command));
+		assertInsert(command, 3, 10, 20, "New York");
+		assertTrue(reader.next(command));
+		assertEquals(Client.DUMP_COMMAND, command.getCommand());
+		// Blank lines are skipped, and the last line needs no line break
+		assertTrue(reader.next(command));
+		assertEquals(Client.REMOVE_COMMAND, command.getCommand());
+		assertEquals(7, command.getRecordPosition());
+		assertFalse(reader.next(command));
+		assertFalse(reader.next(command));
+	}
+
+	@Test
+	public void testEmptyStream() throws IOException {
+		assertFalse(reader("").next(new Command()));
+		assertFalse(reader("\n\n \t\r\n").next(new Command()));
+	}
+
+	@Test
+	public void testIntLimits() throws IOException {
+		CommandReader reader = reader("insert 0 -2147483648 2147483647 A\n");
+		Command command = new Command();
+		assertTrue(reader.next(command));
+		assertInsert(command, 0, Integer.MIN_VALUE, Integer.MAX_VALUE, "A");
+	}
+
+	@Test
+	public void testLinesSplitAcrossReads() throws IOException {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 200; i++) {
+			text.append("insert ").append(i).append(" ").append(i * 3).append(" 7 City")
+					.append(i).append("\n");
+		}
+		// A line longer than the buffer, which has to grow to hold it
+		for (int i = 0; i < 70000; i++) {
+			text.append(' ');
+		}
+		text.append("print 9\n");
+		// The stream hands out at most 7 bytes at a time
+		InputStream in = new ByteArrayInputStream(text.toString().getBytes()) {
+			public synchronized int read(byte[] b, int off, int len) {
+				return super.read(b, off, Math.min(len, 7));
+			}
+		};
+		CommandReader reader = new CommandReader(in);
+		Command command = new Command();
+		for (int i = 0; i < 200; i++) {
+			assertTrue(reader.next(command));
+			assertInsert(command, i, i * 3, 7, "City" + i);
+		}
+		assertTrue(reader.next(command));
+		assertEquals(Client.PRINT_COMMAND, command.getCommand());
+		assertEquals(9, command.getRecordPosition());
+		assertFalse(reader.next(command));
+	}
+
+	@Test
+	public void testErrorsGiveTheLineNumber() throws IOException {
+		// Blank lines count, so the line numbers match an editor's
+		assertError("insert 1 2 3 A\n\nbogus 1\n", 1, "Line 3: Unknown command bogus");
+		assertError("insert 1 2 3\n", 0, "Line 1: Missing city name");
+		assertError("insert 1 2\n", 0, "Line 1: Missing number");
+		assertError("remove\n", 0, "Line 1: Missing number");
+		assertError("print 1x\n", 0, "Line 1: Not a number: 1x");
+		assertError("print -\n", 0, "Line 1: Missing number");
+		assertError("remove 2147483648\n", 0, "Line 1: Number too big: 2147483648");
+		assertError("remove -2147483649\n", 0, "Line 1: Number too big: -2147483649");
+		assertError("remove 99999999999999999999\n", 0,
+				"Line 1: Number too big: 99999999999999999999");
+		assertError("remove 1 2\n", 0, "Line 1: Unexpected text after the last field");
+		assertError("print 1\r\nprint 1 2\r\n", 1, "Line 2: Unexpected text after the last field");
+		assertError("regionsearch 1 2 3 4 5\n", 0, "Line 1: Unexpected text after the last field");
+		assertError("radiussearch 1 2\n", 0, "Line 1: Missing number");
+		assertError("search\n", 0, "Line 1: Missing city name");
+		assertError("Insert 1 2 3 A\n", 0, "Line 1: Unknown command Insert");
+	}
+
+	/**
+	 * Reads a text that has a bad line after some good commands.
+	 * @param text the commands
+	 * @param goodCommands the number of commands in front of the bad line
+	 * @param message the message the bad line should throw
+	 */
+	private void assertError(String text, int goodCommands, String message) throws IOException {
+		CommandReader reader = reader(text);
+		Command command = new Command();
+		for (int i = 0; i < goodCommands; i++) {
+			assertTrue(reader.next(command));
+		}
+		try {
+			reader.next(command);
+			fail("Expected " + message);
+		}
+		catch (IllegalArgumentException e) {
+			assertEquals(message, e.getMessage());
+		}
+	}
+
+	private void assertInsert(Command command, int recordPosition, int x, int y, String city) {
+		assertEquals(Client.INSERT_COMMAND, command.getCommand());
+		assertEquals(recordPosition, command.getRecordPosition());
+		assertEquals(x, command.getX());
+		assertEquals(y, command.getY());
+		assertEquals(city, city(command));
+	}
+
+	private static String city(Command command) {
+		return new String(command.getCity(), 0, command.getCityLength());
+	}
+
+	private static CommandReader reader(String text) {
+		return new CommandReader(new ByteArrayInputStream(text.getBytes()));
+	}
+}
@@ -0,0 +1,217 @@
+package memmanager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the concurrent manager: reads that race with threads freeing, inserting and
+ * compacting in the same arena always see a whole record, or are told the record was removed.
+ */
+public class ConcurrentMemManagerTest {
+
+	/* Every record is at least this long, so a read of this many bytes never runs past one */
+	private static final int MIN_SIZE = 32;
+
+	@Test
+	public void testRecordsStayInTheirArena() throws InterruptedException {
+		final ConcurrentMemManager manager = new ConcurrentMemManager(new HeapPoolBackend(4000),
+				4);
+		final Handle[] handles = new Handle[4];
+		Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			final int thread = i;
+			threads[i] = new Thread() {
+				public void run() {
+					handles[thread] = manager.insertIntoMemoryPool(record(1 + thread, 99), 99);
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		// Each thread got an arena of its own, so each record starts its arena
+		boolean[] arenaUsed = new boolean[4];
+		for (int i = 0; i < handles.length; i++) {
+			assertNotNull(handles[i]);
+			long position = handles[i].getTable().getPosition(handles[i].getId());
+			assertEquals(0, position % 1000);
+			arenaUsed[(int) (position / 1000)] = true;
+			assertWhole(manager, handles[i]);
+		}
+		for (boolean used : arenaUsed) {
+			assertTrue(used);
+		}
+	}
+
+	@Test
+	public void testFullArenaFallsBackToTheOthers() {
+		ConcurrentMemManager manager = new ConcurrentMemManager(new HeapPoolBackend(400), 2);
+		assertNotNull(manager.insertIntoMemoryPool(record(1, 150), 150));
+		// The first arena is too full for this one, so it goes in the second
+		Handle other = manager.insertIntoMemoryPool(record(2, 150), 150);
+		assertNotNull(other);
+		assertEquals(200, other.getTable().getPosition(other.getId()));
+		assertNull(manager.insertIntoMemoryPool(record(3, 150), 150));
+	}
+
+	@Test
+	public void testArenaStats() {
+		ConcurrentMemManager manager = new ConcurrentMemManager(new HeapPoolBackend(1001), 2);
+		manager.insertIntoMemoryPool(record(1, 99), 99);
+		Handle handle = manager.insertIntoMemoryPool(record(2, 49), 49);
+		manager.removeFromMemoryPool(handle);
+		MemManagerStats[] stats = manager.getArenaStats();
+		assertEquals(2, stats.length);
+		// The last arena takes the byte left over
+		assertEquals(500, stats[0].getPoolSize());
+		assertEquals(501, stats[1].getPoolSize());
+		assertEquals(2, stats[0].getAllocations());
+		assertEquals(1, stats[0].getFrees());
+		assertEquals(100, stats[0].getBytesInUse());
+		assertEquals(400, stats[0].getBytesFree());
+		assertEquals(0, stats[1].getAllocations());
+		// Changing the array we got does not change the manager
+		stats[0] = null;
+		assertNotNull(manager.getArenaStats()[0]);
+	}
+
+	@Test
+	public void testReadingARemovedRecord() {
+		ConcurrentMemManager manager = new ConcurrentMemManager(new HeapPoolBackend(1000), 1);
+		Handle handle = manager.insertIntoMemoryPool(record(1, 40), 40);
+		manager.removeFromMemoryPool(handle);
+		try {
+			manager.get(new byte[40], handle, 40);
+			fail("A removed record should not be read");
+		}
+		catch (IllegalArgumentException e) {
+			// expected
+		}
+		try {
+			manager.getSizeOfRecord(handle);
+			fail("A removed record should not be read");
+		}
+		catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testReadsRaceWithFrees() throws InterruptedException {
+		// Two small arenas that stay nearly full, so inserts keep compacting them
+		final ConcurrentMemManager manager = new ConcurrentMemManager(new HeapPoolBackend(6000),
+				2);
+		final AtomicReferenceArray<Handle> slots = new AtomicReferenceArray<Handle>(64);
+		Random random = new Random(12);
+		for (int i = 0; i < slots.length(); i++) {
+			int size = MIN_SIZE + random.nextInt(68);
+			slots.set(i, manager.insertIntoMemoryPool(record(1 + i, size), size));
+		}
+		final AtomicBoolean writing = new AtomicBoolean(true);
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		Thread[] writers = new Thread[2];
+		for (int i = 0; i < writers.length; i++) {
+			final long seed = i;
+			writers[i] = new Thread() {
+				public void run() {
+					Random random = new Random(seed);
+					try {
+						for (int step = 0; step < 100000; step++) {
+							int size = MIN_SIZE + random.nextInt(68);
+							Handle handle = manager.insertIntoMemoryPool(record(1 + random
+									.nextInt(120), size), size);
+							if (handle != null) {
+								// Free the record that was in a slot, while readers may be on it
+								int slot = random.nextInt(slots.length());
+								manager.removeFromMemoryPool(slots.getAndSet(slot, handle));
+							}
+						}
+					} catch (Throwable e) {
+						failure.compareAndSet(null, e);
+					}
+				}
+			};
+		}
+		Thread[] readers = new Thread[2];
+		for (int i = 0; i < readers.length; i++) {
+			final int reader = i;
+			readers[i] = new Thread() {
+				public void run() {
+					Random random = new Random(100 + reader);
+					byte[] space = new byte[MIN_SIZE];
+					try {
+						while (writing.get()) {
+							Handle handle = slots.get(random.nextInt(slots.length()));
+							try {
+								int size = manager.getSizeOfRecord(handle);
+								assertTrue(size >= MIN_SIZE && size < MIN_SIZE + 68);
+								manager.get(space, handle, MIN_SIZE);
+								assertWhole(space);
+							} catch (IllegalArgumentException e) {
+								// A writer freed it before we got to it
+							}
+						}
+					} catch (Throwable e) {
+						failure.compareAndSet(null, e);
+					}
+				}
+			};
+		}
+		for (Thread thread : readers) {
+			thread.start();
+		}
+		for (Thread thread : writers) {
+			thread.start();
+		}
+		for (Thread thread : writers) {
+			thread.join();
+		}
+		writing.set(false);
+		for (Thread thread : readers) {
+			thread.join();
+		}
+		if (failure.get() != null)
+			throw new AssertionError(failure.get());
+		for (int i = 0; i < slots.length(); i++) {
+			assertWhole(manager, slots.get(i));
+		}
+	}
+
+	/**
+	 * @return a record of size bytes, every one of them tag
+	 */
+	private static byte[] record(int tag, int size) {
+		byte[] record = new byte[size];
+		for (int i = 0; i < size; i++) {
+			record[i] = (byte) tag;
+		}
+		return record;
+	}
+
+	/**
+	 * Checks that every byte read is the same, as it is in every whole record.
+	 */
+	private static void assertWhole(byte[] space) {
+		for (int i = 1; i < space.length; i++) {
+			assertEquals(space[0], space[i], "torn record");
+		}
+		assertTrue(space[0] != 0, "read from free space");
+	}
+
+	private static void assertWhole(ConcurrentMemManager manager, Handle handle) {
+		byte[] space = new byte[manager.getSizeOfRecord(handle)];
+		manager.get(space, handle, space.length);
+		assertWhole(space);
+	}
+}
@@ -0,0 +1,147 @@
+package memmanager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the free block list: best fit against a walk through the list, and merging.
+ */
+public class DoublyLinkedListTest {
+
+	@Test
+	public void testBestFitMatchesListWalk() {
+		Random random = new Random(1);
+		MemManager manager = new MemManager(20000);
+		ArrayList<Integer> ids = new ArrayList<Integer>();
+		for (int i = 0; i < 50000; i++) {
+			if (ids.isEmpty() || random.nextInt(3) > 0) {
+				int size = 1 + random.nextInt(60);
+				long expected = walkBestFit(manager.getFreeBlockList(), size + 1);
+				assertEquals(expected, manager.getFreeBlockList().getBestFit(size + 1));
+				int id = manager.insertId(new byte[size], size);
+				if (expected == -1) {
+					// Only a compaction could have made room, which moves records
+					continue;
+				}
+				assertEquals(expected, manager.getPosition(id));
+				ids.add(id);
+			}
+			else {
+				int k = random.nextInt(ids.size());
+				manager.removeFromMemoryPool(ids.get(k));
+				ids.set(k, ids.get(ids.size() - 1));
+				ids.remove(ids.size() - 1);
+			}
+		}
+	}
+
+	@Test
+	public void testBestFitTiesGoToLowestPosition() {
+		DoublyLinkedList list = new DoublyLinkedList();
+		list.add(300, 10, false);
+		list.add(100, 10, false);
+		list.add(200, 10, false);
+		list.add(0, 50, false);
+		assertEquals(100, list.getBestFit(10));
+		assertEquals(100, list.getBestFit(1));
+		assertEquals(0, list.getBestFit(11));
+		assertEquals(-1, list.getBestFit(51));
+	}
+
+	@Test
+	public void testMergeForward() {
+		DoublyLinkedList list = new DoublyLinkedList();
+		list.add(20, 10, false);
+		list.add(10, 10, true);
+		assertEquals(1, list.getNumOfBlocks());
+		assertEquals(20, list.getBlockSize(10));
+		assertEquals(-1, list.getBlockSize(20));
+		assertEquals(1, list.getForwardMerges());
+	}
+
+	@Test
+	public void testMergeBackward() {
+		DoublyLinkedList list = new DoublyLinkedList();
+		list.add(0, 10, false);
+		list.add(10, 5, true);
+		assertEquals(1, list.getNumOfBlocks());
+		assertEquals(15, list.getBlockSize(0));
+		assertEquals(1, list.getBackwardMerges());
+	}
+
+	@Test
+	public void testMergeBothWays() {
+		DoublyLinkedList list = new DoublyLinkedList();
+		list.add(0, 10, false);
+		list.add(20, 10, false);
+		list.add(40, 10, false);
+		list.add(10, 10, true);
+		assertEquals(2, list.getNumOfBlocks());
+		assertEquals(30, list.getBlockSize(0));
+		assertEquals(10, list.getBlockSize(40));
+		assertEquals(1, list.getBothWaysMerges());
+		assertEquals(40, list.getFreeBytes());
+	}
+
+	@Test
+	public void testBlocksThatOnlyTouchOthersDoNotMerge() {
+		DoublyLinkedList list = new DoublyLinkedList();
+		list.add(0, 10, false);
+		list.add(11, 10, true);
+		list.add(30, 10, true);
+		assertEquals(3, list.getNumOfBlocks());
+		assertEquals(0, list.getForwardMerges() + list.getBackwardMerges() 
+				+ list.getBothWaysMerges());
+	}
+
+	@Test
+	public void testFreeingEverythingLeavesOneBlock() {
+		Random random = new Random(2);
+		MemManager manager = new MemManager(1 << 20);
+		ArrayList<Integer> ids = new ArrayList<Integer>();
+		for (int i = 0; i < 20000; i++) {
+			int size = 1 + random.nextInt(40);
+			ids.add(manager.insertId(new byte[size], size));
+		}
+		// Free every other record first, so each later free merges both ways
+		for (int i = 0; i < ids.size(); i += 2) {
+			manager.removeFromMemoryPool(ids.get(i));
+		}
+		DoublyLinkedList list = manager.getFreeBlockList();
+		assertEquals(ids.size() / 2 + 1, list.getNumOfBlocks());
+		for (int i = 1; i < ids.size(); i += 2) {
+			manager.removeFromMemoryPool(ids.get(i));
+		}
+		assertEquals(1, list.getNumOfBlocks());
+		assertEquals(1 << 20, list.getBlockSize(0));
+		assertEquals(ids.size() / 2, list.getBothWaysMerges());
+	}
+
+	/**
+	 * Finds the best fit the way the list did before it had an index: the smallest block that is
+	 * big enough, the lowest position among blocks of that size. Also checks the list order.
+	 */
+	private static long walkBestFit(DoublyLinkedList list, long size) {
+		long best = -1;
+		long bestSize = Long.MAX_VALUE;
+		DoublyLinkedList.FreeBlock previous = null;
+		for (DoublyLinkedList.FreeBlock block = list.getHead().getNext(); 
+				block != list.getTail(); block = block.getNext()) {
+			if (previous != null)
+				assertTrue(previous.getSize() > block.getSize() 
+						|| (previous.getSize() == block.getSize() 
+						&& previous.getPosition() < block.getPosition()), "list order");
+			if (block.getSize() >= size && block.getSize() < bestSize) {
+				best = block.getPosition();
+				bestSize = block.getSize();
+			}
+			previous = block;
+		}
+		return best;
+	}
+}
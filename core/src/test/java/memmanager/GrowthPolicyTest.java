@@ -0,0 +1,92 @@
+package memmanager;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for growing the pool: the sizes the policy picks, and a manager that grows instead of
+ * failing an insert while its records stay where they are.
+ */
+public class GrowthPolicyTest {
+
+	@Test
+	public void testNextSize() {
+		GrowthPolicy doubling = GrowthPolicy.doubling(1000);
+		assertEquals(1, doubling.nextSize(0));
+		assertEquals(600, doubling.nextSize(300));
+		assertEquals(1000, doubling.nextSize(600));
+		assertEquals(1000, doubling.nextSize(1000));
+		GrowthPolicy stepping = new GrowthPolicy(256, 1000);
+		assertEquals(556, stepping.nextSize(300));
+		assertEquals(1000, stepping.nextSize(900));
+		// A pool already past the ceiling does not shrink
+		assertEquals(1200, stepping.nextSize(1200));
+	}
+
+	@Test
+	public void testNextSizeStopsAtTheLargestLong() {
+		assertEquals(Long.MAX_VALUE, GrowthPolicy.doubling(Long.MAX_VALUE).nextSize(Long.MAX_VALUE
+				/ 2 + 1));
+		assertEquals(Long.MAX_VALUE, new GrowthPolicy(Long.MAX_VALUE, Long.MAX_VALUE).nextSize(10));
+	}
+
+	@Test
+	public void testHeapPoolGrows() {
+		checkGrowth(new HeapPoolBackend(256));
+	}
+
+	@Test
+	public void testOffHeapPoolGrows() {
+		checkGrowth(new OffHeapPoolBackend(256, 6));
+	}
+
+	@Test
+	public void testPartOfABackendDoesNotGrow() {
+		MemManager manager = new MemManager(new HeapPoolBackend(512), 0, 256);
+		manager.setGrowthPolicy(GrowthPolicy.doubling(4096));
+		assertFalse(manager.grow());
+		assertEquals(512, manager.getMemoryPool().size());
+	}
+
+	/**
+	 * Fills a pool of 256 bytes that may double up to 1024, checking that the records keep their
+	 * places and bytes and that the new space joins the free block at the end.
+	 * @param backend an empty backend of 256 bytes
+	 */
+	private void checkGrowth(PoolBackend backend) {
+		MemManager manager = new MemManager(backend);
+		manager.setGrowthPolicy(GrowthPolicy.doubling(1024));
+		ArrayList<Integer> ids = new ArrayList<Integer>();
+		ArrayList<Long> positions = new ArrayList<Long>();
+		byte[] record = new byte[99];
+		for (int i = 0; i < 10; i++) {
+			record[0] = (byte) i;
+			int id = manager.insertId(record, record.length);
+			assertNotEquals(MemManager.NO_HANDLE, id);
+			ids.add(id);
+			positions.add(manager.getPosition(id));
+		}
+		assertEquals(1024, backend.size());
+		assertEquals(1024, manager.getPoolEnd());
+		for (int i = 0; i < ids.size(); i++) {
+			assertEquals(positions.get(i).longValue(), manager.getPosition(ids.get(i)));
+			byte[] copy = new byte[record.length];
+			manager.get(copy, ids.get(i), copy.length);
+			record[0] = (byte) i;
+			assertArrayEquals(record, copy);
+		}
+		// The 24 bytes left over make one free block at the end
+		assertEquals(1, manager.getFreeBlockList().getNumOfBlocks());
+		assertEquals(1000, manager.getFreeBlockList().getHead().getNext().getPosition());
+		// At the ceiling an insert that does not fit fails
+		assertEquals(MemManager.NO_HANDLE, manager.insertId(record, record.length));
+		assertEquals(1, manager.getInsertFailures());
+		assertFalse(manager.grow());
+	}
+}
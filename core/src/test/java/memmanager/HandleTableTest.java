@@ -0,0 +1,64 @@
+package memmanager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that the array and the mapped handle tables hand out and free ids the same way.
+ */
+public class HandleTableTest {
+
+	@TempDir
+	File folder;
+
+	@Test
+	public void testArrayAndMappedTablesAgree() throws IOException {
+		MappedPoolBackend file = new MappedPoolBackend(new File(folder, "handles").getPath(), 64);
+		HandleTable array = new ArrayHandleTable();
+		HandleTable mapped = new MappedHandleTable(file, 0, 16);
+		Random random = new Random(5);
+		ArrayList<Integer> live = new ArrayList<Integer>();
+		for (int step = 0; step < 5000; step++) {
+			if (!live.isEmpty() && random.nextInt(5) < 2) {
+				int id = live.remove(random.nextInt(live.size()));
+				array.release(id);
+				mapped.release(id);
+			}
+			else {
+				long position = random.nextInt(1 << 20) + (long) random.nextInt(4) << 32;
+				int id = array.allocate(position);
+				assertEquals(id, mapped.allocate(position));
+				live.add(id);
+			}
+			assertEquals(array.size(), mapped.size());
+			assertEquals(array.getNumOfLiveHandles(), mapped.getNumOfLiveHandles());
+		}
+		for (int id = 0; id < array.size(); id++) {
+			assertEquals(array.getPosition(id), mapped.getPosition(id));
+		}
+		file.close();
+	}
+
+	@Test
+	public void testFreedIdsAreReusedLastFreedFirst() {
+		HandleTable table = new ArrayHandleTable();
+		for (int i = 0; i < 4; i++) {
+			assertEquals(i, table.allocate(10 * i));
+		}
+		table.release(1);
+		table.release(3);
+		assertEquals(-2 - 1, table.getPosition(3));
+		assertEquals(3, table.allocate(70));
+		assertEquals(1, table.allocate(80));
+		assertEquals(4, table.allocate(90));
+		assertEquals(5, table.size());
+		assertEquals(5, table.getNumOfLiveHandles());
+	}
+}
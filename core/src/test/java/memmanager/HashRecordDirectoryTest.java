@@ -0,0 +1,94 @@
+package memmanager;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests HashRecordDirectory against a HashMap. The record numbers are drawn from a wide range
+ * first and a narrow one later, so the table grows, then shrinks, and removes move runs of
+ * entries back over and over.
+ */
+public class HashRecordDirectoryTest {
+
+	/**
+	 * Puts, clears and gets record numbers at random.
+	 */
+	@Test
+	public void testAgainstHashMap() {
+		Random random = new Random(5);
+		HashRecordDirectory directory = new HashRecordDirectory(Integer.MAX_VALUE);
+		HashMap<Integer, Integer> expected = new HashMap<Integer, Integer>();
+		for (int i = 0; i < 600000; i++) {
+			int recordNumber = random.nextInt(i < 300000 ? 100000 : 2000);
+			int operation = random.nextInt(3);
+			if (operation == 0) {
+				int id = random.nextInt(1000);
+				directory.put(recordNumber, id);
+				expected.put(recordNumber, id);
+			}
+			else if (operation == 1) {
+				directory.put(recordNumber, MemManager.NO_HANDLE);
+				expected.remove(recordNumber);
+			}
+			else {
+				Integer id = expected.get(recordNumber);
+				assertEquals(id == null ? MemManager.NO_HANDLE : id.intValue(), 
+						directory.get(recordNumber));
+			}
+			assertEquals(expected.size(), directory.size());
+		}
+		checkLive(directory, expected);
+	}
+
+	/**
+	 * Removes every record number of a cluster that shares its home slots, in an order that
+	 * leaves gaps in the middle of the run, and checks the others are still found after each.
+	 */
+	@Test
+	public void testRemoveFromCluster() {
+		HashRecordDirectory directory = new HashRecordDirectory(Integer.MAX_VALUE);
+		HashMap<Integer, Integer> expected = new HashMap<Integer, Integer>();
+		for (int recordNumber = 0; recordNumber < 5000; recordNumber += 7) {
+			directory.put(recordNumber, recordNumber);
+			expected.put(recordNumber, recordNumber);
+		}
+		Random random = new Random(6);
+		Integer[] order = expected.keySet().toArray(new Integer[0]);
+		for (int i = order.length - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			Integer swap = order[i];
+			order[i] = order[j];
+			order[j] = swap;
+		}
+		for (int i = 0; i < order.length; i++) {
+			directory.put(order[i], MemManager.NO_HANDLE);
+			expected.remove(order[i]);
+			for (int j = i + 1; j < order.length; j++) {
+				assertEquals(order[j].intValue(), directory.get(order[j]));
+			}
+			assertEquals(MemManager.NO_HANDLE, directory.get(order[i]));
+		}
+		assertEquals(0, directory.size());
+		checkLive(directory, expected);
+	}
+
+	/**
+	 * Checks that the directory lists the same record numbers as the map, lowest first.
+	 */
+	private static void checkLive(HashRecordDirectory directory, 
+			HashMap<Integer, Integer> expected) {
+		int[] live = new int[expected.size()];
+		int count = 0;
+		for (Integer recordNumber : expected.keySet()) {
+			live[count++] = recordNumber;
+		}
+		Arrays.sort(live);
+		assertArrayEquals(live, directory.getLiveRecordNumbers());
+	}
+}
@@ -0,0 +1,94 @@
+package memmanager;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for MemManager.getView: a view holds exactly the bytes get copies, on every backend,
+ * cannot be written through, and reads the pool itself instead of a copy.
+ */
+public class MemManagerViewTest {
+
+	@TempDir
+	File folder;
+
+	@Test
+	public void testHeapViews() {
+		checkViews(new HeapPoolBackend(1 << 14));
+	}
+
+	@Test
+	public void testOffHeapViews() {
+		checkViews(new OffHeapPoolBackend(1 << 14));
+	}
+
+	@Test
+	public void testMappedViews() throws IOException {
+		MappedPoolBackend backend = new MappedPoolBackend(new File(folder, "pool").getPath(),
+				1 << 14);
+		checkViews(backend);
+		backend.close();
+	}
+
+	@Test
+	public void testViewReadsThePool() {
+		MemManager manager = new MemManager(1000);
+		int id = manager.insertId(new Record(3, 4, "Blacksburg").encode(), 18);
+		ByteBuffer view = manager.getView(id);
+		// Writing the record again shows up in the view we already have
+		new Record(5, 6, "Roanoke___").encodeTo(manager.getMemoryPool(), manager.getPosition(id));
+		Record record = new Record(view);
+		assertEquals(5, record.getX());
+		assertEquals(6, record.getY());
+		assertEquals("Roanoke___", record.getCityName());
+	}
+
+	@Test
+	public void testViewsDoNotShareAPosition() {
+		MemManager manager = new MemManager(1000);
+		int id = manager.insertId(new byte[] {1, 2, 3, 4}, 4);
+		ByteBuffer first = manager.getView(id);
+		ByteBuffer second = manager.getView(id);
+		assertEquals(1, first.get());
+		assertEquals(2, first.get());
+		assertEquals(1, second.get());
+		assertEquals(4, manager.getView(id).remaining());
+	}
+
+	/**
+	 * Inserts records of every size and checks each view against get.
+	 * @param backend an empty backend of 16 KB
+	 */
+	private void checkViews(PoolBackend backend) {
+		MemManager manager = new MemManager(backend);
+		Random random = new Random(13);
+		ArrayList<Integer> ids = new ArrayList<Integer>();
+		for (int size = 1; size < 256; size += 3) {
+			byte[] record = new byte[size];
+			random.nextBytes(record);
+			ids.add(manager.insertId(record, size));
+		}
+		for (int id : ids) {
+			int size = manager.getSizeOfRecord(id);
+			byte[] expected = new byte[size];
+			manager.get(expected, id, size);
+			ByteBuffer view = manager.getView(id);
+			assertTrue(view.isReadOnly());
+			assertEquals(0, view.position());
+			assertEquals(size, view.limit());
+			byte[] actual = new byte[size];
+			view.get(actual);
+			assertArrayEquals(expected, actual);
+		}
+	}
+}
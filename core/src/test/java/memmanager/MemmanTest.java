@@ -0,0 +1,80 @@
+package memmanager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the options memman takes after its three arguments.
+ */
+public class MemmanTest {
+
+	@AfterEach
+	public void resetOptions() {
+		memman.slabPageSize = 0;
+		memman.growIncrement = -1;
+		memman.maxPoolSize = 0;
+		memman.parseThreads = 0;
+	}
+
+	@Test
+	public void testSlabPageSize() {
+		assertTrue(memman.parseOption("-slab"));
+		assertEquals(SlabAllocator.DEFAULT_PAGE_SIZE, memman.slabPageSize);
+		assertTrue(memman.parseOption("-slab=512"));
+		assertEquals(512, memman.slabPageSize);
+	}
+
+	@Test
+	public void testBadSlabPageSizeIsIgnored() {
+		String[] values = {"-slab=abc", "-slab=", "-slab=-4096", "-slab=10", 
+				"-slab=99999999999999999999"};
+		for (int i = 0; i < values.length; i++) {
+			assertTrue(memman.parseOption(values[i]));
+			assertEquals(0, memman.slabPageSize, values[i]);
+		}
+	}
+
+	@Test
+	public void testGrowAndMaxPool() {
+		assertTrue(memman.parseOption("-grow"));
+		assertEquals(0, memman.growIncrement);
+		assertTrue(memman.parseOption("-grow=4096"));
+		assertEquals(4096, memman.growIncrement);
+		assertTrue(memman.parseOption("-grow=double"));
+		assertEquals(0, memman.growIncrement);
+		assertTrue(memman.parseOption("-maxpool=1000000"));
+		assertEquals(1000000, memman.maxPoolSize);
+	}
+
+	@Test
+	public void testBadGrowAndMaxPoolAreIgnored() {
+		String[] values = {"-grow=abc", "-grow=0", "-grow=-100", "-grow=", "-maxpool", 
+				"-maxpool=0", "-maxpool=1e6", "-maxpool=99999999999999999999"};
+		for (int i = 0; i < values.length; i++) {
+			assertTrue(memman.parseOption(values[i]));
+			assertEquals(-1, memman.growIncrement, values[i]);
+			assertEquals(0, memman.maxPoolSize, values[i]);
+		}
+	}
+
+	@Test
+	public void testParseThreads() {
+		assertTrue(memman.parseOption("-parsethreads=4"));
+		assertEquals(4, memman.parseThreads);
+		assertTrue(memman.parseOption("-parsethreads=256"));
+		assertEquals(256, memman.parseThreads);
+	}
+
+	@Test
+	public void testBadParseThreadsAreIgnored() {
+		String[] values = {"-parsethreads", "-parsethreads=abc", "-parsethreads=0",
+				"-parsethreads=-1", "-parsethreads=257", "-parsethreads=99999999999"};
+		for (int i = 0; i < values.length; i++) {
+			assertTrue(memman.parseOption(values[i]));
+			assertEquals(0, memman.parseThreads, values[i]);
+		}
+	}
+}
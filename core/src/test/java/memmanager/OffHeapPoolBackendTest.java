@@ -0,0 +1,107 @@
+package memmanager;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the off-heap pool with 64 byte chunks, so that ints, records and views cross the
+ * end of a chunk all the time and have to match a heap pool holding the same bytes.
+ */
+public class OffHeapPoolBackendTest {
+
+	@Test
+	public void testIntsAcrossChunkEnds() {
+		OffHeapPoolBackend offHeap = new OffHeapPoolBackend(256, 6);
+		HeapPoolBackend heap = new HeapPoolBackend(256);
+		for (int position = 56; position < 72; position++) {
+			int value = 0x81020304 + position;
+			offHeap.putInt(position, value);
+			heap.putInt(position, value);
+			assertEquals(value, offHeap.getInt(position));
+			for (int i = 0; i < 4; i++) {
+				assertEquals(heap.getByte(position + i), offHeap.getByte(position + i));
+			}
+		}
+	}
+
+	@Test
+	public void testRecordsAcrossChunkEnds() {
+		MemManager offHeap = new MemManager(new OffHeapPoolBackend(8192, 6));
+		MemManager heap = new MemManager(new HeapPoolBackend(8192));
+		Random random = new Random(4);
+		ArrayList<int[]> ids = new ArrayList<int[]>();
+		int crossing = 0;
+		for (int step = 0; step < 2000; step++) {
+			if (!ids.isEmpty() && random.nextInt(3) == 0) {
+				int[] pair = ids.remove(random.nextInt(ids.size()));
+				offHeap.removeFromMemoryPool(pair[0]);
+				heap.removeFromMemoryPool(pair[1]);
+				continue;
+			}
+			byte[] record = new byte[1 + random.nextInt(200)];
+			random.nextBytes(record);
+			int offHeapId = offHeap.insertId(record, record.length);
+			int heapId = heap.insertId(record, record.length);
+			assertEquals(offHeapId == MemManager.NO_HANDLE, heapId == MemManager.NO_HANDLE);
+			if (offHeapId == MemManager.NO_HANDLE)
+				continue;
+			// Both pools place records the same way, so only the chunks differ
+			long position = offHeap.getPosition(offHeapId);
+			assertEquals(heap.getPosition(heapId), position);
+			if (position >>> 6 != (position + record.length) >>> 6)
+				crossing++;
+			ids.add(new int[] {offHeapId, heapId});
+		}
+		assertTrue(crossing > 100);
+		for (int[] pair : ids) {
+			int size = heap.getSizeOfRecord(pair[1]);
+			assertEquals(size, offHeap.getSizeOfRecord(pair[0]));
+			byte[] expected = new byte[size];
+			byte[] actual = new byte[size];
+			heap.get(expected, pair[1], size);
+			offHeap.get(actual, pair[0], size);
+			assertArrayEquals(expected, actual);
+			ByteBuffer view = offHeap.getView(pair[0]);
+			assertEquals(0, view.position());
+			assertEquals(size, view.remaining());
+			assertTrue(view.isReadOnly());
+			view.get(actual);
+			assertArrayEquals(expected, actual);
+		}
+	}
+
+	@Test
+	public void testGrowKeepsTheShortLastChunk() {
+		OffHeapPoolBackend backend = new OffHeapPoolBackend(100, 6);
+		byte[] bytes = new byte[100];
+		new Random(5).nextBytes(bytes);
+		backend.put(0, bytes, 0, bytes.length);
+		backend.grow(300);
+		assertEquals(300, backend.size());
+		byte[] copy = new byte[100];
+		backend.get(0, copy, 0, copy.length);
+		assertArrayEquals(bytes, copy);
+		// The old last chunk was only 36 bytes, so it had to be filled out to a full chunk
+		backend.putInt(126, 0x01020304);
+		assertEquals(0x01020304, backend.getInt(126));
+	}
+
+	@Test
+	public void testBadChunkBits() {
+		try {
+			new OffHeapPoolBackend(100, OffHeapPoolBackend.CHUNK_BITS + 1);
+			fail("Chunks over 1 GB should be refused");
+		}
+		catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,187 @@
+package memmanager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that a PersistentPool keeps its records when it is closed and opened again, and that a
+ * pool that was never closed, as after a crash, is recovered from its record array and handle
+ * table.
+ */
+public class PersistentPoolTest {
+
+	/* The number of record numbers of the pools */
+	private static final int NUM_OF_RECORDS = 2000;
+
+	/* The folder the pool files go in, deleted after each test */
+	@TempDir
+	File folder;
+
+	/* The city name of each record number, or null */
+	private String[] cityOf = new String[NUM_OF_RECORDS];
+
+	/**
+	 * A closed pool opens with the same records, free list and counts.
+	 */
+	@Test
+	public void testReopenAfterClose() throws IOException {
+		checkReopenAfterClose(0);
+	}
+
+	/**
+	 * A closed pool in slab mode opens with the same records and slab pages.
+	 */
+	@Test
+	public void testReopenAfterCloseSlab() throws IOException {
+		checkReopenAfterClose(512);
+	}
+
+	/**
+	 * A pool that was never closed opens with the records it had, and with a free list made
+	 * from the gaps between them.
+	 */
+	@Test
+	public void testRecoverWithoutClose() throws IOException {
+		String fileName = new File(folder, "pool.bin").getPath();
+		PersistentPool pool = new PersistentPool(fileName, 1 << 16, NUM_OF_RECORDS, 512);
+		fill(pool, new Random(2));
+		MemManager manager = pool.getManager();
+		RecordDirectory records = pool.getRecords();
+		// An insert cut short before its record number was set
+		int orphan = manager.allocateId(20);
+		assertTrue(orphan != MemManager.NO_HANDLE);
+		// A remove cut short after its handle was freed
+		int removed = firstRecordNumber();
+		manager.removeFromMemoryPool(records.get(removed));
+		cityOf[removed] = null;
+
+		PersistentPool recovered = new PersistentPool(fileName, 1 << 16, NUM_OF_RECORDS, 512);
+		check(recovered);
+		MemManager recoveredManager = recovered.getManager();
+		assertEquals(recovered.getRecords().size(), 
+				recoveredManager.getHandleTable().getNumOfLiveHandles());
+		assertEquals(recoveredManager.getPoolEnd(), recoveredManager.getBytesInUse()
+				+ recoveredManager.getFreeBlockList().getFreeBytes());
+		// The recovered pool works as usual and closes cleanly
+		fill(recovered, new Random(3));
+		recovered.close();
+		PersistentPool reopened = new PersistentPool(fileName, 1 << 16, NUM_OF_RECORDS, 512);
+		check(reopened);
+		reopened.close();
+	}
+
+	/**
+	 * A pool that cannot be made leaves no files behind.
+	 */
+	@Test
+	public void testBadSlabPageSizeLeavesNoFiles() throws IOException {
+		String fileName = new File(folder, "pool.bin").getPath();
+		try {
+			new PersistentPool(fileName, 1 << 16, NUM_OF_RECORDS, 10);
+			fail("A slab page size of 10 was taken");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+		assertFalse(new File(fileName).exists());
+		assertFalse(new File(fileName + PersistentPool.META_SUFFIX).exists());
+	}
+
+	/**
+	 * Fills a pool, closes it, and checks it after opening it again.
+	 * @param slabPageSize the slab page size, 0 for no slab mode
+	 */
+	private void checkReopenAfterClose(int slabPageSize) throws IOException {
+		String fileName = new File(folder, "pool.bin").getPath();
+		PersistentPool pool = new PersistentPool(fileName, 1 << 16, NUM_OF_RECORDS, 
+				slabPageSize);
+		fill(pool, new Random(1));
+		MemManager manager = pool.getManager();
+		long bytesInUse = manager.getBytesInUse();
+		long freeBytes = manager.getFreeBlockList().getFreeBytes();
+		int numOfBlocks = manager.getFreeBlockList().getNumOfBlocks();
+		pool.close();
+
+		PersistentPool reopened = new PersistentPool(fileName, 1 << 10, 10, 0);
+		check(reopened);
+		MemManager reopenedManager = reopened.getManager();
+		assertEquals(NUM_OF_RECORDS, reopened.getRecords().getNumOfRecords());
+		assertEquals(bytesInUse, reopenedManager.getBytesInUse());
+		assertEquals(freeBytes, reopenedManager.getFreeBlockList().getFreeBytes());
+		assertEquals(numOfBlocks, reopenedManager.getFreeBlockList().getNumOfBlocks());
+		if (slabPageSize > 0) {
+			assertNotNull(reopenedManager.getSlabAllocator());
+			assertEquals(slabPageSize, reopenedManager.getSlabAllocator().getPageSize());
+		}
+		reopened.close();
+	}
+
+	/**
+	 * Inserts and removes records at random, like insert and remove commands.
+	 */
+	private void fill(PersistentPool pool, Random random) {
+		MemManager manager = pool.getManager();
+		RecordDirectory records = pool.getRecords();
+		for (int i = 0; i < 20000; i++) {
+			int recordNumber = random.nextInt(NUM_OF_RECORDS);
+			int id = records.get(recordNumber);
+			if (id != MemManager.NO_HANDLE) {
+				manager.removeFromMemoryPool(id);
+				records.put(recordNumber, MemManager.NO_HANDLE);
+				cityOf[recordNumber] = null;
+			}
+			if (random.nextInt(3) > 0) {
+				String city = "City" + random.nextInt(1 << random.nextInt(30));
+				Record record = new Record(recordNumber, -recordNumber, city);
+				id = manager.allocateId(record.getSizeOfMessage());
+				if (id == MemManager.NO_HANDLE)
+					continue;
+				record.encodeTo(manager.getMemoryPool(), manager.getPosition(id));
+				records.put(recordNumber, id);
+				cityOf[recordNumber] = city;
+			}
+		}
+	}
+
+	/**
+	 * Checks that the pool holds exactly the records that were put in it.
+	 */
+	private void check(PersistentPool pool) {
+		MemManager manager = pool.getManager();
+		RecordDirectory records = pool.getRecords();
+		int size = 0;
+		for (int i = 0; i < NUM_OF_RECORDS; i++) {
+			int id = records.get(i);
+			if (cityOf[i] == null) {
+				assertEquals(MemManager.NO_HANDLE, id, "record number " + i);
+				continue;
+			}
+			Record record = new Record(manager.getView(id));
+			assertEquals(i, record.getX());
+			assertEquals(-i, record.getY());
+			assertEquals(cityOf[i], record.getCityName());
+			size++;
+		}
+		assertEquals(size, records.size());
+	}
+
+	/**
+	 * @return the lowest record number with a record
+	 */
+	private int firstRecordNumber() {
+		for (int i = 0; i < NUM_OF_RECORDS; i++) {
+			if (cityOf[i] != null)
+				return i;
+		}
+		throw new IllegalStateException("The pool is empty");
+	}
+}
@@ -0,0 +1,273 @@
+package memmanager;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for compaction: records are packed and keep their bytes, the time budget stops it part
+ * way, slab pages stay put, a full insert does not compact again until it can help, and in
+ * crash safe mode no record is ever written over while a handle points at it.
+ */
+public class PoolCompactorTest {
+
+	/**
+	 * A heap pool that counts reads of single bytes, which only the compactor does, and while
+	 * checking is on notes any write over a record that a handle points at.
+	 */
+	private static class CheckedPoolBackend extends HeapPoolBackend {
+
+		HandleTable handles;
+		boolean checking;
+		boolean overwroteARecord;
+		int byteReads;
+
+		CheckedPoolBackend(int poolSize) {
+			super(poolSize);
+		}
+
+		@Override
+		public byte getByte(long position) {
+			byteReads++;
+			return super.getByte(position);
+		}
+
+		@Override
+		public void put(long position, byte[] space, int offset, int length) {
+			if (checking) {
+				for (int id = 0; id < handles.size(); id++) {
+					long start = handles.getPosition(id);
+					if (start >= 0 && start < position + length
+							&& position < start + (super.getByte(start) & 255) + 1)
+						overwroteARecord = true;
+				}
+			}
+			super.put(position, space, offset, length);
+		}
+	}
+
+	@Test
+	public void testCompactPacksEverything() {
+		MemManager manager = new MemManager(4096);
+		HashMap<Integer, byte[]> records = fill(manager, 60, 60, new Random(6));
+		removeEveryOther(manager, records);
+		assertTrue(manager.compact(Long.MAX_VALUE));
+		assertPacked(manager, records);
+	}
+
+	@Test
+	public void testTimeBudgetStopsAndCarriesOn() {
+		MemManager manager = new MemManager(1 << 16);
+		HashMap<Integer, byte[]> records = fill(manager, 1000, 50, new Random(7));
+		removeEveryOther(manager, records);
+		// The clock is looked at every 64 moves, so a budget of 0 stops long before the end
+		assertFalse(manager.compact(0));
+		assertTrue(manager.getFreeBlockList().getNumOfBlocks() > 1);
+		assertEquals(manager.getPoolEnd() - manager.getBytesInUse(),
+				manager.getFreeBlockList().getFreeBytes());
+		assertRecords(manager, records);
+		assertTrue(manager.compact(Long.MAX_VALUE));
+		assertPacked(manager, records);
+	}
+
+	@Test
+	public void testSlabPagesStayPut() {
+		MemManager manager = new MemManager(1 << 14, 512);
+		SlabAllocator slab = manager.getSlabAllocator();
+		Random random = new Random(8);
+		HashMap<Integer, byte[]> records = new HashMap<Integer, byte[]>();
+		ArrayList<Integer> big = new ArrayList<Integer>();
+		for (int i = 0; i < 40; i++) {
+			// Big records between small ones spread the slab pages through the pool
+			big.add(insert(manager, records, 200 + random.nextInt(50), random));
+			insert(manager, records, 1 + random.nextInt(20), random);
+		}
+		long[] pages = slab.getPagePositions();
+		HashMap<Integer, Long> slotPositions = new HashMap<Integer, Long>();
+		for (int id : records.keySet()) {
+			if (slab.contains(manager.getPosition(id)))
+				slotPositions.put(id, manager.getPosition(id));
+		}
+		for (int i = 0; i < big.size(); i += 2) {
+			manager.removeFromMemoryPool(big.get(i));
+			records.remove(big.get(i));
+		}
+		assertTrue(manager.compact(Long.MAX_VALUE));
+		assertArrayEquals(pages, slab.getPagePositions());
+		for (int id : slotPositions.keySet()) {
+			assertEquals(slotPositions.get(id).longValue(), manager.getPosition(id));
+		}
+		for (int id : records.keySet()) {
+			long position = manager.getPosition(id);
+			if (slotPositions.containsKey(id))
+				continue;
+			for (long page : pages) {
+				assertTrue(position + manager.getSizeOfRecord(id) + 1 <= page
+						|| position >= page + slab.getPageSize());
+			}
+		}
+		assertRecords(manager, records);
+		// Only the free space in front of a page and at the end is left
+		assertTrue(manager.getFreeBlockList().getNumOfBlocks() <= pages.length + 1);
+	}
+
+	@Test
+	public void testFullInsertCompactsOnlyWhenItCanHelp() {
+		CheckedPoolBackend backend = new CheckedPoolBackend(2048);
+		MemManager manager = new MemManager(backend, 512);
+		Random random = new Random(9);
+		HashMap<Integer, byte[]> records = new HashMap<Integer, byte[]>();
+		// A big record, then a slab page, then big records to the end of the pool
+		int first = insert(manager, records, 199, random);
+		insert(manager, records, 9, random);
+		int id;
+		do {
+			id = manager.insertId(new byte[199], 199);
+			if (id != MemManager.NO_HANDLE)
+				records.put(id, new byte[199]);
+		} while (id != MemManager.NO_HANDLE);
+		manager.removeFromMemoryPool(first);
+		records.remove(first);
+		// Now the free space in front of the page and at the end add up to enough, but can
+		// never be joined, so the first failure compacts and the next ones do not
+		long free = manager.getFreeBlockList().getFreeBytes();
+		int size = (int) Math.min(free - 1, 255);
+		assertTrue(manager.getFreeBlockList().getLargestBlockSize() < size + 1);
+		backend.byteReads = 0;
+		assertEquals(MemManager.NO_HANDLE, manager.insertId(new byte[size], size));
+		assertTrue(backend.byteReads > 0);
+		backend.byteReads = 0;
+		assertEquals(MemManager.NO_HANDLE, manager.insertId(new byte[size], size));
+		assertEquals(0, backend.byteReads);
+		// Freeing a record can make room, so the next failure compacts again
+		int other = records.keySet().iterator().next();
+		manager.removeFromMemoryPool(other);
+		records.remove(other);
+		backend.byteReads = 0;
+		manager.insertId(new byte[255], 255);
+		assertTrue(backend.byteReads > 0);
+	}
+
+	@Test
+	public void testCrashSafeNeverWritesOverARecord() {
+		assertFalse(compactChecked(true));
+		// Without crash safe mode the same pool has moves that write over their own record
+		assertTrue(compactChecked(false));
+	}
+
+	@Test
+	public void testCrashSafeWithoutRoomLeavesTheRecord() {
+		MemManager manager = new MemManager(300);
+		manager.getCompactor().setCrashSafe(true);
+		Random random = new Random(10);
+		HashMap<Integer, byte[]> records = new HashMap<Integer, byte[]>();
+		int small = insert(manager, records, 1, random);
+		int moving = insert(manager, records, 199, random);
+		insert(manager, records, 97, random);
+		manager.removeFromMemoryPool(small);
+		records.remove(small);
+		// The record would land on itself and the pool has no free space at the end
+		assertTrue(manager.compact(Long.MAX_VALUE));
+		assertEquals(2, manager.getPosition(moving));
+		assertEquals(1, manager.getFreeBlockList().getNumOfBlocks());
+		assertEquals(0, manager.getFreeBlockList().getHead().getNext().getPosition());
+		assertRecords(manager, records);
+	}
+
+	/**
+	 * Compacts a pool with small gaps in front of bigger records, so records move less than
+	 * their own size, checking every write the compactor makes.
+	 * @param crashSafe whether to compact in crash safe mode
+	 * @return whether a write went over a record that a handle pointed at
+	 */
+	private boolean compactChecked(boolean crashSafe) {
+		CheckedPoolBackend backend = new CheckedPoolBackend(1 << 15);
+		MemManager manager = new MemManager(backend);
+		manager.getCompactor().setCrashSafe(crashSafe);
+		backend.handles = manager.getHandleTable();
+		Random random = new Random(11);
+		HashMap<Integer, byte[]> records = new HashMap<Integer, byte[]>();
+		ArrayList<Integer> tiny = new ArrayList<Integer>();
+		for (int i = 0; i < 200; i++) {
+			tiny.add(insert(manager, records, 1, random));
+			insert(manager, records, 30 + random.nextInt(30), random);
+		}
+		// Gaps of 2 bytes, so every record behind them moves less than its own size
+		for (int i = 0; i < tiny.size(); i += 40) {
+			manager.removeFromMemoryPool(tiny.get(i));
+			records.remove(tiny.get(i));
+		}
+		backend.checking = true;
+		assertTrue(manager.compact(Long.MAX_VALUE));
+		backend.checking = false;
+		assertPacked(manager, records);
+		return backend.overwroteARecord;
+	}
+
+	/**
+	 * Inserts records of random sizes from 1 to maxSize.
+	 * @return the bytes of each record, by the id of its handle
+	 */
+	private HashMap<Integer, byte[]> fill(MemManager manager, int numOfRecords, int maxSize,
+			Random random) {
+		HashMap<Integer, byte[]> records = new HashMap<Integer, byte[]>();
+		for (int i = 0; i < numOfRecords; i++) {
+			insert(manager, records, 1 + random.nextInt(maxSize), random);
+		}
+		return records;
+	}
+
+	/**
+	 * Inserts a record of random bytes and keeps a copy of it.
+	 * @return the id of its handle
+	 */
+	private int insert(MemManager manager, HashMap<Integer, byte[]> records, int size,
+			Random random) {
+		byte[] record = new byte[size];
+		random.nextBytes(record);
+		int id = manager.insertId(record, size);
+		assertNotEquals(MemManager.NO_HANDLE, id);
+		records.put(id, record);
+		return id;
+	}
+
+	private void removeEveryOther(MemManager manager, HashMap<Integer, byte[]> records) {
+		boolean remove = false;
+		for (Integer id : new ArrayList<Integer>(records.keySet())) {
+			if (remove) {
+				manager.removeFromMemoryPool(id);
+				records.remove(id);
+			}
+			remove = !remove;
+		}
+	}
+
+	private void assertRecords(MemManager manager, HashMap<Integer, byte[]> records) {
+		for (int id : records.keySet()) {
+			byte[] record = records.get(id);
+			assertEquals(record.length, manager.getSizeOfRecord(id));
+			byte[] copy = new byte[record.length];
+			manager.get(copy, id, copy.length);
+			assertArrayEquals(record, copy);
+		}
+	}
+
+	/**
+	 * Checks that the records keep their bytes and the free space is one block at the end.
+	 */
+	private void assertPacked(MemManager manager, HashMap<Integer, byte[]> records) {
+		assertRecords(manager, records);
+		DoublyLinkedList freeBlockList = manager.getFreeBlockList();
+		assertEquals(1, freeBlockList.getNumOfBlocks());
+		assertEquals(manager.getBytesInUse(), freeBlockList.getHead().getNext().getPosition());
+		assertEquals(manager.getPoolEnd() - manager.getBytesInUse(), freeBlockList.getFreeBytes());
+	}
+}
@@ -0,0 +1,124 @@
+package memmanager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests PoolLayout against a map of the pool with one flag per byte, made from the free block
+ * list, for pools broken up by different policies and cut into different numbers of buckets
+ * (including more buckets than bytes).
+ */
+public class PoolLayoutTest {
+
+	/* The numbers of buckets each pool is cut into */
+	private static final int[] NUMS_OF_BUCKETS = {1, 7, 1000, 100000, 1 << 22};
+
+	/**
+	 * A pool with best fit that doubles as it fills.
+	 */
+	@Test
+	public void testBestFit() {
+		MemManager manager = new MemManager(new HeapPoolBackend(1 << 12));
+		manager.setGrowthPolicy(GrowthPolicy.doubling(1 << 20));
+		check(manager, new Random(1));
+	}
+
+	/**
+	 * A pool with the buddy system that doubles as it fills.
+	 */
+	@Test
+	public void testBuddy() {
+		MemManager manager = new MemManager(new HeapPoolBackend(1 << 12), new BuddyPolicy());
+		manager.setGrowthPolicy(GrowthPolicy.doubling(1 << 20));
+		check(manager, new Random(2));
+	}
+
+	/**
+	 * A pool in slab mode.
+	 */
+	@Test
+	public void testSlab() {
+		check(new MemManager(1 << 16, 512), new Random(3));
+	}
+
+	/**
+	 * A pool with worst fit, which grows by a size that is not a power of 2.
+	 */
+	@Test
+	public void testWorstFit() {
+		MemManager manager = new MemManager(new HeapPoolBackend(5000), 
+				new FitPolicy(FitPolicy.WORST_FIT));
+		manager.setGrowthPolicy(new GrowthPolicy(8000, 1 << 20));
+		check(manager, new Random(4));
+	}
+
+	/**
+	 * Breaks the pool up with random allocations and frees, then checks its layout with every
+	 * number of buckets.
+	 * @param manager the manager of the pool
+	 * @param random where the commands come from
+	 */
+	private static void check(MemManager manager, Random random) {
+		ArrayList<Integer> ids = new ArrayList<Integer>();
+		for (int i = 0; i < 100000; i++) {
+			if (ids.isEmpty() || random.nextInt(100) < 55) {
+				int id = manager.allocateId(1 + random.nextInt(random.nextBoolean() ? 40 : 200));
+				if (id != MemManager.NO_HANDLE)
+					ids.add(id);
+			}
+			else {
+				int k = random.nextInt(ids.size());
+				manager.removeFromMemoryPool(ids.get(k));
+				ids.set(k, ids.get(ids.size() - 1));
+				ids.remove(ids.size() - 1);
+			}
+		}
+		long poolSize = manager.getPoolEnd() - manager.getPoolStart();
+		boolean[] free = new boolean[(int) poolSize];
+		boolean[] blockStart = new boolean[(int) poolSize];
+		long[] blocksBySize = new long[PoolLayout.NUM_OF_SIZE_CLASSES];
+		long[] bytesBySize = new long[PoolLayout.NUM_OF_SIZE_CLASSES];
+		DoublyLinkedList freeBlockList = manager.getFreeBlockList();
+		for (DoublyLinkedList.FreeBlock block = freeBlockList.getHead().getNext(); 
+				block != freeBlockList.getTail(); block = block.getNext()) {
+			for (long position = block.getPosition(); 
+					position < block.getPosition() + block.getSize(); position++) {
+				free[(int) position] = true;
+			}
+			blockStart[(int) block.getPosition()] = true;
+			int sizeClass = 63 - Long.numberOfLeadingZeros(block.getSize());
+			blocksBySize[sizeClass]++;
+			bytesBySize[sizeClass] += block.getSize();
+		}
+		for (int n = 0; n < NUMS_OF_BUCKETS.length; n++) {
+			PoolLayout layout = new PoolLayout(manager, NUMS_OF_BUCKETS[n]);
+			String message = NUMS_OF_BUCKETS[n] + " buckets";
+			long total = 0;
+			for (int bucket = 0; bucket < layout.getNumOfBuckets(); bucket++) {
+				long start = bucket * layout.getBucketSize(0);
+				long end = start + layout.getBucketSize(bucket);
+				long freeBytes = 0;
+				int freeBlocks = 0;
+				for (long position = start; position < end; position++) {
+					if (free[(int) position])
+						freeBytes++;
+					if (blockStart[(int) position])
+						freeBlocks++;
+				}
+				assertEquals(freeBytes, layout.getFreeBytes(bucket), message);
+				assertEquals(freeBlocks, layout.getFreeBlocks(bucket), message);
+				total += layout.getBucketSize(bucket);
+			}
+			assertEquals(poolSize, total, message);
+			for (int sizeClass = 0; sizeClass < PoolLayout.NUM_OF_SIZE_CLASSES; sizeClass++) {
+				assertEquals(blocksBySize[sizeClass], layout.getBlocksBySize(sizeClass), message);
+				assertEquals(bytesBySize[sizeClass], layout.getBytesBySize(sizeClass), message);
+			}
+			assertEquals(manager.getBytesInUse(), layout.getBytesInUse(), message);
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package memmanager;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for RecordCursor: it writes the same bytes as Record.encode, and reads back the fields
+ * of records written either way, on the heap and off the heap.
+ */
+public class RecordCursorTest {
+
+	@Test
+	public void testEncodeMatchesRecord() {
+		checkEncode(new MemManager(new HeapPoolBackend(4096)));
+		checkEncode(new MemManager(new OffHeapPoolBackend(4096, 6)));
+	}
+
+	@Test
+	public void testCursorReadsInsertedRecords() {
+		checkRead(new MemManager(new HeapPoolBackend(4096)));
+		checkRead(new MemManager(new OffHeapPoolBackend(4096, 6)));
+	}
+
+	@Test
+	public void testOneCursorMovesFromRecordToRecord() {
+		MemManager manager = new MemManager(1000);
+		int first = manager.insertId(new Record(1, 2, "Ames").encode(), 12);
+		int second = manager.insertId(new Record(3, 4, "Ft. Lauderdale").encode(), 22);
+		RecordCursor cursor = new RecordCursor();
+		cursor.moveTo(manager.getMemoryPool(), manager.getPosition(second));
+		assertEquals(3, cursor.getX());
+		assertEquals(14, cursor.getCityLength());
+		cursor.moveTo(manager.getMemoryPool(), manager.getPosition(first));
+		assertEquals(1, cursor.getX());
+		assertEquals(2, cursor.getY());
+		assertEquals(4, cursor.getCityLength());
+		assertEquals(12, cursor.getSize());
+		byte[] city = new byte[6];
+		// The city goes where it is asked to, and the rest of space is left alone
+		assertEquals(4, cursor.getCity(city, 1));
+		assertArrayEquals(new byte[] {0, 'A', 'm', 'e', 's', 0}, city);
+	}
+
+	@Test
+	public void testSizeOf() {
+		assertEquals(8, RecordCursor.sizeOf(0));
+		assertEquals(255, RecordCursor.sizeOf(247));
+	}
+
+	/**
+	 * Writes records through a cursor into allocated space, and checks the bytes against
+	 * Record.encode, including extreme coordinates, an empty city and the longest one.
+	 */
+	private void checkEncode(MemManager manager) {
+		int[] coordinates = {0, -1, 1, Integer.MIN_VALUE, Integer.MAX_VALUE, 0x01020304};
+		int[] cityLengths = {0, 1, 7, 60, 247};
+		for (int i = 0; i < coordinates.length; i++) {
+			for (int cityLength : cityLengths) {
+				int x = coordinates[i];
+				int y = coordinates[coordinates.length - 1 - i];
+				byte[] city = new byte[cityLength + 2];
+				Arrays.fill(city, (byte) ('a' + cityLength % 26));
+				Handle handle = manager.allocate(RecordCursor.sizeOf(cityLength));
+				long position = manager.getPosition(handle.getId());
+				RecordCursor.encode(manager.getMemoryPool(), position, x, y, city, 1, cityLength);
+				byte[] expected = new Record(x, y, new String(city, 1, cityLength)).encode();
+				byte[] actual = new byte[manager.getSizeOfRecord(handle)];
+				manager.get(actual, handle, actual.length);
+				assertArrayEquals(expected, actual);
+				manager.removeFromMemoryPool(handle);
+			}
+		}
+	}
+
+	/**
+	 * Inserts records made by Record.encode and by Record.encodeTo, and reads them back through
+	 * a cursor.
+	 */
+	private void checkRead(MemManager manager) {
+		Record[] records = {new Record(Integer.MIN_VALUE, Integer.MAX_VALUE, "Chicago"),
+				new Record(-5, 70000, ""), new Record(123456, -123456, "Los Angeles")};
+		RecordCursor cursor = new RecordCursor();
+		for (Record record : records) {
+			int copied = manager.insertId(record.encode(), record.getSizeOfMessage());
+			Handle written = manager.allocate(record.getSizeOfMessage());
+			record.encodeTo(manager.getMemoryPool(), manager.getPosition(written.getId()));
+			long[] positions = {manager.getPosition(copied), manager.getPosition(written.getId())};
+			for (long position : positions) {
+				cursor.moveTo(manager.getMemoryPool(), position);
+				assertEquals(record.getX(), cursor.getX());
+				assertEquals(record.getY(), cursor.getY());
+				byte[] city = new byte[cursor.getCityLength()];
+				cursor.getCity(city, 0);
+				assertEquals(record.getCityName(), new String(city));
+			}
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package memmanager;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for slab mode: small records go in slots of their size class, other sizes fall back to
+ * best fit, and empty pages go back to the free block list.
+ */
+public class SlabAllocatorTest {
+
+	@Test
+	public void testSmallRecordsGoInSlots() {
+		MemManager manager = new MemManager(1 << 16, 512);
+		SlabAllocator slab = manager.getSlabAllocator();
+		int first = manager.allocateId(9);
+		int second = manager.allocateId(9);
+		assertTrue(slab.contains(manager.getPosition(first)));
+		// Blocks of 10 bytes go in the 16 byte class, one slot after the other
+		assertEquals(16, manager.getPosition(second) - manager.getPosition(first));
+		assertEquals(1, slab.getPagePositions().length);
+		// Another size class gets a page of its own
+		int other = manager.allocateId(30);
+		assertTrue(slab.contains(manager.getPosition(other)));
+		assertEquals(2, slab.getPagePositions().length);
+	}
+
+	@Test
+	public void testBigRecordsFallBackToBestFit() {
+		MemManager manager = new MemManager(1 << 16, 512);
+		int big = manager.allocateId(SlabAllocator.SIZE_CLASSES[SlabAllocator.SIZE_CLASSES.length 
+				- 1]);
+		assertFalse(manager.getSlabAllocator().contains(manager.getPosition(big)));
+		assertEquals(0, manager.getSlabAllocator().getPagePositions().length);
+	}
+
+	@Test
+	public void testEmptyPagesGoBack() {
+		MemManager manager = new MemManager(1 << 16, 512);
+		ArrayList<Integer> ids = new ArrayList<Integer>();
+		// Enough 16 byte slots for three pages
+		for (int i = 0; i < 3 * 512 / 16; i++) {
+			ids.add(manager.allocateId(10));
+		}
+		assertEquals(3, manager.getSlabAllocator().getPagePositions().length);
+		for (int i = 0; i < ids.size(); i++) {
+			manager.removeFromMemoryPool(ids.get(i));
+		}
+		// One empty page is kept as the spare, the others are free space again
+		assertEquals(1, manager.getSlabAllocator().getPagePositions().length);
+		assertEquals((1 << 16) - 512, manager.getFreeBlockList().getFreeBytes());
+		assertEquals(0, manager.getBytesInUse());
+	}
+
+	@Test
+	public void testRecordsKeepTheirBytes() {
+		Random random = new Random(2);
+		MemManager manager = new MemManager(100000, 512);
+		ArrayList<Integer> ids = new ArrayList<Integer>();
+		ArrayList<byte[]> records = new ArrayList<byte[]>();
+		for (int i = 0; i < 100000; i++) {
+			if (ids.isEmpty() || random.nextBoolean()) {
+				byte[] record = new byte[1 + random.nextInt(random.nextBoolean() ? 40 : 200)];
+				random.nextBytes(record);
+				int id = manager.insertId(record, record.length);
+				if (id != MemManager.NO_HANDLE) {
+					ids.add(id);
+					records.add(record);
+				}
+			}
+			else {
+				int k = random.nextInt(ids.size());
+				int id = ids.get(k);
+				byte[] record = records.get(k);
+				byte[] space = new byte[manager.getSizeOfRecord(id)];
+				manager.get(space, id, space.length);
+				assertArrayEquals(record, space);
+				manager.removeFromMemoryPool(id);
+				ids.set(k, ids.get(ids.size() - 1));
+				ids.remove(ids.size() - 1);
+				records.set(k, records.get(records.size() - 1));
+				records.remove(records.size() - 1);
+			}
+		}
+	}
+
+	@Test
+	public void testPageTooSmallForASlot() {
+		try {
+			new MemManager(1 << 16, SlabAllocator.MIN_PAGE_SIZE - 1);
+			fail("A page too small for a slot was taken");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+	}
+}
@@ -0,0 +1,150 @@
+package memmanager;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests SpatialIndex against a scan of every point, with points that are spread out, points
+ * piled up in one place and points at the edges of the int range.
+ */
+public class SpatialIndexTest {
+
+	/* The number of record numbers the tests use */
+	private static final int NUM_OF_RECORDS = 2000;
+
+	/* The x of each record number in the index */
+	private int[] xs = new int[NUM_OF_RECORDS];
+
+	/* The y of each record number in the index */
+	private int[] ys = new int[NUM_OF_RECORDS];
+
+	/* Whether each record number is in the index */
+	private boolean[] live = new boolean[NUM_OF_RECORDS];
+
+	/**
+	 * Inserts and removes points spread over a small square and checks every search.
+	 */
+	@Test
+	public void testSpreadPoints() {
+		run(new Random(1), 0, 1000);
+	}
+
+	/**
+	 * Piles most points in a few places, so leaves fill up with points that cannot be split.
+	 */
+	@Test
+	public void testPiledUpPoints() {
+		run(new Random(2), 500, 4);
+	}
+
+	/**
+	 * Uses points and searches near the edges of the int range, where the areas overflow int and
+	 * some points wrap around to the other edge.
+	 */
+	@Test
+	public void testExtremeCoordinates() {
+		run(new Random(3), Integer.MAX_VALUE - 50, 100);
+		run(new Random(4), Integer.MIN_VALUE, 100);
+	}
+
+	/**
+	 * Removing a point that is not there leaves the index alone.
+	 */
+	@Test
+	public void testRemoveMissingPoint() {
+		SpatialIndex index = new SpatialIndex();
+		index.insert(5, 5, 1);
+		assertFalse(index.remove(5, 5, 2));
+		assertFalse(index.remove(6, 5, 1));
+		assertEquals(1, index.size());
+		assertTrue(index.remove(5, 5, 1));
+		assertEquals(0, index.size());
+	}
+
+	/**
+	 * Runs random inserts, removes and searches over points in a square and checks each search
+	 * against a scan.
+	 * @param random where the commands come from
+	 * @param origin the smallest x and y of the square
+	 * @param range the width of the square
+	 */
+	private void run(Random random, int origin, int range) {
+		SpatialIndex index = new SpatialIndex();
+		Arrays.fill(live, false);
+		int size = 0;
+		for (int i = 0; i < 40000; i++) {
+			int recordNumber = random.nextInt(NUM_OF_RECORDS);
+			int operation = random.nextInt(10);
+			if (operation < 4 && !live[recordNumber]) {
+				xs[recordNumber] = origin + random.nextInt(range);
+				ys[recordNumber] = origin + random.nextInt(range);
+				index.insert(xs[recordNumber], ys[recordNumber], recordNumber);
+				live[recordNumber] = true;
+				size++;
+			}
+			else if (operation < 7) {
+				assertEquals(live[recordNumber], 
+						index.remove(xs[recordNumber], ys[recordNumber], recordNumber));
+				if (live[recordNumber])
+					size--;
+				live[recordNumber] = false;
+			}
+			else if (operation < 9) {
+				int x = origin + random.nextInt(range) - range / 4;
+				int y = origin + random.nextInt(range) - range / 4;
+				int width = random.nextInt(range / 2 + 1);
+				int height = random.nextInt(range / 2 + 1);
+				int found = index.regionSearch(x, y, width, height);
+				assertArrayEquals(scanRegion(x, y, width, height), 
+						Arrays.copyOf(index.getResults(), found));
+			}
+			else {
+				int x = origin + random.nextInt(range);
+				int y = origin + random.nextInt(range);
+				int radius = random.nextInt(range / 2 + 1);
+				int found = index.radiusSearch(x, y, radius);
+				assertArrayEquals(scanRadius(x, y, radius), 
+						Arrays.copyOf(index.getResults(), found));
+			}
+			assertEquals(size, index.size());
+		}
+	}
+
+	/**
+	 * @return the record numbers in the rectangle, lowest first, found by looking at every point
+	 */
+	private int[] scanRegion(int x, int y, int width, int height) {
+		int[] found = new int[NUM_OF_RECORDS];
+		int count = 0;
+		for (int i = 0; i < NUM_OF_RECORDS; i++) {
+			if (live[i] && xs[i] >= x && xs[i] <= (long) x + width && ys[i] >= y 
+					&& ys[i] <= (long) y + height)
+				found[count++] = i;
+		}
+		return Arrays.copyOf(found, count);
+	}
+
+	/**
+	 * @return the record numbers in the circle, lowest first, found by looking at every point
+	 */
+	private int[] scanRadius(int x, int y, int radius) {
+		int[] found = new int[NUM_OF_RECORDS];
+		int count = 0;
+		for (int i = 0; i < NUM_OF_RECORDS; i++) {
+			long dx = (long) xs[i] - x;
+			long dy = (long) ys[i] - y;
+			// Checking the box first keeps dx * dx from overflowing
+			if (live[i] && Math.abs(dx) <= radius && Math.abs(dy) <= radius 
+					&& dx * dx + dy * dy <= (long) radius * radius)
+				found[count++] = i;
+		}
+		return Arrays.copyOf(found, count);
+	}
+}